@@ -0,0 +1,179 @@
+package strohmfn;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Periodically saves the Tweets that have been processed so far, so a long running ingestion or annotation can be resumed after a crash. The Tweets are
+ * saved in segments: every save writes the Tweets since the previous save to a new corpus file. Afterwards a small state file records the number of
+ * segments and the input offset that belongs to them. Both are written under a temporary name first, so a crash during a save leaves the previous
+ * checkpoint intact.
+ *
+ * @author strohmfn
+ *
+ */
+public class Checkpoint {
+
+	private File directory;
+	// Name of the checkpoint. Has to identify the input and all settings that influence the processed Tweets.
+	private String name;
+	// Number of Tweets after which a new segment is saved.
+	private int interval;
+
+	// Number of saved segments and Tweets and the input offset directly after the last saved Tweet.
+	private int segments = 0;
+	private int savedTweets = 0;
+	private long offset = 0;
+
+	/**
+	 * Creates a checkpoint. Nothing is read or written until restore() or update() are called.
+	 *
+	 * @param directory
+	 *            Directory of the checkpoint files.
+	 * @param name
+	 *            Name of the checkpoint. Has to identify the input and all settings that influence the processed Tweets, e.g. by a fingerprint.
+	 * @param interval
+	 *            Number of Tweets after which a new segment is saved.
+	 */
+	public Checkpoint(File directory, String name, int interval) {
+		this.directory = directory;
+		this.name = name;
+		this.interval = Math.max(1, interval);
+	}
+
+	/**
+	 * Adds the saved Tweets of a previous run to the list. If the checkpoint is incomplete or corrupt, it is deleted and nothing is added.
+	 *
+	 * @param tweetsList
+	 *            The list the saved Tweets are added to.
+	 * @return Returns the input offset directly after the last saved Tweet or 0 if there is no checkpoint.
+	 */
+	public long restore(List<Tweet> tweetsList) {
+		File stateFile = getStateFile();
+		if (!stateFile.exists()) {
+			return 0;
+		}
+		ArrayList<Tweet> savedTweetsList = new ArrayList<Tweet>();
+		try {
+			Properties state = new Properties();
+			InputStream input = new FileInputStream(stateFile);
+			try {
+				state.load(input);
+			} finally {
+				input.close();
+			}
+			int savedSegments = Integer.parseInt(state.getProperty("segments"));
+			long savedOffset = Long.parseLong(state.getProperty("offset"));
+			for (int i = 0; i < savedSegments; i++) {
+				new CorpusFile(getSegmentFile(i)).readSet(CorpusFile.TEST_SET, savedTweetsList);
+			}
+			if (savedTweetsList.size() != Integer.parseInt(state.getProperty("tweets"))) {
+				throw new IOException("Checkpoint " + name + " is incomplete.");
+			}
+			segments = savedSegments;
+			savedTweets = savedTweetsList.size();
+			offset = savedOffset;
+		} catch (IOException | RuntimeException e) {
+			System.out.print("checkpoint is corrupt, starting from the beginning | ");
+			delete();
+			return 0;
+		}
+		tweetsList.addAll(savedTweetsList);
+		return offset;
+	}
+
+	/**
+	 * Saves the Tweets that have been added to the list since the last save if there are at least as many as the interval.
+	 *
+	 * @param tweetsList
+	 *            All Tweets that have been processed so far, including the restored and the already saved ones.
+	 * @param offset
+	 *            Input offset directly after the last Tweet of the list.
+	 * @throws IOException
+	 *             Throws exception if the checkpoint can not be written.
+	 */
+	public void update(List<Tweet> tweetsList, long offset) throws IOException {
+		if (tweetsList.size() - savedTweets >= interval) {
+			save(tweetsList, offset);
+		}
+	}
+
+	/**
+	 * Saves the Tweets that have been added to the list since the last save.
+	 *
+	 * @param tweetsList
+	 *            All Tweets that have been processed so far, including the restored and the already saved ones.
+	 * @param offset
+	 *            Input offset directly after the last Tweet of the list.
+	 * @throws IOException
+	 *             Throws exception if the checkpoint can not be written.
+	 */
+	public void save(List<Tweet> tweetsList, long offset) throws IOException {
+		Files.createDirectories(directory.toPath());
+		// write the new segment
+		File segmentFile = getSegmentFile(segments);
+		File temporaryFile = new File(segmentFile.getPath() + ".tmp");
+		CorpusFile.write(temporaryFile, new ArrayList<Tweet>(), tweetsList.subList(savedTweets, tweetsList.size()));
+		Files.move(temporaryFile.toPath(), segmentFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		// the segment only becomes part of the checkpoint when the state file refers to it
+		Properties state = new Properties();
+		state.setProperty("segments", Integer.toString(segments + 1));
+		state.setProperty("tweets", Integer.toString(tweetsList.size()));
+		state.setProperty("offset", Long.toString(offset));
+		File stateFile = getStateFile();
+		temporaryFile = new File(stateFile.getPath() + ".tmp");
+		OutputStream output = new FileOutputStream(temporaryFile);
+		try {
+			state.store(output, "Checkpoint " + name);
+		} finally {
+			output.close();
+		}
+		Files.move(temporaryFile.toPath(), stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		segments++;
+		savedTweets = tweetsList.size();
+		this.offset = offset;
+	}
+
+	/**
+	 * Deletes all files of the checkpoint. Is called when the processing has finished.
+	 */
+	public void delete() {
+		getStateFile().delete();
+		// segments of an interrupted save are deleted as well
+		for (int i = 0;; i++) {
+			boolean deleted = getSegmentFile(i).delete();
+			deleted |= new File(getSegmentFile(i).getPath() + ".tmp").delete();
+			if (!deleted && i >= segments) {
+				break;
+			}
+		}
+		segments = 0;
+		savedTweets = 0;
+		offset = 0;
+	}
+
+	/**
+	 *
+	 * @return Returns the number of saved (or restored) Tweets.
+	 */
+	public int getSavedTweets() {
+		return savedTweets;
+	}
+
+	private File getStateFile() {
+		return new File(directory, name + ".checkpoint");
+	}
+
+	private File getSegmentFile(int segment) {
+		return new File(directory, name + "." + segment + ".bin");
+	}
+}
@@ -4,21 +4,42 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.PrintWriter;
+import java.io.UncheckedIOException;
 import java.math.RoundingMode;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Properties;
 
+import de.bwaldvogel.liblinear.Linear;
+
 /**
  * 
  * @author strohmfn
@@ -35,13 +56,19 @@ public class Control {
 		}
 	}
 
+	// Number of Tweets that are annotated at once if a loaded corpus is annotated again.
+	private static final int ANNOTATION_PART_SIZE = 10000;
+
 	// The values for these variables will be read from the config.properties file.
 	private boolean loadCorpus = false;
+	private boolean annotateLoadedCorpus = false;
 	private boolean saveCreatedCorpus = false;
 	private int classifierType;
 	private String corpusPath;
 	private String trainingDataPath;
 	private String testDataPath;
+	private String appendTrainingDataPath;
+	private String appendTestDataPath;
 	private String handAnnotationsPath;
 	private String handAnnotationsEvalCorpusPath;
 	private String emotionLexiconPath;
@@ -52,11 +79,31 @@ public class Control {
 	private boolean[] modifierDetectionSettings = { false, false, false };
 	private int modifierDetectionMethod;
 	private int n;
+	private int nMax;
+	private String parseCachePath;
+	private int parseCacheSize = 1024;
+	private int parserThreads = 1;
+	private int parserBatchSize = 100;
+	// Cache of the dependency parses, shared by all modifier detections of the run.
+	private ParseCache parseCache;
 	private boolean evaluateModifierDetection = false;
 	private boolean stemming = false;
+	private int stemmingMethod = 1;
+	private int ingestionThreads = 1;
+	private String corpusCharset;
+	private int corpusEngine = 1;
+	private String corpusCachePath;
+	private boolean collapseDuplicates = false;
+	private int tokenizer = 1;
+	private String checkpointPath;
+	private int checkpointInterval = 10000;
+	private String watchPath;
+	private boolean watchLexica = false;
 	private String resultPath;
 	private double epsSVM_EMO;
 	private double c_EMO;
+	// The classifier replaces c_EMO by the C it has found, this is the configured value.
+	private double configuredC_EMO;
 	private int n_gram;
 	private int tries;
 	private int searches;
@@ -72,6 +119,14 @@ public class Control {
 	private Corpus corpus;
 	private Object modDetect;
 	private EmoClassifier_Wordlist wordListClassifier;
+	private EmoClassifier_SVM svmClassifier;
+	// Modifier cues of the training and test set. Only used if several window sizes of the next-n modifier detection are evaluated.
+	private ArrayList<ModDetect_NextN.CueScan> trainingCueScans;
+	private ArrayList<ModDetect_NextN.CueScan> testCueScans;
+	// Versions of the lexicon files the corpus has been annotated and classified with. Only used if the lexicon files are watched.
+	private Lexicon[] watchedModifierLexica;
+	private long emotionLexiconModified;
+	private int lexiconUpdates = 0;
 
 	DecimalFormat df1;
 	DecimalFormat df2;
@@ -113,10 +168,24 @@ public class Control {
 		if (!success) {
 			throw new IOException("Could not create directory" + "'" + resultPath + "Evaluation_results/" + "'. Please check directory path." + "\n" + "Execution stopped!");
 		}
+		// The dependency tree and SVM modifier detection map the tokens of the CoreNLP parser to the token lists by their index.
+		boolean createsTweets = !loadCorpus || !appendTrainingDataPath.isEmpty() || !appendTestDataPath.isEmpty();
+		if (createsTweets && tokenizer != 1 && (modifierDetectionMethod == 3 || modifierDetectionMethod == 4)) {
+			throw new Exception("Invalid parameter: tokenizer = " + tokenizer + "\n" + "Modifier detection methods 3 and 4 need the PTBTokenizer (tokenizer = 1).");
+		}
+		// Changes of the lexica are applied to the Tweets that contain a changed entry, which are found by the index of a created corpus.
+		if (watchLexica && loadCorpus) {
+			throw new Exception("Invalid parameter: watchLexica = true" + "\n" + "Lexicon changes can only be applied to a created corpus (loadCorpus = false).");
+		}
+		// The watched directory is checked before the corpus is created, which can take a long time.
+		if (!watchPath.isEmpty() && !new File(watchPath).isDirectory()) {
+			throw new FileNotFoundException("Watched directory '" + watchPath + "' not found");
+		}
+		String exportPath = resultPath + "Evaluation_results_" + timeStamp + "/";
 		// Creates or loads the corpus.
 		if (loadCorpus) {
 			System.out.println("Loading corpus...");
-			loadCorpus();
+			loadCorpus(exportPath);
 			System.out.println("Corpus loaded!");
 		} else if (!loadCorpus) {
 			createCorpora();
@@ -126,15 +195,71 @@ public class Control {
 		// Starts modifier detection if any method is selected and a new corpus was created.
 		if ((modifierDetectionMethod != 0) && !loadCorpus) {
 			System.out.println("Starting modifier detection...");
-			detectModifier();
+			detectModifier(corpus);
 		}
+		// Evaluates the additional window sizes of the next-n modifier detection. The results of each window size are exported into a sub directory.
+		if (trainingCueScans != null) {
+			int windowSize = n;
+			for (int k = windowSize + 1; k <= nMax; k++) {
+				System.out.println("Evaluating window size n = " + k + "...");
+				n = k;
+				annotateWindow();
+				String windowExportPath = exportPath + "n_" + k + "/";
+				if (!new File(windowExportPath).mkdirs()) {
+					throw new IOException("Could not create directory" + "'" + windowExportPath + "'. Please check directory path." + "\n" + "Execution stopped!");
+				}
+				classifyAndEvaluate(windowExportPath);
+				// The classifier may change the parameter C, so every window size starts with the configured value.
+				c_EMO = configuredC_EMO;
+				// LibLinear draws the cross-validation folds from a random generator that is shared by the whole process. It is reset, so each
+				// window size gets the same results as a separate run.
+				Linear.resetRandom();
+			}
+			// The corpus is annotated with the configured window size again.
+			System.out.println("Evaluating window size n = " + windowSize + "...");
+			n = windowSize;
+			annotateWindow();
+		}
+		classifyAndEvaluate(exportPath);
+		// Classifies the Tweets files of the watched directory and applies changes of the lexicon files until the program is stopped.
+		if (!watchPath.isEmpty() || watchLexica) {
+			watch(exportPath);
+		}
+	}
+
+	/**
+	 * Classifies the test set, evaluates the emotion classification and the modifier detection and exports the results.
+	 * 
+	 * @param exportPath
+	 *            The directory the results are exported to.
+	 * @throws Exception
+	 *             Throws exception if any file is missing or corrupt.
+	 */
+	private void classifyAndEvaluate(String exportPath) throws Exception {
 		// Starts classification procedure.
 		System.out.println("Starting emotion classification...");
 		classify();
+		evaluateAndExport(exportPath);
+	}
+
+	/**
+	 * Evaluates the emotion classification and the modifier detection and exports the results.
+	 * 
+	 * @param exportPath
+	 *            The directory the results are exported to.
+	 * @throws Exception
+	 *             Throws exception if any file is missing or corrupt.
+	 */
+	private void evaluateAndExport(String exportPath) throws Exception {
 		// Starts emotion classification evaluation procedure.
 		System.out.println("Starting evaluation...");
 		System.out.print("Evaluating emotion classification... ");
-		Result resultClassification = new Evaluation(corpus.getTrainingSet(), corpus.getTestSet()).evaluateClassification();
+		Result resultClassification;
+		if (corpus.isTrainingSetLoaded()) {
+			resultClassification = new Evaluation(corpus.getTrainingSet(), corpus.getTestSet()).evaluateClassification();
+		} else {
+			resultClassification = new Evaluation(corpus.getTrainingEmotionCounts(), corpus.getTestSet()).evaluateClassification();
+		}
 		System.out.println("DONE!");
 		// Starts modifier detection evaluation if modifier detection was used and evaluateModifierDetection is true.
 		Result resultModifier = null;
@@ -154,7 +279,7 @@ public class Control {
 				}
 				// Create the modifier evaluation corpus.
 				System.out.print("Creating modifier evaluation corpus: ");
-				Corpus modifierEvalCorpus = new Corpus(handAnnotationsCorpus);
+				Corpus modifierEvalCorpus = createHandAnnotatedCorpus(handAnnotationsCorpus);
 				System.out.println("DONE!");
 				System.out.print("Annotating modifier evaluation corpus: ");
 				// Apply the selcted modifer detection method to the modifier evaluation corpus.
@@ -185,7 +310,6 @@ public class Control {
 			}
 		}
 		// Start export procedure.
-		String exportPath = resultPath + "Evaluation_results_" + timeStamp + "/";
 		System.out.println("Exporting results...");
 		exportResults(exportPath, resultClassification, resultModifier, resultModifierSimple);
 		System.out.println("Results successfully exported to '" + exportPath + "'");
@@ -212,12 +336,17 @@ public class Control {
 		if (prop.getProperty("loadCorpus").equals("true")) {
 			loadCorpus = true;
 		}
+		if (prop.getProperty("annotateLoadedCorpus", "false").equals("true")) {
+			annotateLoadedCorpus = true;
+		}
 		if (prop.getProperty("saveCreatedCorpus").equals("true")) {
 			saveCreatedCorpus = true;
 		}
 		corpusPath = prop.getProperty("corpusPath");
 		trainingDataPath = prop.getProperty("trainingDataPath");
 		testDataPath = prop.getProperty("testDataPath");
+		appendTrainingDataPath = prop.getProperty("appendTrainingDataPath", "");
+		appendTestDataPath = prop.getProperty("appendTestDataPath", "");
 		handAnnotationsPath = prop.getProperty("handAnnotationsPath");
 		handAnnotationsEvalCorpusPath = prop.getProperty("handAnnotationsEvalCorpusPath");
 		classifierType = Integer.parseInt(prop.getProperty("classifierType"));
@@ -241,11 +370,32 @@ public class Control {
 			evaluateModifierDetection = true;
 		}
 		n = Integer.parseInt(prop.getProperty("n"));
+		nMax = Integer.parseInt(prop.getProperty("nMax", "0"));
+		parseCachePath = prop.getProperty("parseCachePath", "");
+		parseCacheSize = Integer.parseInt(prop.getProperty("parseCacheSize", "1024"));
+		parserThreads = Integer.parseInt(prop.getProperty("parserThreads", "1"));
+		parserBatchSize = Integer.parseInt(prop.getProperty("parserBatchSize", "100"));
 		if (prop.getProperty("stemming").equals("true")) {
 			stemming = true;
 		}
+		stemmingMethod = Integer.parseInt(prop.getProperty("stemmingMethod", "1"));
+		ingestionThreads = Integer.parseInt(prop.getProperty("ingestionThreads", "1"));
+		corpusCharset = prop.getProperty("corpusCharset", "UTF-8");
+		corpusEngine = Integer.parseInt(prop.getProperty("corpusEngine", "1"));
+		corpusCachePath = prop.getProperty("corpusCachePath", "");
+		tokenizer = Integer.parseInt(prop.getProperty("tokenizer", "1"));
+		checkpointPath = prop.getProperty("checkpointPath", "");
+		checkpointInterval = Integer.parseInt(prop.getProperty("checkpointInterval", "10000"));
+		watchPath = prop.getProperty("watchPath", "");
+		if (prop.getProperty("watchLexica", "false").equals("true")) {
+			watchLexica = true;
+		}
+		if (prop.getProperty("collapseDuplicates", "false").equals("true")) {
+			collapseDuplicates = true;
+		}
 		epsSVM_EMO = Double.parseDouble(prop.getProperty("epsilonSVM_EMO"));
 		c_EMO = Double.parseDouble(prop.getProperty("c_EMO"));
+		configuredC_EMO = c_EMO;
 		n_gram = Integer.parseInt(prop.getProperty("n_gram"));
 		tries = Integer.parseInt(prop.getProperty("tries"));
 		searches = Integer.parseInt(prop.getProperty("searches"));
@@ -265,21 +415,259 @@ public class Control {
 
 	/**
 	 * 
-	 * @throws IOException
-	 *             Throws IOException if file is missing or corrupt.
-	 * @throws ClassNotFoundException
-	 *             Throws ClassNotFoundException if file does not contain a Corpus object.
+	 * @param exportPath
+	 *            The results directory, a corpus file that is annotated again is written there.
+	 * @throws Exception
+	 *             Throws Exception if file is missing or corrupt or does not contain a Corpus object.
 	 */
 	@SuppressWarnings("unchecked")
-	private void loadCorpus() throws IOException, ClassNotFoundException {
-		// Loads an existing corpus from file and stores it in the 'corpus' parameter.
+	private void loadCorpus(String exportPath) throws Exception {
+		// Corpus files in the binary format are loaded directly. The training set is only loaded if the classifier needs it.
+		File corpusFile = new File(corpusPath);
+		if (CorpusFile.isCorpusFile(corpusFile)) {
+			if (!appendTrainingDataPath.isEmpty() || !appendTestDataPath.isEmpty()) {
+				appendToCorpus(corpusFile);
+			}
+			if (annotateLoadedCorpus && modifierDetectionMethod != 0) {
+				File annotatedCorpusFile = new File(exportPath + "corpus.bin");
+				if (!annotateCorpusFile(corpusFile, annotatedCorpusFile)) {
+					throw new Exception("Invalid parameter: modifierDetectionMethod = " + modifierDetectionMethod);
+				}
+				corpusFile = annotatedCorpusFile;
+			}
+			// the classifiers and the evaluation need the sets as lists, so they are loaded completely
+			boolean loadTrainingSet = !(classifierType == 2 && loadWeightMatrices);
+			corpus = new Corpus(new CorpusFile(corpusFile), loadTrainingSet, createCorpusSettings());
+			return;
+		}
+		if (annotateLoadedCorpus) {
+			throw new Exception("Invalid parameter: annotateLoadedCorpus = true" + "\n" + "Only binary corpus files can be annotated again.");
+		}
+		// Loads an existing corpus from a file written with Java serialization and stores it in the 'corpus' parameter.
 		FileInputStream streamIn = new FileInputStream(corpusPath);
 		ObjectInputStream objectinputstream = new ObjectInputStream(streamIn);
 		Object data[] = (Object[]) objectinputstream.readObject();
-		corpus = new Corpus((ArrayList<Tweet>) data[0], (ArrayList<Tweet>) data[1]);
+		corpus = new Corpus((List<Tweet>) data[0], (List<Tweet>) data[1]);
 		objectinputstream.close();
 		streamIn.close();
 	}
+
+	/**
+	 * Removes the modifier annotations of a binary corpus file and annotates its Tweets with the selected modifier detection method. The sets are read,
+	 * annotated and written to the target file in parts of ANNOTATION_PART_SIZE Tweets, so only one part of the corpus is in memory at a time. The
+	 * classification and evaluation still load the annotated corpus completely.
+	 * 
+	 * @param source
+	 *            The binary corpus file.
+	 * @param target
+	 *            The annotated corpus file.
+	 * @return Returns false if the selected method is invalid. Nothing is written in this case.
+	 * @throws Exception
+	 *             Throws exception if a file of the modifier detection is missing or corrupt or the corpus file can not be read or written.
+	 */
+	private boolean annotateCorpusFile(File source, File target) throws Exception {
+		if (!createModifierDetection(getModifierLexica())) {
+			return false;
+		}
+		// The training set is annotated into a temporary file, the test set is annotated from there into the target file.
+		File temporaryFile = new File(target.getPath() + ".tmp");
+		try {
+			System.out.print("Annotating training set: ");
+			annotateStreamed(new StreamingCorpus(source, CorpusFile.TRAINING_SET), temporaryFile);
+			System.out.println("DONE!");
+			System.out.print("Annotating test set: ");
+			annotateStreamed(new StreamingCorpus(temporaryFile, CorpusFile.TEST_SET), target);
+			System.out.println("DONE!");
+		} finally {
+			temporaryFile.delete();
+		}
+		return true;
+	}
+
+	/**
+	 * Annotates a set of a corpus file part by part and writes the corpus file with the annotated set.
+	 * 
+	 * @param set
+	 *            The to be annotated set.
+	 * @param target
+	 *            The corpus file that is written.
+	 * @throws IOException
+	 *             Throws IOException if a file of the modifier detection is corrupt or the corpus file can not be read or written.
+	 */
+	private void annotateStreamed(StreamingCorpus set, File target) throws IOException {
+		// the modifier detection prints the progress of each part separately
+		int parts = (int) ((set.size() + (long) ANNOTATION_PART_SIZE - 1) / ANNOTATION_PART_SIZE);
+		int part = 1;
+		try {
+			for (List<Tweet> tweets : set.rewriteTo(target, ANNOTATION_PART_SIZE, createAnnotationDescription())) {
+				System.out.print("part " + part++ + "/" + parts + ": ");
+				for (Tweet tweet : tweets) {
+					removeAnnotations(tweet);
+				}
+				annotate(tweets);
+			}
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Removes the modifier annotations of a Tweet: the flags and modified tokens of its tokens are cleared and the marks of the modifier detection are
+	 * removed from the normalized strings (NEG_, INT_, DIM_, normalized strings are lower case otherwise).
+	 * 
+	 * @param tweet
+	 *            The Tweet.
+	 */
+	private static void removeAnnotations(Tweet tweet) {
+		for (Token token : tweet.getTokenList()) {
+			token.setFlags((byte) 0);
+			token.clearModifies();
+			String normalizedString = token.getNormalizedTokenString();
+			int start = 0;
+			while (normalizedString.startsWith("NEG_", start) || normalizedString.startsWith("INT_", start) || normalizedString.startsWith("DIM_", start)) {
+				start += 4;
+			}
+			if (start > 0) {
+				token.setNormalizedTokenString(normalizedString.substring(start));
+			}
+		}
+	}
+
+	/**
+	 * Creates Tweets from the Tweets files that are supposed to be appended, annotates them with the selected modifier detection method and appends them
+	 * to the corpus file. Only the new Tweets are tokenized and annotated, the Tweets and annotations that are already in the file are kept.
+	 * 
+	 * The corpus file records the settings its Tweets have been tokenized and annotated with and the fingerprints of the appended Tweets files. Tweets are
+	 * only appended if the settings are the same, and a Tweets file that has already been appended is skipped.
+	 * 
+	 * @param corpusFile
+	 *            The binary corpus file.
+	 * @throws Exception
+	 *             Throws Exception if a Tweets file is missing, the settings differ from the settings of the corpus file or the corpus file can not be
+	 *             written.
+	 */
+	private void appendToCorpus(File corpusFile) throws Exception {
+		CorpusFile existingCorpus = new CorpusFile(corpusFile);
+		String annotation = createAnnotationDescription();
+		if (existingCorpus.getAnnotation().isEmpty()) {
+			throw new Exception("Tweets can not be appended to " + corpusFile.getPath() + "\n"
+					+ "The corpus file does not record the settings its Tweets have been tokenized and annotated with.");
+		}
+		if (!existingCorpus.getAnnotation().equals(annotation)) {
+			throw new Exception("Tweets can not be appended to " + corpusFile.getPath() + "\n" + "The Tweets of the corpus file have been created with "
+					+ existingCorpus.getAnnotation() + ", the current settings are " + annotation + "\n"
+					+ "Annotate the corpus again with the current settings first (annotateLoadedCorpus = true) and append to the annotated corpus file.");
+		}
+		HashSet<Long> appendedFiles = new HashSet<Long>();
+		for (long appendedFile : existingCorpus.getAppendedFiles()) {
+			appendedFiles.add(appendedFile);
+		}
+		ArrayList<Long> newFiles = new ArrayList<Long>();
+		File trainingData = getFileToAppend(appendTrainingDataPath, appendedFiles, newFiles);
+		File testData = getFileToAppend(appendTestDataPath, appendedFiles, newFiles);
+		if (trainingData == null && testData == null) {
+			return;
+		}
+		System.out.println("Creating Tweets to append...");
+		Corpus newTweets = new Corpus(trainingData, testData, createCorpusSettings());
+		// the appended Tweets are annotated like the Tweets in the file, even if the corpus is annotated again afterwards
+		if (modifierDetectionMethod != 0) {
+			System.out.println("Starting modifier detection...");
+			detectModifier(newTweets);
+		}
+		System.out.print("Appending Tweets to corpus... ");
+		CorpusFile.append(corpusFile, newTweets.getTrainingSet(), newTweets.getTestSet(), newFiles);
+		System.out.println("DONE!");
+	}
+
+	/**
+	 * Checks if a Tweets file has to be appended to the corpus file.
+	 * 
+	 * @param path
+	 *            Path of the Tweets file, empty if nothing is appended.
+	 * @param appendedFiles
+	 *            Fingerprints of the Tweets files that have already been appended, the fingerprint of the file is added if it has to be appended.
+	 * @param newFiles
+	 *            Fingerprints of the Tweets files that are appended now, the fingerprint of the file is added if it has to be appended.
+	 * @return Returns the Tweets file or null if nothing has to be appended.
+	 * @throws IOException
+	 *             Throws IOException if the Tweets file is missing or can not be read.
+	 */
+	private static File getFileToAppend(String path, HashSet<Long> appendedFiles, List<Long> newFiles) throws IOException {
+		if (path.isEmpty()) {
+			return null;
+		}
+		File file = new File(path);
+		if (!file.exists()) {
+			throw new FileNotFoundException("Tweets file not found");
+		}
+		long fingerprint = calculateFileFingerprint(file);
+		if (!appendedFiles.add(fingerprint)) {
+			System.out.println("Skipping " + path + ", it has already been appended to the corpus.");
+			return null;
+		}
+		newFiles.add(fingerprint);
+		return file;
+	}
+
+	/**
+	 * Calculates the fingerprint of a Tweets file from its content, so a file is recognized after it has been moved or renamed.
+	 * 
+	 * @param file
+	 *            The Tweets file.
+	 * @return Returns the first 8 bytes of the SHA-256 hash of the file content.
+	 * @throws IOException
+	 *             Throws IOException if the file can not be read.
+	 */
+	private static long calculateFileFingerprint(File file) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		InputStream input = new FileInputStream(file);
+		try {
+			byte[] buffer = new byte[65536];
+			int length;
+			while ((length = input.read(buffer)) > 0) {
+				digest.update(buffer, 0, length);
+			}
+		} finally {
+			input.close();
+		}
+		byte[] hash = digest.digest();
+		long fingerprint = 0;
+		for (int i = 0; i < 8; i++) {
+			fingerprint = (fingerprint << 8) | (hash[i] & 0xff);
+		}
+		return fingerprint;
+	}
+
+	/**
+	 * Describes the settings that determine the tokens and modifier annotations of the Tweets. The description is recorded in corpus files, so Tweets are
+	 * only appended to a corpus file that has been created with the same settings. The contents of the lexica and training files are not covered.
+	 * 
+	 * @return Returns the description of the settings.
+	 */
+	private String createAnnotationDescription() {
+		StringBuilder description = new StringBuilder();
+		description.append("tokenizer=").append(tokenizer);
+		description.append(" stemming=").append(stemming ? stemmingMethod : 0);
+		description.append(" modifierDetectionMethod=").append(modifierDetectionMethod);
+		if (modifierDetectionMethod != 0) {
+			if (modifierDetectionMethod == 1) {
+				description.append(" n=").append(n);
+			}
+			if (modifierDetectionMethod == 4) {
+				description.append(" epsilonSVM_MOD=").append(epsSVM_MOD).append(" c_MOD=").append(c_MOD);
+			}
+			description.append(" negation=").append(modifierDetectionSettings[0]);
+			description.append(" intensifier=").append(modifierDetectionSettings[1]);
+			description.append(" diminisher=").append(modifierDetectionSettings[2]);
+		}
+		return description.toString();
+	}
 	
 	/**
 	 * Creates training and test corpora
@@ -298,73 +686,85 @@ public class Control {
 		if (!trainingData.exists()) {
 			throw new FileNotFoundException("Tweets file not found");
 		}
-		// Starts corpus creation.
-		this.corpus = new Corpus(trainingData, testData, stemming);
+		// Starts corpus creation. The index is needed to apply changes of the lexica to the Tweets that are affected.
+		CorpusSettings settings = createCorpusSettings();
+		settings.setIndexed(watchLexica);
+		this.corpus = new Corpus(trainingData, testData, settings);
+	}
+
+	/**
+	 * Creates the settings that are used to read and tokenize the data files.
+	 * 
+	 * @return Returns the corpus settings according to the config file.
+	 */
+	private CorpusSettings createCorpusSettings() {
+		CorpusSettings settings = new CorpusSettings();
+		settings.setStemming(stemming);
+		settings.setStemmingMethod(stemmingMethod);
+		settings.setThreads(ingestionThreads);
+		settings.setCharset(Charset.forName(corpusCharset));
+		settings.setEngine(corpusEngine);
+		if (!corpusCachePath.isEmpty()) {
+			settings.setCacheDirectory(new File(corpusCachePath));
+		}
+		settings.setTokenizer(tokenizer);
+		settings.setCollapseDuplicates(collapseDuplicates);
+		if (!checkpointPath.isEmpty()) {
+			settings.setCheckpointDirectory(new File(checkpointPath));
+			settings.setCheckpointInterval(checkpointInterval);
+		}
+		return settings;
+	}
+
+	/**
+	 * Creates a corpus containing all Tweets for which hand annotations exist. Stemming and collapsing of duplicates are never applied to this corpus, it is
+	 * always tokenized with the PTBTokenizer.
+	 * 
+	 * @param handAnnotationsCorpusFile
+	 *            File containing all hand annotated Tweets.
+	 * @return Returns the hand annotated Tweets corpus.
+	 * @throws IOException
+	 *             throws IOException if the file is corrupt.
+	 */
+	private Corpus createHandAnnotatedCorpus(File handAnnotationsCorpusFile) throws IOException {
+		CorpusSettings settings = createCorpusSettings();
+		settings.setStemming(false);
+		// the hand annotations refer to single Tweets and to the tokens of the PTBTokenizer
+		settings.setCollapseDuplicates(false);
+		settings.setTokenizer(1);
+		return new Corpus(handAnnotationsCorpusFile, settings);
 	}
 	
 	/**
 	 * Starts the modifier detection process.
 	 * 
+	 * @param corpus
+	 *            The to be annotated corpus.
 	 * @throws IOException
 	 *             throws IOException if the negation-/intensifier-/diminisher lexicon is missing or corrupt.
 	 */
-	private void detectModifier() throws IOException {
-		File[] modifierLexica = new File[3];
-		modifierLexica[0] = new File(negationLexiconPath);
-		modifierLexica[1] = new File(intensifierLexiconPath);
-		modifierLexica[2] = new File(diminisherLexiconPath);
-		if (!modifierLexica[0].exists() || !modifierLexica[1].exists() || !modifierLexica[2].exists()) {
-			throw new FileNotFoundException("negation-/intensifier-/diminisher lexicon is missing");
-		}
+	private void detectModifier(Corpus corpus) throws IOException {
+		File[] modifierLexica = getModifierLexica();
 		try {
-			if (modifierDetectionMethod == 1) {
-				modDetect = new ModDetect_NextN(modifierLexica, modifierDetectionSettings);
-				System.out.print("Annotating training set: ");
-				((ModDetect_NextN) modDetect).annotateNextN(corpus.getTrainingSet(), n);
-				System.out.println("DONE!");
-				System.out.print("Annotating test set: ");
-				((ModDetect_NextN) modDetect).annotateNextN(corpus.getTestSet(), n);
-				System.out.println("DONE!");
-			} else if (modifierDetectionMethod == 2) {
-				modDetect = new ModDetect_NegEx();
-				System.out.print("Annotating training set: ");
-				((ModDetect_NegEx) modDetect).annotateNegEx(corpus.getTrainingSet());
-				System.out.println("DONE!");
-				System.out.print("Annotating test set: ");
-				((ModDetect_NegEx) modDetect).annotateNegEx(corpus.getTestSet());
+			if (!createModifierDetection(modifierLexica)) {
+				return;
+			}
+			if (modifierDetectionMethod == 1 && nMax > n) {
+				// The cues are looked up once and the Tweets are annotated for each window size from n to nMax.
+				System.out.print("Scanning training set: ");
+				ArrayList<ModDetect_NextN.CueScan> trainingScans = ((ModDetect_NextN) modDetect).scanCues(corpus.getTrainingSet());
 				System.out.println("DONE!");
-			} else if (modifierDetectionMethod == 3) {
-				modDetect = new ModDetect_DepTree(modifierLexica, modifierDetectionSettings);
-				System.out.print("Annotating training set: ");
-				((ModDetect_DepTree) modDetect).annotateDependencyTree(corpus.getTrainingSet());
+				System.out.print("Scanning test set: ");
+				testCueScans = ((ModDetect_NextN) modDetect).scanCues(corpus.getTestSet());
+				trainingCueScans = trainingScans;
 				System.out.println("DONE!");
-				System.out.print("Annotating test set: ");
-				((ModDetect_DepTree) modDetect).annotateDependencyTree(corpus.getTestSet());
-				System.out.println("DONE!");
-			} else if (modifierDetectionMethod == 4) {
-				File[] trainingFiles = new File[3];
-				trainingFiles[0] = new File(negTrainDataPath);
-				trainingFiles[1] = new File(intTrainDataPath);
-				trainingFiles[2] = new File(dimTrainDataPath);
-				if (!trainingFiles[0].exists() || !trainingFiles[1].exists() || !trainingFiles[2].exists()) {
-					throw new FileNotFoundException("negation-/intensifier-/diminisher SVM training data is missing");
-				}
-				File handAnnotationsCorpusFile = new File(handAnnotationsEvalCorpusPath);
-				if (!handAnnotationsCorpusFile.exists()) {
-					throw new FileNotFoundException("hand annotated Tweets file not found");
-				}
-				System.out.print("Create hand annotated corpus: ");
-				Corpus handAnnotatedTweetsCorpus = new Corpus(handAnnotationsCorpusFile);
-				System.out.println("DONE!");
-				modDetect = new ModDetect_SVM(modifierLexica, modifierDetectionSettings, trainingFiles, handAnnotatedTweetsCorpus, epsSVM_MOD, c_MOD);
+			} else {
 				System.out.print("Annotating training set: ");
-				((ModDetect_SVM) modDetect).annotateSVM(corpus.getTrainingSet());
+				annotateSet("training", corpus.getTrainingSet());
 				System.out.println("DONE!");
 				System.out.print("Annotating test set: ");
-				((ModDetect_SVM) modDetect).annotateSVM(corpus.getTestSet());
+				annotateSet("test", corpus.getTestSet());
 				System.out.println("DONE!");
-			} else {
-				System.out.println("Invalid argument for 'modifierDetectionMethod': " + modifierDetectionMethod + "\n" + "Only values in the range between 0-4 are allowed!");
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -372,6 +772,299 @@ public class Control {
 		}
 	}
 
+	/**
+	 * Annotates the training and test set with the current window size of the next-n modifier detection, using the modifier cues that have been looked
+	 * up by detectModifier().
+	 */
+	private void annotateWindow() {
+		System.out.print("Annotating training set: ");
+		((ModDetect_NextN) modDetect).annotateNextN(corpus.getTrainingSet(), trainingCueScans, n);
+		System.out.println("DONE!");
+		System.out.print("Annotating test set: ");
+		((ModDetect_NextN) modDetect).annotateNextN(corpus.getTestSet(), testCueScans, n);
+		System.out.println("DONE!");
+	}
+
+	/**
+	 * 
+	 * @return Returns the negation, intensifier and diminisher lexicon files.
+	 * @throws FileNotFoundException
+	 *             throws FileNotFoundException if a lexicon is missing.
+	 */
+	private File[] getModifierLexica() throws FileNotFoundException {
+		File[] modifierLexica = new File[3];
+		modifierLexica[0] = new File(negationLexiconPath);
+		modifierLexica[1] = new File(intensifierLexiconPath);
+		modifierLexica[2] = new File(diminisherLexiconPath);
+		if (!modifierLexica[0].exists() || !modifierLexica[1].exists() || !modifierLexica[2].exists()) {
+			throw new FileNotFoundException("negation-/intensifier-/diminisher lexicon is missing");
+		}
+		return modifierLexica;
+	}
+
+	/**
+	 * Creates the selected modifier detection method.
+	 * 
+	 * @param modifierLexica
+	 *            The negation, intensifier and diminisher lexicon files.
+	 * @return Returns false if the selected method is invalid.
+	 * @throws Exception
+	 *             Throws exception if a file of the modifier detection is missing or corrupt.
+	 */
+	private boolean createModifierDetection(File[] modifierLexica) throws Exception {
+		// the versions are loaded before the modifier detection loads them, so a change in between is applied by the next update
+		Lexicon[] lexica = watchLexica ? loadLexica(modifierLexica) : null;
+		if (modifierDetectionMethod == 1) {
+			modDetect = new ModDetect_NextN(modifierLexica, modifierDetectionSettings);
+		} else if (modifierDetectionMethod == 2) {
+			modDetect = new ModDetect_NegEx();
+		} else if (modifierDetectionMethod == 3) {
+			modDetect = new ModDetect_DepTree(modifierLexica, modifierDetectionSettings, getParseCache(), parserThreads, parserBatchSize);
+		} else if (modifierDetectionMethod == 4) {
+			File[] trainingFiles = new File[3];
+			trainingFiles[0] = new File(negTrainDataPath);
+			trainingFiles[1] = new File(intTrainDataPath);
+			trainingFiles[2] = new File(dimTrainDataPath);
+			if (!trainingFiles[0].exists() || !trainingFiles[1].exists() || !trainingFiles[2].exists()) {
+				throw new FileNotFoundException("negation-/intensifier-/diminisher SVM training data is missing");
+			}
+			File handAnnotationsCorpusFile = new File(handAnnotationsEvalCorpusPath);
+			if (!handAnnotationsCorpusFile.exists()) {
+				throw new FileNotFoundException("hand annotated Tweets file not found");
+			}
+			System.out.print("Create hand annotated corpus: ");
+			Corpus handAnnotatedTweetsCorpus = createHandAnnotatedCorpus(handAnnotationsCorpusFile);
+			System.out.println("DONE!");
+			modDetect = new ModDetect_SVM(modifierLexica, modifierDetectionSettings, trainingFiles, handAnnotatedTweetsCorpus, epsSVM_MOD, c_MOD, getParseCache(), parserThreads,
+					parserBatchSize);
+		} else {
+			System.out.println("Invalid argument for 'modifierDetectionMethod': " + modifierDetectionMethod + "\n" + "Only values in the range between 0-4 are allowed!");
+			return false;
+		}
+		if (watchLexica) {
+			watchedModifierLexica = lexica;
+		}
+		return true;
+	}
+
+	/**
+	 * Collects the words that have been added to or removed from the modifier lexica between two versions.
+	 * 
+	 * @param previousLexica
+	 *            The previous versions of the lexica.
+	 * @param lexica
+	 *            The new versions of the lexica.
+	 * @return Returns the changed words of all lexica.
+	 */
+	private HashSet<String> getChangedWords(Lexicon[] previousLexica, Lexicon[] lexica) {
+		HashSet<String> changedWords = new HashSet<String>();
+		for (int i = 0; i < lexica.length; i++) {
+			changedWords.addAll(lexica[i].getChangedWords(previousLexica[i]));
+		}
+		return changedWords;
+	}
+
+	/**
+	 * Loads the current versions of the modifier lexica.
+	 * 
+	 * @param modifierLexica
+	 *            The negation, intensifier and diminisher lexicon files.
+	 * @return Returns the loaded lexica in the order of the files.
+	 * @throws IOException
+	 *             Throws IOException if a lexicon file can not be read.
+	 */
+	private Lexicon[] loadLexica(File[] modifierLexica) throws IOException {
+		Lexicon[] lexica = new Lexicon[modifierLexica.length];
+		for (int i = 0; i < modifierLexica.length; i++) {
+			lexica[i] = Lexicon.load(modifierLexica[i]);
+		}
+		return lexica;
+	}
+
+	/**
+	 * Opens the parse cache when it is requested for the first time.
+	 * 
+	 * @return Returns the parse cache or null if no parse cache directory is set.
+	 * @throws IOException
+	 *             Throws exception if the parse cache directory can not be created.
+	 */
+	private ParseCache getParseCache() throws IOException {
+		if (parseCache == null && !parseCachePath.isEmpty()) {
+			parseCache = new ParseCache(new File(parseCachePath), (long) parseCacheSize * 1024 * 1024);
+		}
+		return parseCache;
+	}
+
+	/**
+	 * Annotates a set of the corpus with the selected modifier detection method. If a checkpoint directory is set, the set is annotated in parts and the
+	 * annotated Tweets are saved after each part. An interrupted annotation of the same Tweets with the same settings is resumed at the last checkpoint.
+	 * 
+	 * @param setName
+	 *            Name of the set, is part of the checkpoint name.
+	 * @param set
+	 *            The to be annotated Tweets.
+	 * @throws IOException
+	 *             Throws IOException if a file of the modifier detection is corrupt or the checkpoint can not be written.
+	 */
+	private void annotateSet(String setName, List<Tweet> set) throws IOException {
+		if (checkpointPath.isEmpty()) {
+			annotate(set);
+			return;
+		}
+		Checkpoint checkpoint = new Checkpoint(new File(checkpointPath), "annotation_" + setName + "_" + calculateAnnotationFingerprint(set),
+				checkpointInterval);
+		ArrayList<Tweet> annotatedTweets = new ArrayList<Tweet>();
+		checkpoint.restore(annotatedTweets);
+		if (!copyAnnotations(annotatedTweets, set)) {
+			System.out.print("checkpoint does not match the Tweets, starting from the beginning | ");
+			checkpoint.delete();
+		}
+		int start = checkpoint.getSavedTweets();
+		if (start > 0) {
+			System.out.print("resumed after " + start + " Tweets | ");
+		}
+		// the modifier detection prints the progress of each part separately
+		int parts = (int) ((set.size() - start + (long) checkpointInterval - 1) / checkpointInterval);
+		int part = 1;
+		while (start < set.size()) {
+			int end = (int) Math.min((long) start + checkpointInterval, set.size());
+			System.out.print("part " + part++ + "/" + parts + ": ");
+			annotate(set.subList(start, end));
+			checkpoint.save(set.subList(0, end), end);
+			start = end;
+		}
+		checkpoint.delete();
+	}
+
+	/**
+	 * Annotates Tweets with the selected modifier detection method.
+	 * 
+	 * @param tweets
+	 *            The to be annotated Tweets.
+	 * @throws IOException
+	 *             Throws IOException if the SVM training data is corrupt.
+	 */
+	private void annotate(Collection<Tweet> tweets) throws IOException {
+		if (modifierDetectionMethod == 1) {
+			((ModDetect_NextN) modDetect).annotateNextN(tweets, n);
+		} else if (modifierDetectionMethod == 2) {
+			((ModDetect_NegEx) modDetect).annotateNegEx(tweets);
+		} else if (modifierDetectionMethod == 3) {
+			((ModDetect_DepTree) modDetect).annotateDependencyTree(tweets);
+		} else if (modifierDetectionMethod == 4) {
+			((ModDetect_SVM) modDetect).annotateSVM(tweets);
+		}
+		if (parseCache != null) {
+			// the order of use of the cached parses is kept when the program is stopped afterwards
+			parseCache.flush();
+		}
+	}
+
+	/**
+	 * Copies the modifier annotations (flags, modified tokens and normalized strings) of Tweets restored from a checkpoint to the first Tweets of a set.
+	 * 
+	 * @param annotatedTweets
+	 *            The annotated Tweets of the checkpoint.
+	 * @param set
+	 *            The set whose first Tweets are annotated.
+	 * @return Returns false if the restored Tweets do not match the Tweets of the set. Nothing is copied in this case.
+	 */
+	private boolean copyAnnotations(List<Tweet> annotatedTweets, List<Tweet> set) {
+		if (annotatedTweets.size() > set.size()) {
+			return false;
+		}
+		for (int i = 0; i < annotatedTweets.size(); i++) {
+			if (!annotatedTweets.get(i).hasSameID(set.get(i))
+					|| annotatedTweets.get(i).getTokenList().size() != set.get(i).getTokenList().size()) {
+				return false;
+			}
+		}
+		for (int i = 0; i < annotatedTweets.size(); i++) {
+			ArrayList<Token> sourceTokens = annotatedTweets.get(i).getTokenList();
+			ArrayList<Token> targetTokens = set.get(i).getTokenList();
+			for (int j = 0; j < sourceTokens.size(); j++) {
+				// the modifier detection marks modified tokens in their normalized strings as well (NEG_, INT_, DIM_)
+				targetTokens.get(j).setNormalizedTokenString(sourceTokens.get(j).getNormalizedTokenString());
+				targetTokens.get(j).setFlags(sourceTokens.get(j).getFlags());
+				for (Token modified : sourceTokens.get(j).getModifies()) {
+					// the restored tokens are objects, so the modified token is found by identity
+					for (int k = 0; k < sourceTokens.size(); k++) {
+						if (sourceTokens.get(k) == modified) {
+							targetTokens.get(j).addModifies(targetTokens.get(k));
+							break;
+						}
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Calculates the fingerprint of an annotation. It covers the Tweets and all settings and files that influence the modifier detection, so a checkpoint
+	 * is only resumed if the annotation would produce the same result.
+	 * 
+	 * @param set
+	 *            The to be annotated Tweets.
+	 * @return Returns the SHA-256 fingerprint as hex string.
+	 * @throws IOException
+	 *             Throws IOException if a file of the modifier detection can not be read.
+	 */
+	private String calculateAnnotationFingerprint(List<Tweet> set) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		// settings and files of the modifier detection
+		StringBuilder settingsString = new StringBuilder();
+		settingsString.append(modifierDetectionMethod).append('|').append(n).append('|');
+		for (int i = 0; i < modifierDetectionSettings.length; i++) {
+			settingsString.append(modifierDetectionSettings[i]).append('|');
+		}
+		ArrayList<String> paths = new ArrayList<String>();
+		paths.add(negationLexiconPath);
+		paths.add(intensifierLexiconPath);
+		paths.add(diminisherLexiconPath);
+		if (modifierDetectionMethod == 4) {
+			settingsString.append(epsSVM_MOD).append('|').append(c_MOD).append('|');
+			paths.add(negTrainDataPath);
+			paths.add(intTrainDataPath);
+			paths.add(dimTrainDataPath);
+			paths.add(handAnnotationsEvalCorpusPath);
+		}
+		digest.update(settingsString.toString().getBytes(StandardCharsets.UTF_8));
+		for (String path : paths) {
+			digest.update(Files.readAllBytes(new File(path).toPath()));
+		}
+		// the Tweets
+		for (Tweet tweet : set) {
+			// numeric IDs are hashed as their 8 bytes, the leading byte separates them from non-numeric IDs
+			long numericID = tweet.getNumericID();
+			if (numericID >= 0) {
+				digest.update((byte) 0);
+				for (int shift = 56; shift >= 0; shift -= 8) {
+					digest.update((byte) (numericID >>> shift));
+				}
+			} else {
+				digest.update((byte) 1);
+				digest.update(tweet.getID().getBytes(StandardCharsets.UTF_8));
+			}
+			for (Token token : tweet.getTokenList()) {
+				digest.update((byte) ' ');
+				digest.update(token.getTokenString().getBytes(StandardCharsets.UTF_8));
+			}
+			digest.update((byte) '\n');
+		}
+		StringBuilder fingerprint = new StringBuilder();
+		byte[] hash = digest.digest();
+		for (int i = 0; i < hash.length; i++) {
+			fingerprint.append(String.format("%02x", hash[i]));
+		}
+		return fingerprint.toString();
+	}
+
 	/**
 	 * Transforms the weight matrices string in the file into an array containing all values.
 	 * 
@@ -448,12 +1141,15 @@ public class Control {
 			if(n_gram < 1 || n_gram > 3){
 				throw new IllegalArgumentException("The value n-gram = " + n_gram + " is invalid. Only values 0 < n < 4 are allowed.");
 			}
-			c_EMO = new EmoClassifier_SVM(corpus, stopWordsFile, epsSVM_EMO, c_EMO, n_gram).startClassification();
+			svmClassifier = new EmoClassifier_SVM(corpus, stopWordsFile, epsSVM_EMO, c_EMO, n_gram);
+			c_EMO = svmClassifier.startClassification();
 		} else if (classifierType == 2) {
 			File emotionLexiconFile = new File(emotionLexiconPath);
 			if (!emotionLexiconFile.exists()) {
 				throw new FileNotFoundException("Emotion lexicon file not found!");
 			}
+			// the version is recorded before the classifier loads the file, so a change in between is applied by the next update
+			emotionLexiconModified = emotionLexiconFile.lastModified();
 			if (loadWeightMatrices) {
 				File weightMatricesFile = new File(weightMatricesPath);
 				if (!weightMatricesFile.exists()) {
@@ -468,6 +1164,292 @@ public class Control {
 		}
 	}
 
+	/**
+	 * Watches a directory for Tweets files and classifies their Tweets until the program is stopped. Files that are already in the directory, new files and
+	 * lines appended to a file are tokenized, annotated with the selected modifier detection method and classified with the trained classifier. Only the
+	 * new Tweets are processed, their predictions are appended to a file in the results folder. Hidden files (e.g. files that are still being copied under
+	 * a temporary name) are ignored.
+	 * 
+	 * If watchLexica is true, the modifier and emotion lexicon files are watched as well. Each change is applied to the corpus by updateLexica().
+	 * 
+	 * @param exportPath
+	 *            Path where the predictions will be saved.
+	 * @throws Exception
+	 *             Throws exception if a directory can not be watched or the predictions file can not be written.
+	 */
+	private void watch(String exportPath) throws Exception {
+		// the modifier detection has not been created if the corpus was loaded
+		if (modifierDetectionMethod != 0 && modDetect == null) {
+			try {
+				createModifierDetection(getModifierLexica());
+			} catch (Exception e) {
+				e.printStackTrace();
+				System.out.println("An error occured during the modifier detection. Skipping modifier detection");
+			}
+		}
+		WatchService watchService = FileSystems.getDefault().newWatchService();
+		PrintWriter writer = null;
+		try {
+			// the lexicon files are watched by their directories
+			HashSet<Path> lexiconFiles = new HashSet<Path>();
+			HashSet<Path> lexiconDirectories = new HashSet<Path>();
+			if (watchLexica) {
+				File[] modifierLexica = getModifierLexica();
+				// without a modifier detection no version has been applied yet, so the current one is the starting point
+				if (watchedModifierLexica == null) {
+					watchedModifierLexica = loadLexica(modifierLexica);
+				}
+				for (int i = 0; i < modifierLexica.length; i++) {
+					lexiconFiles.add(modifierLexica[i].toPath().toAbsolutePath().normalize());
+				}
+				if (classifierType == 2) {
+					lexiconFiles.add(Paths.get(emotionLexiconPath).toAbsolutePath().normalize());
+				}
+				for (Path file : lexiconFiles) {
+					if (lexiconDirectories.add(file.getParent())) {
+						file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+					}
+				}
+				System.out.println("Watching the lexicon files for changes (stop the program to end)...");
+			}
+			Path directory = null;
+			Corpus watchCorpus = null;
+			// offset directly after the last line that was read from each file
+			HashMap<Path, Long> offsets = new HashMap<Path, Long>();
+			if (!watchPath.isEmpty()) {
+				directory = Paths.get(watchPath).toAbsolutePath().normalize();
+				// the Tweets are created with the same settings as the corpus
+				watchCorpus = new Corpus(createCorpusSettings());
+				writer = new PrintWriter(exportPath + "Predictions.txt", "UTF-8");
+				writer.println("1.Column=Tweet_ID" + "\t" + "2.Column=Gold_emotion" + "\t" + "3.Column=Predicted_emotion" + "\t" + "4.Column=Original_text" + "\t"
+						+ "5.Column=Tweets_file");
+				writer.println();
+				writer.flush();
+				// the directory is registered first, so no file that is created while the existing files are read is missed
+				if (!lexiconDirectories.contains(directory)) {
+					directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+				}
+				System.out.println("Watching directory '" + directory + "' for Tweets files (stop the program to end)...");
+				classifyDirectory(directory, watchCorpus, offsets, writer);
+			}
+			while (true) {
+				WatchKey key = watchService.take();
+				Path keyDirectory = (Path) key.watchable();
+				boolean overflow = false;
+				boolean lexiconChanged = false;
+				// a file is read once, even if it has been modified several times since the last event
+				LinkedHashSet<Path> files = new LinkedHashSet<Path>();
+				for (WatchEvent<?> event : key.pollEvents()) {
+					if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+						overflow = true;
+					} else {
+						Path file = keyDirectory.resolve((Path) event.context());
+						if (lexiconFiles.contains(file)) {
+							lexiconChanged = true;
+						} else if (keyDirectory.equals(directory)) {
+							files.add(file);
+						}
+					}
+				}
+				if (overflow && lexiconDirectories.contains(keyDirectory)) {
+					// events have been lost, the lexica are compared with the versions that have been applied anyway
+					lexiconChanged = true;
+				}
+				if (lexiconChanged) {
+					updateLexica(exportPath);
+				}
+				if (overflow && keyDirectory.equals(directory)) {
+					// events have been lost, so all files are checked
+					classifyDirectory(directory, watchCorpus, offsets, writer);
+				} else {
+					for (Path file : files) {
+						classifyFile(file, watchCorpus, offsets, writer);
+					}
+				}
+				if (!key.reset()) {
+					throw new IOException("Watched directory '" + keyDirectory + "' is no longer accessible.");
+				}
+			}
+		} finally {
+			watchService.close();
+			if (writer != null) {
+				writer.close();
+			}
+		}
+	}
+
+	/**
+	 * Applies the changes of the lexicon files to the corpus. Only the Tweets that contain an entry that has been added to or removed from a modifier
+	 * lexicon are annotated again; they are found by the index of the corpus. The SVM modifier detection is trained with the lexica, so all Tweets are
+	 * annotated again if it is used. NegEx does not use the lexica.
+	 * 
+	 * If Tweets of the training set or the emotion lexicon have changed, the classifier is trained again. Otherwise only the Tweets of the test set that
+	 * have been annotated again are classified again. The results are exported into a new sub directory of the results folder.
+	 * 
+	 * @param exportPath
+	 *            Path of the results folder.
+	 * @throws Exception
+	 *             Throws exception if a lexicon file can not be read or the results can not be exported.
+	 */
+	private void updateLexica(String exportPath) throws Exception {
+		// the changes are compared with the versions of the lexica that have been applied
+		File[] modifierLexica = getModifierLexica();
+		Lexicon[] lexica = loadLexica(modifierLexica);
+		HashSet<String> changedWords = getChangedWords(watchedModifierLexica, lexica);
+		boolean emotionLexiconChanged = classifierType == 2 && new File(emotionLexiconPath).lastModified() != emotionLexiconModified;
+		if (changedWords.isEmpty() && !emotionLexiconChanged) {
+			return;
+		}
+		System.out.println("Lexicon files have been changed. Updating the corpus...");
+		// the emotion lexicon is recorded as applied when the classification loads it
+		boolean trainingSetChanged = emotionLexiconChanged;
+		ArrayList<Tweet> testTweets = new ArrayList<Tweet>();
+		if (!changedWords.isEmpty() && (modifierDetectionMethod == 1 || modifierDetectionMethod == 3 || modifierDetectionMethod == 4)) {
+			// the modifier detection is created again with the changed lexica, which are also used for the Tweets files of the watched directory.
+			// The corpus is only changed once it has been created, with the changes of the versions it has loaded.
+			Lexicon[] appliedLexica = watchedModifierLexica;
+			if (!createModifierDetection(modifierLexica)) {
+				return;
+			}
+			changedWords = getChangedWords(appliedLexica, watchedModifierLexica);
+			TweetIndex index = corpus.getIndex();
+			BitSet affectedTweets;
+			if (modifierDetectionMethod == 4) {
+				affectedTweets = new BitSet(index.size());
+				affectedTweets.set(0, index.size());
+			} else {
+				affectedTweets = index.findTweets(changedWords);
+			}
+			// restore the affected Tweets to their state before the annotation
+			ArrayList<Tweet> tweets = new ArrayList<Tweet>();
+			for (int i = affectedTweets.nextSetBit(0); i >= 0; i = affectedTweets.nextSetBit(i + 1)) {
+				index.restore(i);
+				Tweet tweet = index.getTweet(i);
+				tweets.add(tweet);
+				if (index.isTrainingTweet(i)) {
+					trainingSetChanged = true;
+				} else {
+					testTweets.add(tweet);
+				}
+			}
+			if (!tweets.isEmpty()) {
+				System.out.print("Annotating " + tweets.size() + " of " + index.size() + " Tweets: ");
+				annotate(tweets);
+				System.out.println("DONE!");
+			}
+		} else {
+			// no Tweet has to be annotated again with the changed modifier lexica
+			watchedModifierLexica = lexica;
+		}
+		if (!trainingSetChanged && testTweets.isEmpty()) {
+			System.out.println("No Tweets are affected by the changes.");
+			return;
+		}
+		lexiconUpdates++;
+		String updateExportPath = exportPath + "lexicon_update_" + lexiconUpdates + "/";
+		if (!new File(updateExportPath).mkdirs()) {
+			throw new IOException("Could not create directory" + "'" + updateExportPath + "'. Please check directory path." + "\n" + "Execution stopped!");
+		}
+		if (trainingSetChanged) {
+			// every training starts with the configured C and the same folds, see startExecution()
+			c_EMO = configuredC_EMO;
+			Linear.resetRandom();
+			classifyAndEvaluate(updateExportPath);
+		} else {
+			System.out.print("Classifying " + testTweets.size() + " Tweets of the test set: ");
+			if (classifierType == 1) {
+				svmClassifier.classify(testTweets);
+			} else if (classifierType == 2) {
+				wordListClassifier.classify(testTweets);
+			}
+			System.out.println("DONE!");
+			evaluateAndExport(updateExportPath);
+		}
+	}
+
+	/**
+	 * Classifies the new Tweets of all files in the watched directory in the order of their names.
+	 * 
+	 * @param directory
+	 *            The watched directory.
+	 * @param watchCorpus
+	 *            Corpus used to create the Tweets.
+	 * @param offsets
+	 *            Offset directly after the last line that was read from each file.
+	 * @param writer
+	 *            Writer of the predictions file.
+	 * @throws IOException
+	 *             Throws IOException if the directory can not be listed or a Tweet can not be annotated.
+	 */
+	private void classifyDirectory(Path directory, Corpus watchCorpus, HashMap<Path, Long> offsets, PrintWriter writer) throws IOException {
+		ArrayList<Path> files = new ArrayList<Path>();
+		DirectoryStream<Path> stream = Files.newDirectoryStream(directory);
+		try {
+			for (Path file : stream) {
+				files.add(file);
+			}
+		} finally {
+			stream.close();
+		}
+		Collections.sort(files);
+		for (Path file : files) {
+			classifyFile(file, watchCorpus, offsets, writer);
+		}
+	}
+
+	/**
+	 * Classifies the Tweets of a file that follow the last line that was read from it and writes their predictions. A file that has become smaller than
+	 * the offset has been replaced and is read from the start. A file that can not be read yet (e.g. a partially written compressed file) is read again
+	 * when it is modified the next time.
+	 * 
+	 * @param file
+	 *            The Tweets file.
+	 * @param watchCorpus
+	 *            Corpus used to create the Tweets.
+	 * @param offsets
+	 *            Offset directly after the last line that was read from each file.
+	 * @param writer
+	 *            Writer of the predictions file.
+	 * @throws IOException
+	 *             Throws IOException if a Tweet can not be annotated.
+	 */
+	private void classifyFile(Path file, Corpus watchCorpus, HashMap<Path, Long> offsets, PrintWriter writer) throws IOException {
+		if (!Files.isRegularFile(file) || file.getFileName().toString().startsWith(".")) {
+			return;
+		}
+		Long offset = offsets.get(file);
+		if (offset == null || offset > Files.size(file)) {
+			offset = 0L;
+		}
+		ArrayList<Tweet> tweets = new ArrayList<Tweet>();
+		try {
+			offsets.put(file, watchCorpus.readAppendedTweets(file.toFile(), offset, tweets));
+		} catch (IOException e) {
+			System.out.println("Could not read '" + file + "' (" + e.getMessage() + "). Trying again after the next modification.");
+			return;
+		}
+		if (tweets.isEmpty()) {
+			return;
+		}
+		if (modDetect != null) {
+			annotate(tweets);
+		}
+		if (classifierType == 1) {
+			svmClassifier.classify(tweets);
+		} else if (classifierType == 2) {
+			wordListClassifier.classify(tweets);
+		}
+		StringBuilder line = new StringBuilder();
+		for (Tweet tweet : tweets) {
+			line.setLength(0);
+			tweet.appendID(line).append('\t').append(tweet.getGoldEmotion()).append('\t').append(tweet.getPredictedEmotion()).append('\t')
+					.append(tweet.getOriginalText()).append('\t').append(file.getFileName());
+			writer.println(line);
+		}
+		writer.flush();
+		System.out.println(file.getFileName() + ": " + tweets.size() + " Tweets classified");
+	}
+
 	/**
 	 * Exports the annotated test corpus and the results of the classification and modifier detection.
 	 * 
@@ -554,15 +1536,8 @@ public class Control {
 	 *            Path where the corpus should be saved.
 	 */
 	private void exportCorpus(String exportPath) {
-		ObjectOutputStream oos = null;
-		FileOutputStream fout = null;
 		try {
-			fout = new FileOutputStream(exportPath + "corpus.ser", true);
-			oos = new ObjectOutputStream(fout);
-			Object data[] = { corpus.getTrainingSet(), corpus.getTestSet() };
-			oos.writeObject(data);
-			oos.close();
-			fout.close();
+			CorpusFile.write(new File(exportPath + "corpus.bin"), corpus.getTrainingSet(), corpus.getTestSet(), createAnnotationDescription());
 		} catch (Exception e) {
 			System.out.println("Failed to export created corpus");
 			e.printStackTrace();
@@ -623,9 +1598,8 @@ public class Control {
 	 * @return Returns a string containing all information/annotations of this specific Tweet.
 	 */
 	private String generateCorporaString(int i) {
-		String outString = "";
 		Tweet currentTweet = corpus.getTestSet().get(i);
-		outString += currentTweet.getID() + "\t";
+		String outString = currentTweet.appendID(new StringBuilder()).append('\t').toString();
 		outString += currentTweet.getGoldEmotion() + "\t";
 		outString += currentTweet.getPredictedEmotion() + "\t";
 		outString += currentTweet.getOriginalText() + "\t";
@@ -782,7 +1756,7 @@ public class Control {
 		outString += "EXPERIMENT SETTINGS:" + "\n";
 		outString += "\n";
 		outString += "Training data = " + trainingDataPath + "\n";
-		outString += "Training data size = " + corpus.getTrainingSet().size() + " Tweets" + "\n";
+		outString += "Training data size = " + corpus.getTrainingSetSize() + " Tweets" + "\n";
 		outString += "Number of Tweets per Emotion in training data =";
 		outString += " Enjoyment:" + resultClassification.getTweetsPerEmoTraining()[0];
 		outString += " Anger:" + resultClassification.getTweetsPerEmoTraining()[1];
@@ -792,7 +1766,7 @@ public class Control {
 		outString += " Disgust:" + resultClassification.getTweetsPerEmoTraining()[5] + "\n";
 		outString += "\n";
 		outString += "Test data = " + testDataPath + "\n";
-		outString += "Test data size = " + corpus.getTestSet().size() + " Tweets" + "\n";
+		outString += "Test data size = " + corpus.getTestSetSize() + " Tweets" + "\n";
 		outString += "Number of Tweets per Emotion in test data =";
 		outString += " Enjoyment:" + resultClassification.getTweetsPerEmoTest()[0];
 		outString += " Anger:" + resultClassification.getTweetsPerEmoTest()[1];
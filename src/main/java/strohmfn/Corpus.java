@@ -1,18 +1,24 @@
 package strohmfn;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.StringReader;
-import java.nio.charset.Charset;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import edu.stanford.nlp.ling.Word;
-import edu.stanford.nlp.process.PTBTokenizer;
-import edu.stanford.nlp.process.TokenizerFactory;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * @author strohmfn
@@ -21,85 +27,753 @@ import edu.stanford.nlp.process.TokenizerFactory;
 public class Corpus {
 
 	// Stores all Tweets in the training set.
-	private ArrayList<Tweet> trainingSet = new ArrayList<Tweet>();
+	private List<Tweet> trainingSet = new ArrayList<Tweet>();
 	// Stores all Tweets in the test set.
-	private ArrayList<Tweet> testSet = new ArrayList<Tweet>();
+	private List<Tweet> testSet = new ArrayList<Tweet>();
 
-	private TokenizerFactory<Word> tf = PTBTokenizer.factory();
+	// Minimum number of chunks per worker thread. More chunks than threads balance the load if some parts of the file contain longer Tweets.
+	private static final int CHUNKS_PER_THREAD = 4;
+	// Upper bound for the size of a single chunk in bytes.
+	private static final long MAX_CHUNK_SIZE = 64L * 1024 * 1024;
+	// Number of lines of a compressed data file that are tokenized by one task.
+	private static final int LINES_PER_BATCH = 1024;
 
-	private boolean stemm;
+	// Version of the tokenization and normalization. Has to be increased whenever createTokenList() changes, so outdated cache files are not used.
+	private static final int CACHE_VERSION = 1;
+
+	// Tokenizer selected by the settings, created when the first data file is read.
+	private TweetTokenizer tokenizer = null;
+	// Normalized (and stemmed) strings of the token strings that have been tokenized so far.
+	private NormalizationCache normalizationCache = new NormalizationCache();
+	// Each thread reuses its own stemmer, a stemmer must not be used by several threads at the same time.
+	private ThreadLocal<Stemmer> stemmers = ThreadLocal.withInitial(Stemmer::new);
+	// True if the Tweets are discarded after they have been classified. Their strings are not added to the vocabulary (see TransientToken).
+	private boolean transientTweets = false;
+
+	// Settings that influence how the Tweets are read and tokenized.
+	private CorpusSettings settings;
+
+	// Size and Tweets per gold emotion of the training set if it was not loaded from a corpus file.
+	private int trainingSetSize = -1;
+	private HashMap<String, Integer> trainingEmotionCounts = null;
+	// Inverted index of the training and test set (null = not indexed).
+	private TweetIndex index = null;
 
 	public Corpus(File trainingData, File testData, boolean stemm) throws IOException {
-		this.stemm = stemm;
-		System.out.print("Creating training set: ");
-		trainingSet = createCorpus(trainingData);
-		System.out.println("DONE!");
-		System.out.print("Creating test set: ");
-		testSet = createCorpus(testData);
-		System.out.println("DONE!");
+		this(trainingData, testData, createSettings(stemm));
+	}
+
+	public Corpus(File trainingData, File testData, CorpusSettings settings) throws IOException {
+		this.settings = settings;
+		// a set stays empty if its data file is null
+		if (trainingData != null) {
+			System.out.print("Creating training set: ");
+			trainingSet = createCorpus(trainingData);
+			System.out.println("DONE!");
+		}
+		if (testData != null) {
+			System.out.print("Creating test set: ");
+			testSet = createCorpus(testData);
+			System.out.println("DONE!");
+		}
+		if (settings.isIndexed()) {
+			System.out.print("Indexing corpus: ");
+			index = new TweetIndex(trainingSet, testSet);
+			System.out.println("DONE!");
+		}
 	}
 
 	public Corpus(File handAnnotatedTweets) throws IOException {
+		this(handAnnotatedTweets, new CorpusSettings());
+	}
+
+	public Corpus(File handAnnotatedTweets, CorpusSettings settings) throws IOException {
+		this.settings = settings;
 		testSet = createCorpus(handAnnotatedTweets);
 	}
 
-	public Corpus(ArrayList<Tweet> trainingSet, ArrayList<Tweet> testSet) {
+	/**
+	 * Loads a corpus from a corpus file.
+	 * 
+	 * @param corpusFile
+	 *            The corpus file.
+	 * @param loadTrainingSet
+	 *            If false, only the test set is loaded. The size and the Tweets per emotion of the training set are still available.
+	 * @param settings
+	 *            Settings of the corpus. Only the engine is relevant.
+	 * @throws IOException
+	 *             Throws IO exception if the corpus file can not be read.
+	 */
+	public Corpus(CorpusFile corpusFile, boolean loadTrainingSet, CorpusSettings settings) throws IOException {
+		this.settings = settings;
+		if (loadTrainingSet) {
+			trainingSet = readCorpusFile(corpusFile, CorpusFile.TRAINING_SET);
+		} else {
+			trainingEmotionCounts = corpusFile.getEmotionCounts(CorpusFile.TRAINING_SET);
+			// the emotion counts include the collapsed duplicates, the number of Tweet records does not
+			trainingSetSize = 0;
+			for (int count : trainingEmotionCounts.values()) {
+				trainingSetSize += count;
+			}
+		}
+		testSet = readCorpusFile(corpusFile, CorpusFile.TEST_SET);
+		System.out.println("Corpus loaded");
+	}
+
+	/**
+	 * Creates an empty corpus. Its settings are used to create Tweets from data files that grow while they are read, see readAppendedTweets(). The
+	 * created Tweets are discarded after they have been classified, so their strings are not added to the vocabulary.
+	 * 
+	 * @param settings
+	 *            Settings used to read and tokenize the data files.
+	 */
+	public Corpus(CorpusSettings settings) {
+		this.settings = settings;
+		this.transientTweets = true;
+	}
+
+	public Corpus(List<Tweet> trainingSet, List<Tweet> testSet) {
 		this.trainingSet = trainingSet;
 		this.testSet = testSet;
 		System.out.println("Corpus loaded");
 	}
 
 	/**
-	 * Creates a Tweet class for each Tweet in the data file and adds them to the test-/training set.
+	 * Creates default settings with the given stemming option.
+	 * 
+	 * @param stemm
+	 *            Enable/Disable stemming.
+	 * @return Returns the corpus settings.
+	 */
+	private static CorpusSettings createSettings(boolean stemm) {
+		CorpusSettings settings = new CorpusSettings();
+		settings.setStemming(stemm);
+		return settings;
+	}
+
+	/**
+	 * Creates a Tweet class for each Tweet in the data file and adds them to the test-/training set. If a cache directory is set, the Tweets are loaded from
+	 * the cache if the data file has been tokenized with the same settings before. Otherwise they are tokenized and written to the cache. Duplicates are
+	 * collapsed afterwards if the settings say so.
 	 * 
 	 * @param data The data used to create the corpus.
 	 * @throws IOException
 	 *             Throws IO exception if the data file can not be read.
 	 * @return Returns the corpus.
 	 */
-	private ArrayList<Tweet> createCorpus(File data) throws IOException {
-		// create empty list that will store the Tweets
-		ArrayList<Tweet> tweetsList = new ArrayList<Tweet>();
-		// tell the tokenizer factory to not delete untokenizable tokens
-		tf.setOptions("untokenizable=noneDelete");
-		// count number of lines (Tweets) in the file. Is needed to display progress
-		int numberOfTweets = (int) Files.lines(data.toPath(), Charset.forName("ISO-8859-1")).count();
-		int numberOfTweetsFinished = 0;
+	private List<Tweet> createCorpus(File data) throws IOException {
+		List<Tweet> tweetsList = loadCorpus(data);
+		if (settings.isCollapseDuplicates()) {
+			tweetsList = collapseDuplicates(tweetsList);
+		}
+		return tweetsList;
+	}
+
+	/**
+	 * Loads the Tweets of the data file from the cache or tokenizes them.
+	 * 
+	 * @param data The data used to create the corpus.
+	 * @throws IOException
+	 *             Throws IO exception if the data file can not be read.
+	 * @return Returns the Tweets of the data file.
+	 */
+	private List<Tweet> loadCorpus(File data) throws IOException {
+		if (settings.getCacheDirectory() == null) {
+			return tokenizeCorpus(data, null);
+		}
+		String fingerprint = calculateFingerprint(data);
+		File cacheFile = new File(settings.getCacheDirectory(), fingerprint + ".bin");
+		if (cacheFile.exists()) {
+			try {
+				List<Tweet> tweetsList = readCorpusFile(new CorpusFile(cacheFile), CorpusFile.TEST_SET);
+				System.out.print("loaded from cache | ");
+				return tweetsList;
+			} catch (IOException e) {
+				System.out.print("cache file " + cacheFile.getName() + " is corrupt, creating it again | ");
+			}
+		}
+		List<Tweet> tweetsList = tokenizeCorpus(data, fingerprint);
+		writeCacheFile(cacheFile, tweetsList);
+		return tweetsList;
+	}
+
+	/**
+	 * Collapses Tweets with the same gold emotion and the same normalized text (e.g. retweets and copies that only differ in users, URLs or hashtags) into
+	 * the first of them. Its multiplicity is increased by the multiplicity of each collapsed Tweet, so the annotation and classification run once per
+	 * unique text while the evaluation still counts every Tweet.
+	 * 
+	 * @param tweetsList
+	 *            The Tweets of a data file.
+	 * @return Returns the remaining Tweets in their original order.
+	 */
+	private List<Tweet> collapseDuplicates(List<Tweet> tweetsList) {
+		// maps the gold emotion and normalized text to the index of the first Tweet with this text
+		HashMap<String, Integer> firstTweets = new HashMap<String, Integer>();
+		int[] multiplicities = new int[tweetsList.size()];
+		boolean[] collapsed = new boolean[tweetsList.size()];
+		for (int i = 0; i < tweetsList.size(); i++) {
+			Tweet tweet = tweetsList.get(i);
+			StringBuilder key = new StringBuilder(tweet.getGoldEmotion());
+			int[] normalizedTokenIDs = tweet.getNormalizedTokenIDs();
+			for (int j = 0; j < normalizedTokenIDs.length; j++) {
+				key.append(' ').append(normalizedTokenIDs[j]);
+			}
+			Integer first = firstTweets.get(key.toString());
+			if (first == null) {
+				firstTweets.put(key.toString(), i);
+				multiplicities[i] = tweet.getMultiplicity();
+			} else {
+				multiplicities[first] += tweet.getMultiplicity();
+				collapsed[i] = true;
+			}
+		}
+		if (firstTweets.size() == tweetsList.size()) {
+			return tweetsList;
+		}
+		CorpusStore store = createStore();
+		List<Tweet> uniqueTweets = createTweetsList(store);
+		for (int i = 0; i < tweetsList.size(); i++) {
+			if (!collapsed[i]) {
+				Tweet tweet = tweetsList.get(i);
+				tweet.setMultiplicity(multiplicities[i]);
+				uniqueTweets.add(tweet);
+			}
+		}
+		if (store != null) {
+			store.trimToSize();
+		}
+		System.out.print((tweetsList.size() - uniqueTweets.size()) + " duplicates collapsed | ");
+		return uniqueTweets;
+	}
+
+	/**
+	 * Calculates the fingerprint of a data file. It covers the content of the file and all settings that influence the created Tweets, so it changes
+	 * whenever the corpus has to be created again.
+	 * 
+	 * @param data
+	 *            The data file.
+	 * @throws IOException
+	 *             Throws IO exception if the data file can not be read.
+	 * @return Returns the SHA-256 fingerprint as hex string.
+	 */
+	private String calculateFingerprint(File data) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		// settings that influence the created Tweets
+		String settingsString = CACHE_VERSION + "|" + settings.getCharset().name() + "|" + settings.isStemming() + "|" + getTokenizer().getName() + "|";
+		digest.update(settingsString.getBytes(StandardCharsets.UTF_8));
+		// content of the data file
+		InputStream input = new FileInputStream(data);
+		try {
+			byte[] buffer = new byte[1 << 16];
+			int length = input.read(buffer);
+			while (length != -1) {
+				digest.update(buffer, 0, length);
+				length = input.read(buffer);
+			}
+		} finally {
+			input.close();
+		}
+		StringBuilder fingerprint = new StringBuilder();
+		byte[] hash = digest.digest();
+		for (int i = 0; i < hash.length; i++) {
+			fingerprint.append(String.format("%02x", hash[i]));
+		}
+		return fingerprint.toString();
+	}
+
+	/**
+	 * Writes the Tweets of a data file to the cache. The Tweets are stored as test set of a corpus file. The file is written under a temporary name first,
+	 * so an interrupted run never leaves an incomplete cache file.
+	 * 
+	 * @param cacheFile
+	 *            The cache file.
+	 * @param tweetsList
+	 *            The Tweets of the data file.
+	 */
+	private void writeCacheFile(File cacheFile, List<Tweet> tweetsList) {
+		File temporaryFile = new File(cacheFile.getPath() + ".tmp");
+		try {
+			Files.createDirectories(cacheFile.getAbsoluteFile().getParentFile().toPath());
+			CorpusFile.write(temporaryFile, new ArrayList<Tweet>(), tweetsList);
+			Files.move(temporaryFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			// the cache is only an optimization, the corpus can still be used
+			System.out.print("could not write cache file " + cacheFile.getName() + " | ");
+			temporaryFile.delete();
+		}
+	}
+
+	/**
+	 * Creates a Tweet class for each Tweet in the data file. If a checkpoint directory is set, the Tweets created so far are saved periodically and a
+	 * previous run that has been interrupted is resumed at its last checkpoint.
+	 * 
+	 * @param data
+	 *            The data used to create the corpus.
+	 * @param fingerprint
+	 *            The fingerprint of the data file or null if it has not been calculated yet.
+	 * @throws IOException
+	 *             Throws IO exception if the data file can not be read or the checkpoint can not be written.
+	 * @return Returns the Tweets of the data file.
+	 */
+	private List<Tweet> tokenizeCorpus(File data, String fingerprint) throws IOException {
+		// create the tokenizer before the worker threads use it
+		getTokenizer();
+		// depending on the settings the Tweets are kept as objects or copied into a column store
+		CorpusStore store = createStore();
+		List<Tweet> tweetsList = createTweetsList(store);
+		// the checkpoint is identified by the fingerprint, so it is only resumed if neither the data file nor the settings have changed
+		Checkpoint checkpoint = null;
+		long offset = 0;
+		if (settings.getCheckpointDirectory() != null) {
+			if (fingerprint == null) {
+				fingerprint = calculateFingerprint(data);
+			}
+			checkpoint = new Checkpoint(settings.getCheckpointDirectory(), "ingestion_" + fingerprint, settings.getCheckpointInterval());
+			offset = checkpoint.restore(tweetsList);
+			if (checkpoint.getSavedTweets() > 0) {
+				System.out.print("resumed after " + checkpoint.getSavedTweets() + " Tweets | ");
+			}
+		}
+		// use the chunked parallel ingestion if more than one thread is configured, compressed files can only be read from the start
+		if (settings.getThreads() > 1 && TweetFileReader.isCompressed(data)) {
+			readCompressedCorpusParallel(data, offset, tweetsList, checkpoint);
+		} else if (settings.getThreads() > 1) {
+			readCorpusParallel(data, offset, tweetsList, checkpoint);
+		} else {
+			readCorpus(data, offset, tweetsList, checkpoint);
+		}
+		if (checkpoint != null) {
+			checkpoint.delete();
+		}
+		if (settings.isStemming() && settings.getStemmingMethod() == 2) {
+			stemVocabulary(tweetsList, store);
+		}
+		if (store != null) {
+			store.trimToSize();
+		}
+		// returns the list of created Tweets
+		return tweetsList;
+	}
+
+	/**
+	 * Reads the Tweets of the training or the test set from a corpus file.
+	 * 
+	 * @param corpusFile
+	 *            The corpus file.
+	 * @param set
+	 *            CorpusFile.TRAINING_SET or CorpusFile.TEST_SET.
+	 * @throws IOException
+	 *             Throws IO exception if the corpus file can not be read.
+	 * @return Returns the Tweets of the set.
+	 */
+	private List<Tweet> readCorpusFile(CorpusFile corpusFile, int set) throws IOException {
+		CorpusStore store = createStore();
+		List<Tweet> tweetsList = createTweetsList(store);
+		corpusFile.readSet(set, tweetsList);
+		if (store != null) {
+			store.trimToSize();
+		}
+		return tweetsList;
+	}
+
+	/**
+	 * 
+	 * @return Returns a new column store if the settings select the column store engine, otherwise null.
+	 */
+	private CorpusStore createStore() {
+		if (settings.getEngine() == 2) {
+			return new CorpusStore();
+		}
+		return null;
+	}
+
+	/**
+	 * 
+	 * @param store
+	 *            The column store created by createStore().
+	 * @return Returns an empty list for Tweets. If a store is given, added Tweets are copied into the store.
+	 */
+	private List<Tweet> createTweetsList(CorpusStore store) {
+		if (store != null) {
+			return store.getTweets();
+		}
+		return new ArrayList<Tweet>();
+	}
+
+	/**
+	 * Reads the data file line by line and adds a Tweet for each line that passes the emotion and language filter.
+	 * 
+	 * @param data
+	 *            The data used to create the corpus.
+	 * @param offset
+	 *            Offset of the first line that is read (0 = the whole file).
+	 * @param tweetsList
+	 *            The list the created Tweets are added to.
+	 * @param checkpoint
+	 *            The checkpoint that is updated after each Tweet or null if no checkpoints are saved.
+	 * @throws IOException
+	 *             Throws IO exception if the data file can not be read or the checkpoint can not be written.
+	 */
+	private void readCorpus(File data, long offset, List<Tweet> tweetsList, Checkpoint checkpoint) throws IOException {
+		// the file is read in a single pass, the progress is calculated from the byte offset
 		byte percentageDone = 0;
 		// read from file
-		BufferedReader input = new BufferedReader(new FileReader(data));
-		String inputTweet = input.readLine();
-		while (inputTweet != null) {
-			// split each line by tabs
-			String[] dataArray = inputTweet.split("\t");
-			// dataArray[0] = gold emotion; dataArray[3] = ID of Tweet;
-			// dataArray[6] = language of the Tweet; dataArray[8] = text of the Tweet;
-			// this if statement makes sure that only Tweets are considered whose gold emotion
-			// matches one of the six emotions that are used in this thesis and that the language is in english
-			if ((dataArray[0].equals("happy") || dataArray[0].equals("anger") || dataArray[0].equals("fear") || dataArray[0].equals("sad") || dataArray[0].equals("surprise") || dataArray[0].equals("disgust"))
-					&& dataArray[6].equals("en")) {
-				// creates a new token list for the Tweet text
-				ArrayList<Token> tokenList = createTokenList(dataArray[8]);
-				// creates a new Tweet
-				Tweet tweet = new Tweet(dataArray[3], dataArray[0], dataArray[8], tokenList);
+		TweetFileReader input = TweetFileReader.open(data, settings.getCharset(), offset);
+		TweetFieldScanner scanner = new TweetFieldScanner();
+		while (input.nextLine()) {
+			// creates a new Tweet if the line passes the emotion and language filter
+			Tweet tweet = createTweet(input, scanner);
+			if (tweet != null) {
 				// adds the Tweet to the list
 				tweetsList.add(tweet);
+				if (checkpoint != null) {
+					checkpoint.update(tweetsList, input.getOffset());
+				}
 			}
-			numberOfTweetsFinished++;
 			// calculates the percentage done and prints it to console
-			if ((int) (((double) numberOfTweetsFinished / (double) numberOfTweets) * 100) >= percentageDone + 10) {
-				percentageDone = (byte) (((double) numberOfTweetsFinished / (double) numberOfTweets) * 100);
+			if ((int) (((double) input.getBytesRead() / (double) input.getLength()) * 100) >= percentageDone + 10) {
+				percentageDone = (byte) (((double) input.getBytesRead() / (double) input.getLength()) * 100);
 				System.out.print(percentageDone + "% | ");
 			}
-			// reads next line from file
-			inputTweet = input.readLine();
 		}
 		// closes the input stream
 		input.close();
-		// returns the list of created Tweets
+	}
+
+	/**
+	 * Creates the corpus by splitting the data file into byte ranges on line boundaries and tokenizing the ranges in parallel on a fork-join pool. The Tweets
+	 * are added to the list in the same order as in the data file.
+	 * 
+	 * @param data
+	 *            The data used to create the corpus.
+	 * @param offset
+	 *            Offset of the first line that is read (0 = the whole file).
+	 * @param tweetsList
+	 *            The list the created Tweets are added to.
+	 * @param checkpoint
+	 *            The checkpoint that is updated after each chunk or null if no checkpoints are saved.
+	 * @throws IOException
+	 *             Throws IO exception if the data file can not be read or the checkpoint can not be written.
+	 */
+	private void readCorpusParallel(File data, long offset, List<Tweet> tweetsList, Checkpoint checkpoint) throws IOException {
+		// calculate the byte ranges that will be processed by the workers
+		long[] chunkBorders = calculateChunkBorders(data, offset);
+		long fileSize = chunkBorders[chunkBorders.length - 1];
+		ForkJoinPool pool = new ForkJoinPool(settings.getThreads());
+		try {
+			// submit one task per chunk
+			ArrayList<ForkJoinTask<ArrayList<Tweet>>> tasks = new ArrayList<ForkJoinTask<ArrayList<Tweet>>>();
+			for (int i = 0; i < chunkBorders.length - 1; i++) {
+				final long start = chunkBorders[i];
+				final long end = chunkBorders[i + 1];
+				tasks.add(pool.submit(() -> createCorpusChunk(data, start, end)));
+			}
+			byte percentageDone = 0;
+			// join the tasks in file order, so the Tweets keep their original order
+			for (int i = 0; i < tasks.size(); i++) {
+				try {
+					tweetsList.addAll(tasks.get(i).join());
+				} catch (UncheckedIOException e) {
+					throw e.getCause();
+				}
+				if (checkpoint != null) {
+					checkpoint.update(tweetsList, chunkBorders[i + 1]);
+				}
+				// calculates the percentage done and prints it to console
+				if ((int) (((double) chunkBorders[i + 1] / (double) fileSize) * 100) >= percentageDone + 10) {
+					percentageDone = (byte) (((double) chunkBorders[i + 1] / (double) fileSize) * 100);
+					System.out.print(percentageDone + "% | ");
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Creates the corpus from a compressed data file, which can not be split into byte ranges. The file is decompressed and split into lines by a single
+	 * reader, the lines are tokenized in batches in parallel on a fork-join pool. The Tweets are added to the list in the same order as in the data file.
+	 * 
+	 * @param data
+	 *            The compressed data used to create the corpus.
+	 * @param offset
+	 *            Offset of the first line in the decompressed data that is tokenized (0 = the whole file).
+	 * @param tweetsList
+	 *            The list the created Tweets are added to.
+	 * @param checkpoint
+	 *            The checkpoint that is updated after each batch or null if no checkpoints are saved.
+	 * @throws IOException
+	 *             Throws IO exception if the data file can not be read or the checkpoint can not be written.
+	 */
+	private void readCompressedCorpusParallel(File data, long offset, List<Tweet> tweetsList, Checkpoint checkpoint) throws IOException {
+		ForkJoinPool pool = new ForkJoinPool(settings.getThreads());
+		try {
+			// tasks that have not been joined yet, the number is limited so the reader does not run too far ahead
+			ArrayDeque<ForkJoinTask<ArrayList<Tweet>>> tasks = new ArrayDeque<ForkJoinTask<ArrayList<Tweet>>>();
+			// offset in the decompressed data directly after the last line of each task
+			ArrayDeque<Long> taskEnds = new ArrayDeque<Long>();
+			byte percentageDone = 0;
+			TweetFileReader input = TweetFileReader.open(data, settings.getCharset(), offset);
+			try {
+				TweetFieldScanner scanner = new TweetFieldScanner();
+				ArrayList<String[]> batch = new ArrayList<String[]>(LINES_PER_BATCH);
+				while (input.nextLine()) {
+					// only the accepted lines are decoded, the tokenization is done by the pool
+					if (scanner.scan(input.getBuffer(), input.getLineStart(), input.getLineEnd())) {
+						String id = input.decode(scanner.getFieldStart(TweetFieldScanner.ID), scanner.getFieldEnd(TweetFieldScanner.ID));
+						String text = input.decode(scanner.getFieldStart(TweetFieldScanner.TEXT), scanner.getFieldEnd(TweetFieldScanner.TEXT));
+						batch.add(new String[] { id, scanner.getEmotion(), text });
+					}
+					if (batch.size() == LINES_PER_BATCH) {
+						tasks.add(submitBatch(pool, batch));
+						taskEnds.add(input.getOffset());
+						batch = new ArrayList<String[]>(LINES_PER_BATCH);
+						if (tasks.size() > settings.getThreads() * CHUNKS_PER_THREAD) {
+							joinBatch(tasks, taskEnds, tweetsList, checkpoint);
+						}
+					}
+					// calculates the percentage done and prints it to console
+					if ((int) (((double) input.getBytesRead() / (double) input.getLength()) * 100) >= percentageDone + 10) {
+						percentageDone = (byte) (((double) input.getBytesRead() / (double) input.getLength()) * 100);
+						System.out.print(percentageDone + "% | ");
+					}
+				}
+				tasks.add(submitBatch(pool, batch));
+				taskEnds.add(input.getOffset());
+			} finally {
+				input.close();
+			}
+			// join the remaining tasks in file order
+			while (!tasks.isEmpty()) {
+				joinBatch(tasks, taskEnds, tweetsList, checkpoint);
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Waits for the oldest batch and adds its Tweets to the list.
+	 * 
+	 * @param tasks
+	 *            The tasks that have not been joined yet in file order.
+	 * @param taskEnds
+	 *            The offsets directly after the last line of each task.
+	 * @param tweetsList
+	 *            The list the created Tweets are added to.
+	 * @param checkpoint
+	 *            The checkpoint that is updated or null if no checkpoints are saved.
+	 * @throws IOException
+	 *             Throws IO exception if the checkpoint can not be written.
+	 */
+	private void joinBatch(ArrayDeque<ForkJoinTask<ArrayList<Tweet>>> tasks, ArrayDeque<Long> taskEnds, List<Tweet> tweetsList, Checkpoint checkpoint)
+			throws IOException {
+		tweetsList.addAll(tasks.poll().join());
+		long end = taskEnds.poll();
+		if (checkpoint != null) {
+			checkpoint.update(tweetsList, end);
+		}
+	}
+
+	/**
+	 * Submits the tokenization of a batch of lines to the pool.
+	 * 
+	 * @param pool
+	 *            The pool of the tokenization threads.
+	 * @param batch
+	 *            The ID, gold emotion and text of each accepted line.
+	 * @return Returns the task that creates the Tweets of the batch in the same order.
+	 */
+	private ForkJoinTask<ArrayList<Tweet>> submitBatch(ForkJoinPool pool, final ArrayList<String[]> batch) {
+		return pool.submit(() -> {
+			ArrayList<Tweet> batchTweets = new ArrayList<Tweet>(batch.size());
+			for (String[] line : batch) {
+				batchTweets.add(new Tweet(line[0], line[1], line[2], createTokenList(line[2])));
+			}
+			return batchTweets;
+		});
+	}
+
+	/**
+	 * Creates Tweets for the lines of a data file that follow an offset. Is used for data files that are still being written: only complete lines of
+	 * uncompressed files are read, a last line without line break is read by a later call. Compressed files can only be read once they are complete, a
+	 * partially written file causes an exception. The Tweets are neither collapsed nor cached and their tokens are TransientTokens.
+	 * 
+	 * @param data
+	 *            The data file.
+	 * @param offset
+	 *            Offset of the first line that is read, i.e. the return value of the previous call or 0.
+	 * @param tweetsList
+	 *            The list the created Tweets are added to.
+	 * @throws IOException
+	 *             Throws IO exception if the data file can not be read.
+	 * @return Returns the offset directly after the last line that was read.
+	 */
+	public long readAppendedTweets(File data, long offset, List<Tweet> tweetsList) throws IOException {
+		getTokenizer();
+		TweetFileReader input;
+		if (TweetFileReader.isCompressed(data)) {
+			input = TweetFileReader.open(data, settings.getCharset(), offset);
+		} else {
+			input = new TweetFileReader(data, settings.getCharset(), offset, findLineEnd(data, offset));
+		}
+		ArrayList<Tweet> newTweets = new ArrayList<Tweet>();
+		try {
+			TweetFieldScanner scanner = new TweetFieldScanner();
+			while (input.nextLine()) {
+				Tweet tweet = createTweet(input, scanner);
+				if (tweet != null) {
+					newTweets.add(tweet);
+				}
+			}
+			offset = input.getOffset();
+		} finally {
+			input.close();
+		}
+		tweetsList.addAll(newTweets);
+		return offset;
+	}
+
+	/**
+	 * 
+	 * @param data
+	 *            The data file.
+	 * @param start
+	 *            Offset where the search starts.
+	 * @return Returns the offset directly after the last line break of the file or start if there is no line break behind start.
+	 * @throws IOException
+	 *             Throws IO exception if the data file can not be read.
+	 */
+	private static long findLineEnd(File data, long start) throws IOException {
+		RandomAccessFile file = new RandomAccessFile(data, "r");
+		try {
+			byte[] block = new byte[1 << 16];
+			long end = file.length();
+			// search the file backwards block by block
+			while (end > start) {
+				int length = (int) Math.min(block.length, end - start);
+				file.seek(end - length);
+				file.readFully(block, 0, length);
+				for (int i = length - 1; i >= 0; i--) {
+					if (block[i] == '\n') {
+						return end - length + i + 1;
+					}
+				}
+				end -= length;
+			}
+			return start;
+		} finally {
+			file.close();
+		}
+	}
+
+	/**
+	 * Splits the data file into byte ranges. Each range starts at the beginning of a line and ends directly after a line break (or at the end of the file).
+	 * 
+	 * @param data
+	 *            The to be split data file.
+	 * @param start
+	 *            Offset of the first line of the first chunk.
+	 * @return Returns the borders of the chunks. Chunk i ranges from border i (inclusive) to border i+1 (exclusive).
+	 * @throws IOException
+	 *             Throws IO exception if the data file can not be read.
+	 */
+	private long[] calculateChunkBorders(File data, long start) throws IOException {
+		long fileSize = data.length();
+		long rangeSize = fileSize - start;
+		// use enough chunks to keep all threads busy, but keep every chunk below the maximum chunk size
+		long numberOfChunks = Math.max((long) settings.getThreads() * CHUNKS_PER_THREAD, (rangeSize + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE);
+		numberOfChunks = Math.max(1, Math.min(numberOfChunks, rangeSize));
+		ArrayList<Long> borders = new ArrayList<Long>();
+		borders.add(start);
+		RandomAccessFile file = new RandomAccessFile(data, "r");
+		try {
+			for (long i = 1; i < numberOfChunks; i++) {
+				long border = Math.max(start + rangeSize * i / numberOfChunks, borders.get(borders.size() - 1));
+				// move the border behind the next line break
+				file.seek(border);
+				int b = file.read();
+				while (b != -1 && b != '\n') {
+					b = file.read();
+				}
+				border = file.getFilePointer();
+				if (b != -1 && border > borders.get(borders.size() - 1)) {
+					borders.add(border);
+				}
+			}
+		} finally {
+			file.close();
+		}
+		borders.add(fileSize);
+		long[] chunkBorders = new long[borders.size()];
+		for (int i = 0; i < chunkBorders.length; i++) {
+			chunkBorders[i] = borders.get(i);
+		}
+		return chunkBorders;
+	}
+
+	/**
+	 * Creates the Tweets of a single chunk of the data file. Is executed by the workers of the fork-join pool.
+	 * 
+	 * @param data
+	 *            The data used to create the corpus.
+	 * @param start
+	 *            Byte offset of the first line of the chunk.
+	 * @param end
+	 *            Byte offset directly after the last line of the chunk.
+	 * @return Returns the Tweets of the chunk in file order.
+	 */
+	private ArrayList<Tweet> createCorpusChunk(File data, long start, long end) {
+		ArrayList<Tweet> tweetsList = new ArrayList<Tweet>();
+		try {
+			// read the chunk line by line with the same reader as the sequential ingestion
+			TweetFileReader input = new TweetFileReader(data, settings.getCharset(), start, end);
+			try {
+				TweetFieldScanner scanner = new TweetFieldScanner();
+				while (input.nextLine()) {
+					Tweet tweet = createTweet(input, scanner);
+					if (tweet != null) {
+						tweetsList.add(tweet);
+					}
+				}
+			} finally {
+				input.close();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
 		return tweetsList;
 	}
 
+	/**
+	 * Creates a Tweet class for the current line of the reader. The columns are scanned in the raw bytes of the line, only the ID and the text of accepted
+	 * Tweets are decoded.
+	 * 
+	 * @param input
+	 *            Reader positioned at the line.
+	 * @param scanner
+	 *            Scanner used to find the columns of the line.
+	 * @return Returns the Tweet or null if the gold emotion or the language of the line are not considered.
+	 */
+	private Tweet createTweet(TweetFileReader input, TweetFieldScanner scanner) {
+		// this if statement makes sure that only Tweets are considered whose gold emotion
+		// matches one of the six emotions that are used in this thesis and that the language is in english
+		if (!scanner.scan(input.getBuffer(), input.getLineStart(), input.getLineEnd())) {
+			return null;
+		}
+		String id = input.decode(scanner.getFieldStart(TweetFieldScanner.ID), scanner.getFieldEnd(TweetFieldScanner.ID));
+		String text = input.decode(scanner.getFieldStart(TweetFieldScanner.TEXT), scanner.getFieldEnd(TweetFieldScanner.TEXT));
+		// creates a new token list for the Tweet text
+		ArrayList<Token> tokenList = createTokenList(text);
+		// creates a new Tweet
+		return new Tweet(id, scanner.getEmotion(), text, tokenList);
+	}
+
 	/**
 	 * Creates a Token class for each token in the text.
 	 * 
@@ -108,49 +782,200 @@ public class Corpus {
 	 * @return Returns an ArrayList containing all Token classes of the Tweet.
 	 */
 	private ArrayList<Token> createTokenList(String tweetText) {
-		// use stanford nlp library to tokenize the Tweet's text
-		List<Word> tokenListTemp = tf.getTokenizer(new StringReader(tweetText)).tokenize();
+		// tokenize the Tweet's text
+		ArrayList<String> tokenStrings = new ArrayList<String>();
+		tokenizer.tokenize(tweetText, tokenStrings);
 		// create an emty list that will store all tokens
-		ArrayList<Token> tokenList = new ArrayList<Token>();
+		ArrayList<Token> tokenList = new ArrayList<Token>(tokenStrings.size());
 		// iterate over all tokens
-		Iterator<Word> iter = tokenListTemp.iterator();
-		while (iter.hasNext()) {
-			// convert the token to String
-			String tokenString = iter.next().toString();
-			// create new token class for the token
-			String normalizedString = tokenString.toLowerCase();
-			if (normalizedString.startsWith("@")) {
-				normalizedString = "XUSERX";
-			} else if (normalizedString.startsWith("#")) {
-				normalizedString = "XHASHTAGX";
-			} else if (normalizedString.startsWith("http")) {
-				normalizedString = "XURLX";
-			}
-			if (stemm) {
-				Stemmer stemmer = new Stemmer();
-				normalizedString = stemmer.stem(normalizedString);
-			}
-			Token token = new Token(tokenString, normalizedString);
-			// add token to the list
-			tokenList.add(token);
+		for (int i = 0; i < tokenStrings.size(); i++) {
+			String tokenString = tokenStrings.get(i);
+			// most token strings have been normalized before
+			String normalizedString = normalizationCache.get(tokenString);
+			if (normalizedString == null) {
+				normalizedString = tokenizer.normalize(tokenString);
+				// stem each token string, unless the vocabulary is stemmed after the ingestion. Transient Tweets are not part of the vocabulary.
+				if (settings.isStemming() && (settings.getStemmingMethod() != 2 || transientTweets)) {
+					normalizedString = stemmers.get().stem(normalizedString);
+				}
+				// cache the shared string of the vocabulary
+				if (!transientTweets) {
+					normalizedString = Vocabulary.getString(Vocabulary.getID(normalizedString));
+				}
+				normalizationCache.put(tokenString, normalizedString);
+			}
+			// create new token class for the token and add it to the list
+			tokenList.add(transientTweets ? new TransientToken(tokenString, normalizedString) : new Token(tokenString, normalizedString));
 		}
 		// return the list of created tokens
 		return tokenList;
 	}
 
+	/**
+	 * Stems the normalized strings of all tokens. Every distinct normalized string is only stemmed once and the strings are stemmed in parallel, so the
+	 * stemming costs depend on the size of the vocabulary instead of the number of tokens.
+	 * 
+	 * @param tweetsList
+	 *            The Tweets of a data file.
+	 * @param store
+	 *            The column store of the Tweets or null if they are kept as objects.
+	 */
+	private void stemVocabulary(List<Tweet> tweetsList, CorpusStore store) {
+		// collect the distinct normalized strings
+		BitSet usedIDs = new BitSet(Vocabulary.size());
+		if (store != null) {
+			for (int i = 0; i < store.getTokenCount(); i++) {
+				usedIDs.set(store.getNormalizedTokenID(i));
+			}
+		} else {
+			for (Tweet tweet : tweetsList) {
+				for (Token token : tweet.getTokenList()) {
+					usedIDs.set(token.getNormalizedTokenID());
+				}
+			}
+		}
+		// maps the ID of each normalized string to the ID of its stem
+		final int[] stemIDs = new int[usedIDs.length()];
+		final int[] ids = usedIDs.stream().toArray();
+		if (settings.getThreads() > 1 && ids.length > 1) {
+			// the strings are stemmed in ranges on a pool of the configured size
+			ForkJoinPool pool = new ForkJoinPool(settings.getThreads());
+			try {
+				int numberOfRanges = Math.min(ids.length, settings.getThreads() * CHUNKS_PER_THREAD);
+				ArrayList<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>(numberOfRanges);
+				for (int i = 0; i < numberOfRanges; i++) {
+					final int start = (int) ((long) ids.length * i / numberOfRanges);
+					final int end = (int) ((long) ids.length * (i + 1) / numberOfRanges);
+					tasks.add(pool.submit(() -> stemIDs(ids, start, end, stemIDs)));
+				}
+				for (ForkJoinTask<?> task : tasks) {
+					task.join();
+				}
+			} finally {
+				pool.shutdown();
+			}
+		} else {
+			stemIDs(ids, 0, ids.length, stemIDs);
+		}
+		// replace the normalized strings by their stems
+		if (store != null) {
+			for (int i = 0; i < store.getTokenCount(); i++) {
+				store.setNormalizedTokenID(i, stemIDs[store.getNormalizedTokenID(i)]);
+			}
+		} else {
+			for (Tweet tweet : tweetsList) {
+				for (Token token : tweet.getTokenList()) {
+					token.setNormalizedTokenString(Vocabulary.getString(stemIDs[token.getNormalizedTokenID()]));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Stems the strings of a range of vocabulary IDs.
+	 * 
+	 * @param ids
+	 *            The vocabulary IDs of the normalized strings.
+	 * @param start
+	 *            Index of the first ID of the range.
+	 * @param end
+	 *            Index after the last ID of the range.
+	 * @param stemIDs
+	 *            Receives the ID of the stem of each normalized string at the index of its ID.
+	 */
+	private void stemIDs(int[] ids, int start, int end, int[] stemIDs) {
+		Stemmer stemmer = stemmers.get();
+		for (int i = start; i < end; i++) {
+			stemIDs[ids[i]] = Vocabulary.getID(stemmer.stem(Vocabulary.getString(ids[i])));
+		}
+	}
+
+	/**
+	 * 
+	 * @return Returns the tokenizer selected by the settings (1 = PTBTokenizer; 2 = fast Tweet tokenizer).
+	 */
+	private TweetTokenizer getTokenizer() {
+		if (tokenizer == null) {
+			if (settings.getTokenizer() == 2) {
+				tokenizer = new TweetTokenizer_Fast();
+			} else {
+				tokenizer = new TweetTokenizer_PTB();
+			}
+		}
+		return tokenizer;
+	}
+
 	/**
 	 * 
 	 * @return Returns the training set.
 	 */
-	public ArrayList<Tweet> getTrainingSet() {
+	public List<Tweet> getTrainingSet() {
 		return trainingSet;
 	}
 
+	/**
+	 * 
+	 * @return Returns false if only the test set was loaded from a corpus file.
+	 */
+	public boolean isTrainingSetLoaded() {
+		return trainingEmotionCounts == null;
+	}
+
+	/**
+	 * 
+	 * @return Returns the number of Tweets in the training set, even if it was not loaded. Collapsed duplicates are counted with their multiplicity.
+	 */
+	public int getTrainingSetSize() {
+		if (!isTrainingSetLoaded()) {
+			return trainingSetSize;
+		}
+		return countTweets(trainingSet);
+	}
+
+	/**
+	 * 
+	 * @return Returns the number of Tweets in the test set. Collapsed duplicates are counted with their multiplicity.
+	 */
+	public int getTestSetSize() {
+		return countTweets(testSet);
+	}
+
+	/**
+	 * 
+	 * @param tweetsList
+	 *            Tweets of a set.
+	 * @return Returns the number of Tweets in the data file that are represented by the given Tweets.
+	 */
+	private static int countTweets(List<Tweet> tweetsList) {
+		int count = 0;
+		Iterator<Tweet> iter = tweetsList.iterator();
+		while (iter.hasNext()) {
+			count += iter.next().getMultiplicity();
+		}
+		return count;
+	}
+
+	/**
+	 * 
+	 * @return Returns the number of Tweets per gold emotion in the training set if it was not loaded, otherwise null.
+	 */
+	public HashMap<String, Integer> getTrainingEmotionCounts() {
+		return trainingEmotionCounts;
+	}
+
 	/**
 	 * 
 	 * @return Returns the test set.
 	 */
-	public ArrayList<Tweet> getTestSet() {
+	public List<Tweet> getTestSet() {
 		return testSet;
 	}
+
+	/**
+	 *
+	 * @return Returns the inverted index of the training and test set or null if the corpus has not been indexed when it was created.
+	 */
+	public TweetIndex getIndex() {
+		return index;
+	}
 }
@@ -0,0 +1,497 @@
+package strohmfn;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Reads and writes corpora in a compact, versioned binary format.
+ *
+ * A corpus file starts with a fixed size header (magic number, version, emotion table, number of Tweet records and Tweets per emotion (including
+ * collapsed duplicates) of the training and the test set, the settings the Tweets have been tokenized and annotated with and the fingerprints of the
+ * Tweets files that have been appended), followed by a sequence of blocks. Each block starts with its type, the set it belongs to and its length, so blocks of a set that is not
+ * needed can be skipped. VOCAB blocks add strings to the vocabulary of the file, TWEETS blocks contain Tweets whose token strings are referenced by their
+ * index in this vocabulary. A VOCAB block always precedes the first TWEETS block that uses its strings.
+ *
+ * Tweet format: flags (byte), ID (varint or string), gold emotion (byte), predicted emotion (byte, only if present), multiplicity (varint, only if
+ * greater than 1), original text (string), number of tokens (varint) and for each token: token string (varint), normalized token string (varint), flags
+ * (byte), number of modified tokens (varint) and their indices within the Tweet (varint).
+ *
+ * @author strohmfn
+ *
+ */
+public class CorpusFile {
+
+	public static final int TRAINING_SET = 0;
+	public static final int TEST_SET = 1;
+
+	static final int MAGIC = 0x53464E43;
+	static final int VERSION = 1;
+	// Size of the header in bytes, including magic number, version and header size.
+	static final int HEADER_SIZE = 4096;
+	// Maximum number of Tweets per TWEETS block.
+	static final int TWEETS_PER_BLOCK = 1024;
+
+	static final byte VOCAB_BLOCK = 1;
+	static final byte TWEETS_BLOCK = 2;
+
+	// Flags of a Tweet record.
+	static final int NON_NUMERIC_ID = 1;
+	static final int HAS_PREDICTED_EMOTION = 2;
+	static final int HAS_MULTIPLICITY = 4;
+
+	private File file;
+	// Size of the header of this file, the first block starts directly after it.
+	private int headerSize;
+	// Emotion strings, Tweets store the index in this list.
+	private ArrayList<String> emotions = new ArrayList<String>();
+	// Number of Tweets and Tweets per emotion of the training and the test set.
+	private int[] tweetCounts = new int[2];
+	private ArrayList<int[]> emotionCounts = new ArrayList<int[]>();
+	// Settings the Tweets have been tokenized and annotated with (empty = not recorded, e.g. cache files).
+	private String annotation;
+	// Fingerprints of the Tweets files that have been appended to the file.
+	private long[] appendedFiles;
+
+	/**
+	 * Opens a corpus file and reads its header.
+	 *
+	 * @param file
+	 *            The corpus file.
+	 * @throws IOException
+	 *             Throws exception if the file can not be read or is not a corpus file of a supported version.
+	 */
+	public CorpusFile(File file) throws IOException {
+		this.file = file;
+		DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			if (input.readInt() != MAGIC) {
+				throw new IOException(file.getPath() + " is not a corpus file.");
+			}
+			int version = input.readInt();
+			if (version != VERSION) {
+				throw new IOException("Corpus file version " + version + " is not supported.");
+			}
+			headerSize = input.readInt();
+			int numberOfEmotions = input.readInt();
+			for (int i = 0; i < numberOfEmotions; i++) {
+				emotions.add(input.readUTF());
+			}
+			for (int set = 0; set < 2; set++) {
+				tweetCounts[set] = input.readInt();
+				int[] counts = new int[numberOfEmotions];
+				for (int i = 0; i < numberOfEmotions; i++) {
+					counts[i] = input.readInt();
+				}
+				emotionCounts.add(counts);
+			}
+			annotation = input.readUTF();
+			appendedFiles = new long[input.readInt()];
+			for (int i = 0; i < appendedFiles.length; i++) {
+				appendedFiles[i] = input.readLong();
+			}
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 *
+	 * @return Returns the description of the settings the Tweets have been tokenized and annotated with or an empty string if they have not been
+	 *         recorded. Tweets are only appended to a file with the same settings.
+	 */
+	public String getAnnotation() {
+		return annotation;
+	}
+
+	/**
+	 *
+	 * @return Returns the fingerprints of the Tweets files that have been appended to the file. A Tweets file is only appended once.
+	 */
+	public long[] getAppendedFiles() {
+		return appendedFiles.clone();
+	}
+
+	/**
+	 * Checks if a file is a corpus file in the binary format. Files written with Java serialization are no corpus files.
+	 *
+	 * @param file
+	 *            The to be checked file.
+	 * @return Returns true if the file starts with the magic number of the format.
+	 * @throws IOException
+	 *             Throws exception if the file can not be read.
+	 */
+	public static boolean isCorpusFile(File file) throws IOException {
+		DataInputStream input = new DataInputStream(new FileInputStream(file));
+		try {
+			return input.readInt() == MAGIC;
+		} catch (EOFException e) {
+			return false;
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Writes a corpus file.
+	 *
+	 * @param file
+	 *            The to be written file. An existing file is overwritten.
+	 * @param trainingSet
+	 *            Tweets of the training set.
+	 * @param testSet
+	 *            Tweets of the test set.
+	 * @throws IOException
+	 *             Throws exception if the file can not be written.
+	 */
+	public static void write(File file, List<Tweet> trainingSet, List<Tweet> testSet) throws IOException {
+		write(file, trainingSet, testSet, "");
+	}
+
+	/**
+	 * Writes a corpus file and records the settings its Tweets have been tokenized and annotated with.
+	 *
+	 * @param file
+	 *            The to be written file. An existing file is overwritten.
+	 * @param trainingSet
+	 *            Tweets of the training set.
+	 * @param testSet
+	 *            Tweets of the test set.
+	 * @param annotation
+	 *            Description of the settings, see getAnnotation().
+	 * @throws IOException
+	 *             Throws exception if the file can not be written.
+	 */
+	public static void write(File file, List<Tweet> trainingSet, List<Tweet> testSet, String annotation) throws IOException {
+		CorpusFileWriter writer = new CorpusFileWriter(file);
+		writer.setAnnotation(annotation);
+		try {
+			writer.addTweets(TRAINING_SET, trainingSet);
+			writer.addTweets(TEST_SET, testSet);
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Appends Tweets to an existing corpus file. The Tweets that are already in the file are neither read nor written again.
+	 *
+	 * @param file
+	 *            The corpus file.
+	 * @param trainingSet
+	 *            Tweets that are added to the training set.
+	 * @param testSet
+	 *            Tweets that are added to the test set.
+	 * @param appendedFiles
+	 *            Fingerprints of the Tweets files the Tweets have been created from, see getAppendedFiles().
+	 * @throws IOException
+	 *             Throws exception if the file can not be read or written. The file is left unchanged in this case.
+	 */
+	public static void append(File file, List<Tweet> trainingSet, List<Tweet> testSet, List<Long> appendedFiles) throws IOException {
+		CorpusFileWriter writer = CorpusFileWriter.append(file);
+		try {
+			for (long appendedFile : appendedFiles) {
+				writer.addAppendedFile(appendedFile);
+			}
+			writer.addTweets(TRAINING_SET, trainingSet);
+			writer.addTweets(TEST_SET, testSet);
+			writer.close();
+		} catch (IOException | RuntimeException e) {
+			writer.abort();
+			throw e;
+		}
+	}
+
+	/**
+	 * Reads all Tweets of the training or the test set. The Tweets of the other set are skipped.
+	 *
+	 * @param set
+	 *            TRAINING_SET or TEST_SET.
+	 * @param tweets
+	 *            The list the Tweets are added to.
+	 * @throws IOException
+	 *             Throws exception if the file can not be read.
+	 */
+	public void readSet(int set, List<Tweet> tweets) throws IOException {
+		BlockReader reader = openBlockReader(set);
+		try {
+			ArrayList<Tweet> block;
+			while ((block = reader.readBlock()) != null) {
+				tweets.addAll(block);
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Opens the file to read the Tweets of the training or the test set block by block. Only the Tweets of the current block are kept in memory.
+	 *
+	 * @param set
+	 *            TRAINING_SET or TEST_SET.
+	 * @return Returns a reader that is positioned at the first block.
+	 * @throws IOException
+	 *             Throws exception if the file can not be read.
+	 */
+	public BlockReader openBlockReader(int set) throws IOException {
+		return new BlockReader(set);
+	}
+
+	/**
+	 *
+	 * @param set
+	 *            TRAINING_SET or TEST_SET.
+	 * @return Returns the number of Tweets in the set.
+	 */
+	public int getTweetCount(int set) {
+		return tweetCounts[set];
+	}
+
+	/**
+	 *
+	 * @param set
+	 *            TRAINING_SET or TEST_SET.
+	 * @return Returns the number of Tweets per gold emotion in the set. Collapsed duplicates are counted with their multiplicity.
+	 */
+	public HashMap<String, Integer> getEmotionCounts(int set) {
+		HashMap<String, Integer> counts = new HashMap<String, Integer>();
+		for (int i = 0; i < emotions.size(); i++) {
+			if (emotionCounts.get(set)[i] > 0) {
+				counts.put(emotions.get(i), emotionCounts.get(set)[i]);
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 *
+	 * @return Returns the emotion table of the header. Tweets store the index of their emotions in this list.
+	 */
+	List<String> getEmotions() {
+		return emotions;
+	}
+
+	/**
+	 *
+	 * @param set
+	 *            TRAINING_SET or TEST_SET.
+	 * @return Returns the number of Tweets per index in the emotion table.
+	 */
+	int[] getEmotionCodeCounts(int set) {
+		return emotionCounts.get(set);
+	}
+
+	/**
+	 * Reads the VOCAB blocks of the file and skips all Tweets.
+	 *
+	 * @return Returns the vocabulary IDs of the strings in the file vocabulary, in the order of the file.
+	 * @throws IOException
+	 *             Throws exception if the file can not be read.
+	 */
+	int[] readVocabularyIDs() throws IOException {
+		// no TWEETS block belongs to this set, so the reader reads all VOCAB blocks until the end of the file
+		BlockReader reader = new BlockReader(-1);
+		try {
+			reader.readBlock();
+			return Arrays.copyOf(reader.vocabularyIDs, reader.vocabularySize);
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Reads a single Tweet.
+	 *
+	 * @param vocabularyIDs
+	 *            Maps indices of the file vocabulary to vocabulary IDs.
+	 */
+	private Tweet readTweet(DataInput input, int[] vocabularyIDs) throws IOException {
+		int flags = input.readByte();
+		String ID = (flags & NON_NUMERIC_ID) != 0 ? readString(input) : null;
+		long numericID = ID == null ? readVarLong(input) : -1;
+		if (ID == null && numericID < 0) {
+			throw new IOException("Damaged Tweet ID in corpus file.");
+		}
+		String goldEmotion = emotions.get(input.readByte());
+		String predictedEmotion = (flags & HAS_PREDICTED_EMOTION) != 0 ? emotions.get(input.readByte()) : null;
+		int multiplicity = (flags & HAS_MULTIPLICITY) != 0 ? (int) readVarLong(input) : 1;
+		String originalText = readString(input);
+		int numberOfTokens = (int) readVarLong(input);
+		ArrayList<Token> tokenList = new ArrayList<Token>(numberOfTokens);
+		int[][] modifies = null;
+		for (int i = 0; i < numberOfTokens; i++) {
+			String tokenString = Vocabulary.getString(vocabularyIDs[(int) readVarLong(input)]);
+			String normalizedTokenString = Vocabulary.getString(vocabularyIDs[(int) readVarLong(input)]);
+			Token token = new Token(tokenString, normalizedTokenString);
+			token.setFlags(input.readByte());
+			int numberOfModified = (int) readVarLong(input);
+			if (numberOfModified > 0) {
+				if (modifies == null) {
+					modifies = new int[numberOfTokens][];
+				}
+				modifies[i] = new int[numberOfModified];
+				for (int j = 0; j < numberOfModified; j++) {
+					modifies[i][j] = (int) readVarLong(input);
+				}
+			}
+			tokenList.add(token);
+		}
+		// the links can only be restored when all tokens exist
+		if (modifies != null) {
+			for (int i = 0; i < numberOfTokens; i++) {
+				if (modifies[i] != null) {
+					for (int j = 0; j < modifies[i].length; j++) {
+						tokenList.get(i).addModifies(tokenList.get(modifies[i][j]));
+					}
+				}
+			}
+		}
+		Tweet tweet;
+		if (ID == null) {
+			tweet = new Tweet(numericID, goldEmotion, originalText, tokenList);
+		} else {
+			tweet = new Tweet(ID, goldEmotion, originalText, tokenList);
+		}
+		tweet.setPredictedEmotion(predictedEmotion);
+		tweet.setMultiplicity(multiplicity);
+		return tweet;
+	}
+
+	/**
+	 * Writes a non-negative number with 7 bits per byte. The highest bit of a byte is set if more bytes follow.
+	 */
+	static void writeVarLong(DataOutput output, long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			output.writeByte((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		output.writeByte((int) value);
+	}
+
+	/**
+	 *
+	 * @return Returns a number written by writeVarLong().
+	 */
+	static long readVarLong(DataInput input) throws IOException {
+		long value = 0;
+		int shift = 0;
+		byte b;
+		do {
+			if (shift > 63) {
+				throw new IOException("Malformed number in corpus file.");
+			}
+			b = input.readByte();
+			value |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return value;
+	}
+
+	/**
+	 * Writes a string as length (varint) and UTF-8 bytes.
+	 */
+	static void writeString(DataOutput output, String string) throws IOException {
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		writeVarLong(output, bytes.length);
+		output.write(bytes);
+	}
+
+	/**
+	 *
+	 * @return Returns a string written by writeString().
+	 */
+	static String readString(DataInput input) throws IOException {
+		byte[] bytes = new byte[(int) readVarLong(input)];
+		input.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Skips exactly the given number of bytes.
+	 */
+	private static void skipFully(DataInputStream input, long bytes) throws IOException {
+		while (bytes > 0) {
+			long skipped = input.skip(bytes);
+			if (skipped <= 0) {
+				throw new EOFException("Unexpected end of corpus file.");
+			}
+			bytes -= skipped;
+		}
+	}
+
+	/**
+	 * Reads the Tweets of one set block by block. The VOCAB blocks of both sets are read, because the Tweets of a set can use strings that were added
+	 * by a block of the other set.
+	 */
+	public class BlockReader implements Closeable {
+
+		private int set;
+		private DataInputStream input;
+		// Maps the indices of the file vocabulary to vocabulary IDs of this process.
+		private int[] vocabularyIDs = new int[1024];
+		private int vocabularySize = 0;
+
+		private BlockReader(int set) throws IOException {
+			this.set = set;
+			input = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+			try {
+				skipFully(input, headerSize);
+			} catch (IOException e) {
+				input.close();
+				throw e;
+			}
+		}
+
+		/**
+		 * Reads the next TWEETS block of the set.
+		 *
+		 * @return Returns the Tweets of the block or null if there are no more blocks.
+		 * @throws IOException
+		 *             Throws exception if the file can not be read.
+		 */
+		public ArrayList<Tweet> readBlock() throws IOException {
+			while (true) {
+				int type = input.read();
+				if (type == -1) {
+					return null;
+				}
+				int blockSet = input.readByte();
+				int length = input.readInt();
+				if (type == VOCAB_BLOCK) {
+					int count = (int) readVarLong(input);
+					if (vocabularySize + count > vocabularyIDs.length) {
+						vocabularyIDs = Arrays.copyOf(vocabularyIDs, Math.max(vocabularySize + count, vocabularyIDs.length * 2));
+					}
+					for (int i = 0; i < count; i++) {
+						vocabularyIDs[vocabularySize++] = Vocabulary.getID(readString(input));
+					}
+				} else if (type == TWEETS_BLOCK && blockSet == set) {
+					int count = (int) readVarLong(input);
+					ArrayList<Tweet> tweets = new ArrayList<Tweet>(count);
+					for (int i = 0; i < count; i++) {
+						tweets.add(readTweet(input, vocabularyIDs));
+					}
+					return tweets;
+				} else {
+					skipFully(input, length);
+				}
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			input.close();
+		}
+	}
+}
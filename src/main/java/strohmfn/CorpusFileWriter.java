@@ -0,0 +1,355 @@
+package strohmfn;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Writes a corpus file (see CorpusFile) Tweet by Tweet. Only the current block is kept in memory, so corpora of any size can be written. The header is
+ * written when the writer is closed. A writer can also append Tweets to an existing corpus file; it continues the vocabulary and the emotion table of
+ * the file, so the existing Tweets are not touched.
+ *
+ * @author strohmfn
+ *
+ */
+public class CorpusFileWriter implements Closeable {
+
+	private File file;
+	private RandomAccessFile stream;
+	private DataOutputStream output;
+	// Length of the file before the writer was created, abort() truncates the file to this length. Is 0 for new files.
+	private long initialLength;
+
+	// Emotion strings of the header, Tweets store the index in this list.
+	private ArrayList<String> emotions = new ArrayList<String>();
+	private HashMap<String, Integer> emotionCodes = new HashMap<String, Integer>();
+	// Number of Tweets and Tweets per emotion code of the training and the test set.
+	private int[] tweetCounts = new int[2];
+	private int[][] emotionCounts = { new int[0], new int[0] };
+	// Settings the Tweets have been tokenized and annotated with and the fingerprints of the appended Tweets files, see CorpusFile.
+	private String annotation = "";
+	private ArrayList<Long> appendedFiles = new ArrayList<Long>();
+	// Maps vocabulary IDs of this process to the indices in the vocabulary of the file.
+	private HashMap<Integer, Integer> fileIDs = new HashMap<Integer, Integer>();
+
+	// The current block: its set, the number of Tweets, the encoded Tweets and the strings that are not in the file vocabulary yet.
+	private int blockSet = -1;
+	private int blockCount = 0;
+	private ByteArrayOutputStream block = new ByteArrayOutputStream();
+	private DataOutputStream blockOutput = new DataOutputStream(block);
+	private ArrayList<String> newStrings = new ArrayList<String>();
+
+	/**
+	 * Creates a new corpus file. An existing file is overwritten.
+	 *
+	 * @param file
+	 *            The to be written file.
+	 * @throws IOException
+	 *             Throws exception if the file can not be written.
+	 */
+	public CorpusFileWriter(File file) throws IOException {
+		this.file = file;
+		stream = new RandomAccessFile(file, "rw");
+		stream.setLength(0);
+		output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(stream.getChannel()), 1 << 16));
+		// reserve the header, it is written when all Tweets are known
+		output.write(new byte[CorpusFile.HEADER_SIZE]);
+	}
+
+	/**
+	 * Opens the writer for an existing file.
+	 */
+	private CorpusFileWriter(File file, long initialLength) throws IOException {
+		this.file = file;
+		this.initialLength = initialLength;
+		stream = new RandomAccessFile(file, "rw");
+		stream.seek(initialLength);
+		output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(stream.getChannel()), 1 << 16));
+	}
+
+	/**
+	 * Opens an existing corpus file to append Tweets. The header and the vocabulary of the file are read, the Tweets of the file are skipped. The header
+	 * is updated when the writer is closed; until then, readers of the file see the previous header.
+	 *
+	 * @param file
+	 *            The corpus file.
+	 * @return Returns a writer that adds the Tweets at the end of the file.
+	 * @throws IOException
+	 *             Throws exception if the file can not be read or is not a corpus file of a supported version.
+	 */
+	public static CorpusFileWriter append(File file) throws IOException {
+		CorpusFile corpusFile = new CorpusFile(file);
+		int[] vocabularyIDs = corpusFile.readVocabularyIDs();
+		CorpusFileWriter writer = new CorpusFileWriter(file, file.length());
+		List<String> emotions = corpusFile.getEmotions();
+		for (int i = 0; i < emotions.size(); i++) {
+			writer.getEmotionCode(emotions.get(i));
+		}
+		for (int set = 0; set < 2; set++) {
+			writer.tweetCounts[set] = corpusFile.getTweetCount(set);
+			writer.emotionCounts[set] = corpusFile.getEmotionCodeCounts(set).clone();
+		}
+		writer.annotation = corpusFile.getAnnotation();
+		for (long appendedFile : corpusFile.getAppendedFiles()) {
+			writer.appendedFiles.add(appendedFile);
+		}
+		// new Tweets refer to the strings that are already in the file
+		for (int i = 0; i < vocabularyIDs.length; i++) {
+			writer.fileIDs.put(vocabularyIDs[i], i);
+		}
+		return writer;
+	}
+
+	/**
+	 * Sets the description of the settings the Tweets have been tokenized and annotated with, see CorpusFile.getAnnotation().
+	 *
+	 * @param annotation
+	 *            The description of the settings.
+	 */
+	public void setAnnotation(String annotation) {
+		this.annotation = annotation;
+	}
+
+	/**
+	 * Records that a Tweets file has been appended, see CorpusFile.getAppendedFiles().
+	 *
+	 * @param fingerprint
+	 *            The fingerprint of the Tweets file.
+	 */
+	public void addAppendedFile(long fingerprint) {
+		appendedFiles.add(fingerprint);
+	}
+
+	/**
+	 * Adds Tweets to the training or the test set.
+	 *
+	 * @param set
+	 *            CorpusFile.TRAINING_SET or CorpusFile.TEST_SET.
+	 * @param tweets
+	 *            The to be added Tweets.
+	 * @throws IOException
+	 *             Throws exception if the file can not be written.
+	 */
+	public void addTweets(int set, Iterable<Tweet> tweets) throws IOException {
+		for (Tweet tweet : tweets) {
+			addTweet(set, tweet);
+		}
+	}
+
+	/**
+	 * Adds a Tweet to the training or the test set.
+	 *
+	 * @param set
+	 *            CorpusFile.TRAINING_SET or CorpusFile.TEST_SET.
+	 * @param tweet
+	 *            The to be added Tweet.
+	 * @throws IOException
+	 *             Throws exception if the file can not be written.
+	 */
+	public void addTweet(int set, Tweet tweet) throws IOException {
+		if (blockSet != set || blockCount == CorpusFile.TWEETS_PER_BLOCK) {
+			flushBlock();
+			blockSet = set;
+		}
+		int goldCode = getEmotionCode(tweet.getGoldEmotion());
+		if (goldCode >= emotionCounts[set].length) {
+			emotionCounts[set] = Arrays.copyOf(emotionCounts[set], goldCode + 1);
+		}
+		emotionCounts[set][goldCode] += tweet.getMultiplicity();
+		tweetCounts[set]++;
+		int predictedCode = tweet.getPredictedEmotion() == null ? -1 : getEmotionCode(tweet.getPredictedEmotion());
+		writeTweet(tweet, goldCode, predictedCode);
+		blockCount++;
+	}
+
+	/**
+	 * Writes the last block and the header and closes the file.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			flushBlock();
+			output.flush();
+			// write the header at the start of the file
+			ByteArrayOutputStream header = new ByteArrayOutputStream();
+			DataOutputStream headerOutput = new DataOutputStream(header);
+			headerOutput.writeInt(CorpusFile.MAGIC);
+			headerOutput.writeInt(CorpusFile.VERSION);
+			headerOutput.writeInt(CorpusFile.HEADER_SIZE);
+			headerOutput.writeInt(emotions.size());
+			for (int i = 0; i < emotions.size(); i++) {
+				headerOutput.writeUTF(emotions.get(i));
+			}
+			for (int set = 0; set < 2; set++) {
+				headerOutput.writeInt(tweetCounts[set]);
+				for (int i = 0; i < emotions.size(); i++) {
+					headerOutput.writeInt(i < emotionCounts[set].length ? emotionCounts[set][i] : 0);
+				}
+			}
+			headerOutput.writeUTF(annotation);
+			headerOutput.writeInt(appendedFiles.size());
+			for (long appendedFile : appendedFiles) {
+				headerOutput.writeLong(appendedFile);
+			}
+			headerOutput.flush();
+			if (header.size() > CorpusFile.HEADER_SIZE) {
+				throw new IOException("Too many different emotions or appended Tweets files for the corpus file header.");
+			}
+			stream.getChannel().write(ByteBuffer.wrap(header.toByteArray()), 0);
+		} finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * Discards everything written by this writer and closes the file. A new file is deleted, an existing file is truncated to its previous length, so it
+	 * contains exactly the Tweets it contained before.
+	 *
+	 * @throws IOException
+	 *             Throws exception if the file can not be truncated.
+	 */
+	public void abort() throws IOException {
+		// the stream can already be closed if close() failed
+		stream.close();
+		if (initialLength == 0) {
+			file.delete();
+			return;
+		}
+		RandomAccessFile truncatedFile = new RandomAccessFile(file, "rw");
+		try {
+			truncatedFile.setLength(initialLength);
+		} finally {
+			truncatedFile.close();
+		}
+	}
+
+	/**
+	 * Writes the current block. The new strings are written in a VOCAB block in front of it, because they have to be known before the Tweets that use them
+	 * are read.
+	 */
+	private void flushBlock() throws IOException {
+		if (blockCount == 0) {
+			return;
+		}
+		if (!newStrings.isEmpty()) {
+			ByteArrayOutputStream vocabBlock = new ByteArrayOutputStream();
+			DataOutputStream vocabOutput = new DataOutputStream(vocabBlock);
+			CorpusFile.writeVarLong(vocabOutput, newStrings.size());
+			for (int i = 0; i < newStrings.size(); i++) {
+				CorpusFile.writeString(vocabOutput, newStrings.get(i));
+			}
+			vocabOutput.flush();
+			writeBlock(CorpusFile.VOCAB_BLOCK, blockSet, vocabBlock, -1);
+			newStrings.clear();
+		}
+		blockOutput.flush();
+		writeBlock(CorpusFile.TWEETS_BLOCK, blockSet, block, blockCount);
+		block.reset();
+		blockCount = 0;
+	}
+
+	/**
+	 * Writes a block: type, set, length of the content and the content. The content of a TWEETS block starts with the number of Tweets.
+	 */
+	private void writeBlock(byte type, int set, ByteArrayOutputStream content, int count) throws IOException {
+		ByteArrayOutputStream countBytes = new ByteArrayOutputStream();
+		if (count != -1) {
+			CorpusFile.writeVarLong(new DataOutputStream(countBytes), count);
+		}
+		output.writeByte(type);
+		output.writeByte(set);
+		output.writeInt(countBytes.size() + content.size());
+		countBytes.writeTo(output);
+		content.writeTo(output);
+	}
+
+	/**
+	 * Writes a single Tweet into the current block.
+	 */
+	private void writeTweet(Tweet tweet, int goldCode, int predictedCode) throws IOException {
+		long numericID = tweet.getNumericID();
+		int multiplicity = tweet.getMultiplicity();
+		blockOutput.writeByte((numericID >= 0 ? 0 : CorpusFile.NON_NUMERIC_ID) | (predictedCode == -1 ? 0 : CorpusFile.HAS_PREDICTED_EMOTION)
+				| (multiplicity == 1 ? 0 : CorpusFile.HAS_MULTIPLICITY));
+		if (numericID >= 0) {
+			CorpusFile.writeVarLong(blockOutput, numericID);
+		} else {
+			CorpusFile.writeString(blockOutput, tweet.getID());
+		}
+		blockOutput.writeByte(goldCode);
+		if (predictedCode != -1) {
+			blockOutput.writeByte(predictedCode);
+		}
+		if (multiplicity != 1) {
+			CorpusFile.writeVarLong(blockOutput, multiplicity);
+		}
+		CorpusFile.writeString(blockOutput, tweet.getOriginalText());
+		ArrayList<Token> tokenList = tweet.getTokenList();
+		CorpusFile.writeVarLong(blockOutput, tokenList.size());
+		// the modified tokens are written as indices within the Tweet
+		IdentityHashMap<Token, Integer> tokenIndices = null;
+		for (int i = 0; i < tokenList.size(); i++) {
+			Token token = tokenList.get(i);
+			CorpusFile.writeVarLong(blockOutput, getFileID(Vocabulary.getID(token.getTokenString())));
+			CorpusFile.writeVarLong(blockOutput, getFileID(token.getNormalizedTokenID()));
+			blockOutput.writeByte(token.getFlags());
+			List<Token> modifies = token.getModifies();
+			CorpusFile.writeVarLong(blockOutput, modifies.size());
+			if (!modifies.isEmpty() && tokenIndices == null) {
+				tokenIndices = new IdentityHashMap<Token, Integer>();
+				for (int j = 0; j < tokenList.size(); j++) {
+					tokenIndices.put(tokenList.get(j), j);
+				}
+			}
+			for (int j = 0; j < modifies.size(); j++) {
+				Integer index = tokenIndices.get(modifies.get(j));
+				if (index == null) {
+					throw new IllegalArgumentException("Tweet " + tweet.getID() + " contains a token that modifies a token of another Tweet.");
+				}
+				CorpusFile.writeVarLong(blockOutput, index);
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @return Returns the index of a vocabulary ID in the file vocabulary. New strings are added to the vocabulary of the file.
+	 */
+	private int getFileID(int id) {
+		Integer fileID = fileIDs.get(id);
+		if (fileID == null) {
+			fileID = fileIDs.size();
+			fileIDs.put(id, fileID);
+			newStrings.add(Vocabulary.getString(id));
+		}
+		return fileID;
+	}
+
+	/**
+	 *
+	 * @return Returns the index of an emotion in the emotion table. Unknown emotions are added.
+	 */
+	private int getEmotionCode(String emotion) {
+		Integer code = emotionCodes.get(emotion);
+		if (code == null) {
+			if (emotions.size() == Byte.MAX_VALUE) {
+				throw new IllegalArgumentException("Too many different emotions.");
+			}
+			code = emotions.size();
+			emotions.add(emotion);
+			emotionCodes.put(emotion, code);
+		}
+		return code;
+	}
+}
@@ -0,0 +1,254 @@
+package strohmfn;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Stores all settings that influence how a corpus is created from the data files.
+ *
+ * @author strohmfn
+ *
+ */
+public class CorpusSettings {
+
+	// Enable/Disable stemming of the normalized token strings.
+	private boolean stemming = false;
+	// Stemming of the normalized token strings (1 = each token while it is created; 2 = each distinct string once after the data file has been read).
+	private int stemmingMethod = 1;
+	// Number of threads used to tokenize the data files (1 = sequential).
+	private int threads = 1;
+	// Charset of the data files.
+	private Charset charset = StandardCharsets.UTF_8;
+	// Storage of the Tweets (1 = Tweet and Token objects; 2 = column store, see CorpusStore).
+	private int engine = 1;
+	// Directory of the corpus cache (null = no cache).
+	private File cacheDirectory = null;
+	// Tokenizer of the Tweet texts (1 = PTBTokenizer; 2 = fast Tweet tokenizer, see TweetTokenizer_Fast).
+	private int tokenizer = 1;
+	// Enable/Disable collapsing of Tweets with the same gold emotion and the same normalized text.
+	private boolean collapseDuplicates = false;
+	// Directory of the ingestion checkpoints (null = no checkpoints).
+	private File checkpointDirectory = null;
+	// Number of Tweets after which a checkpoint is saved.
+	private int checkpointInterval = 10000;
+	// Enable/Disable the inverted index from the normalized token strings to the Tweets (see TweetIndex).
+	private boolean indexed = false;
+
+	/**
+	 *
+	 * @return Returns a copy of these settings.
+	 */
+	public CorpusSettings copy() {
+		CorpusSettings copy = new CorpusSettings();
+		copy.stemming = stemming;
+		copy.stemmingMethod = stemmingMethod;
+		copy.threads = threads;
+		copy.charset = charset;
+		copy.engine = engine;
+		copy.cacheDirectory = cacheDirectory;
+		copy.tokenizer = tokenizer;
+		copy.collapseDuplicates = collapseDuplicates;
+		copy.checkpointDirectory = checkpointDirectory;
+		copy.checkpointInterval = checkpointInterval;
+		copy.indexed = indexed;
+		return copy;
+	}
+
+	/**
+	 *
+	 * @return Returns if the normalized token strings are stemmed.
+	 */
+	public boolean isStemming() {
+		return stemming;
+	}
+
+	/**
+	 *
+	 * @param stemming
+	 *            Enables/Disables stemming of the normalized token strings.
+	 */
+	public void setStemming(boolean stemming) {
+		this.stemming = stemming;
+	}
+
+	/**
+	 *
+	 * @return Returns when the normalized token strings are stemmed (1 = each token while it is created; 2 = each distinct string once after the data
+	 *         file has been read).
+	 */
+	public int getStemmingMethod() {
+		return stemmingMethod;
+	}
+
+	/**
+	 *
+	 * @param stemmingMethod
+	 *            When the normalized token strings are stemmed (1 = each token while it is created; 2 = each distinct string once after the data file has
+	 *            been read, in parallel). Both methods create the same tokens.
+	 */
+	public void setStemmingMethod(int stemmingMethod) {
+		this.stemmingMethod = stemmingMethod;
+	}
+
+	/**
+	 *
+	 * @return Returns the number of threads used to tokenize the data files.
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 *
+	 * @param threads
+	 *            Number of threads used to tokenize the data files (1 = sequential).
+	 */
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	/**
+	 *
+	 * @return Returns the charset of the data files.
+	 */
+	public Charset getCharset() {
+		return charset;
+	}
+
+	/**
+	 *
+	 * @param charset
+	 *            Charset of the data files. Has to be ASCII compatible, because the columns are scanned in the raw bytes of the data files.
+	 * @throws IllegalArgumentException
+	 *             Throws exception if the charset is not ASCII compatible.
+	 */
+	public void setCharset(Charset charset) {
+		if (!TweetFieldScanner.isSupported(charset)) {
+			throw new IllegalArgumentException("Charset " + charset.name() + " is not ASCII compatible.");
+		}
+		this.charset = charset;
+	}
+
+	/**
+	 *
+	 * @return Returns the storage of the Tweets (1 = Tweet and Token objects; 2 = column store).
+	 */
+	public int getEngine() {
+		return engine;
+	}
+
+	/**
+	 *
+	 * @param engine
+	 *            Storage of the Tweets (1 = Tweet and Token objects; 2 = column store).
+	 */
+	public void setEngine(int engine) {
+		this.engine = engine;
+	}
+
+	/**
+	 *
+	 * @return Returns the directory of the corpus cache or null if no cache is used.
+	 */
+	public File getCacheDirectory() {
+		return cacheDirectory;
+	}
+
+	/**
+	 *
+	 * @param cacheDirectory
+	 *            Directory of the corpus cache (null = no cache). Tokenized data files are stored there and reused if the same file is tokenized again
+	 *            with the same settings.
+	 */
+	public void setCacheDirectory(File cacheDirectory) {
+		this.cacheDirectory = cacheDirectory;
+	}
+
+	/**
+	 *
+	 * @return Returns if Tweets with the same gold emotion and the same normalized text are collapsed into one Tweet.
+	 */
+	public boolean isCollapseDuplicates() {
+		return collapseDuplicates;
+	}
+
+	/**
+	 *
+	 * @param collapseDuplicates
+	 *            Enables/Disables collapsing of Tweets with the same gold emotion and the same normalized text. The remaining Tweet stores the number of
+	 *            collapsed Tweets as its multiplicity.
+	 */
+	public void setCollapseDuplicates(boolean collapseDuplicates) {
+		this.collapseDuplicates = collapseDuplicates;
+	}
+
+	/**
+	 *
+	 * @return Returns the tokenizer of the Tweet texts (1 = PTBTokenizer; 2 = fast Tweet tokenizer).
+	 */
+	public int getTokenizer() {
+		return tokenizer;
+	}
+
+	/**
+	 *
+	 * @param tokenizer
+	 *            Tokenizer of the Tweet texts (1 = PTBTokenizer; 2 = fast Tweet tokenizer).
+	 */
+	public void setTokenizer(int tokenizer) {
+		this.tokenizer = tokenizer;
+	}
+
+	/**
+	 *
+	 * @return Returns the directory of the ingestion checkpoints or null if no checkpoints are saved.
+	 */
+	public File getCheckpointDirectory() {
+		return checkpointDirectory;
+	}
+
+	/**
+	 *
+	 * @param checkpointDirectory
+	 *            Directory of the ingestion checkpoints (null = no checkpoints). The Tweets created so far are saved there periodically, an interrupted
+	 *            ingestion of the same data file with the same settings is resumed at the last checkpoint.
+	 */
+	public void setCheckpointDirectory(File checkpointDirectory) {
+		this.checkpointDirectory = checkpointDirectory;
+	}
+
+	/**
+	 *
+	 * @return Returns the number of Tweets after which a checkpoint is saved.
+	 */
+	public int getCheckpointInterval() {
+		return checkpointInterval;
+	}
+
+	/**
+	 *
+	 * @param checkpointInterval
+	 *            Number of Tweets after which a checkpoint is saved.
+	 */
+	public void setCheckpointInterval(int checkpointInterval) {
+		this.checkpointInterval = checkpointInterval;
+	}
+
+	/**
+	 *
+	 * @return Returns if an inverted index of the training and test set is built.
+	 */
+	public boolean isIndexed() {
+		return indexed;
+	}
+
+	/**
+	 *
+	 * @param indexed
+	 *            Enables/Disables the inverted index from the normalized token strings to the Tweets of the training and test set.
+	 */
+	public void setIndexed(boolean indexed) {
+		this.indexed = indexed;
+	}
+}
@@ -0,0 +1,532 @@
+package strohmfn;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Stores the Tweets of a corpus column by column instead of as a graph of Tweet and Token objects. Every token only needs a few array entries: the
+ * vocabulary IDs of its original and normalized string, a byte with its modifier flags and the indices of its first and last modifier link. The links
+ * between a modifier and the tokens it modifies are stored as int index pairs. The links of a token whose links are cleared are reused by later links, so
+ * annotating the Tweets again does not let the link columns grow.
+ *
+ * The existing classes can work on a store through getTweets(), which returns lightweight Tweet and Token views that read from and write to the store.
+ * The store is not thread safe.
+ *
+ * @author strohmfn
+ *
+ */
+public class CorpusStore implements java.io.Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int INITIAL_TWEET_CAPACITY = 1024;
+	private static final int INITIAL_TOKEN_CAPACITY = 16 * 1024;
+
+	// Emotion strings, the emotion columns store the index in this list (-1 = no emotion).
+	private ArrayList<String> emotions = new ArrayList<String>();
+
+	// Tweet columns.
+	private int tweetCount = 0;
+	// Numeric IDs of the Tweets (-1 = the ID is not numeric, see Tweet.getNumericID()). Other IDs are kept by the index of their Tweet.
+	private long[] tweetIDs = new long[INITIAL_TWEET_CAPACITY];
+	private HashMap<Integer, String> nonNumericIDs = null;
+	private String[] originalTexts = new String[INITIAL_TWEET_CAPACITY];
+	private byte[] goldEmotions = new byte[INITIAL_TWEET_CAPACITY];
+	private byte[] predictedEmotions = new byte[INITIAL_TWEET_CAPACITY];
+	// Index of the first token and number of tokens of each Tweet.
+	private int[] tokenOffsets = new int[INITIAL_TWEET_CAPACITY];
+	private int[] tokenCounts = new int[INITIAL_TWEET_CAPACITY];
+	// Number of collapsed duplicates of each Tweet (multiplicity - 1). Is only created when the first Tweet with duplicates is added.
+	private int[] duplicateCounts = null;
+
+	// Token columns. The vocabulary IDs are only valid within the running process, so they are serialized as strings.
+	private int tokenCount = 0;
+	private transient int[] tokenStringIDs = new int[INITIAL_TOKEN_CAPACITY];
+	private transient int[] normalizedTokenIDs = new int[INITIAL_TOKEN_CAPACITY];
+	private byte[] flags = new byte[INITIAL_TOKEN_CAPACITY];
+	// Index of the first and the last link of each token (-1 = the token does not modify any token).
+	private int[] firstLinks = new int[INITIAL_TOKEN_CAPACITY];
+	private int[] lastLinks = new int[INITIAL_TOKEN_CAPACITY];
+
+	// Link columns. The links of a token form a chain in the order in which they were added.
+	private int linkCount = 0;
+	private int[] linkTargets = new int[INITIAL_TWEET_CAPACITY];
+	private int[] nextLinks = new int[INITIAL_TWEET_CAPACITY];
+	// First link of the chain of cleared links that can be reused (-1 = no cleared links).
+	private int freeLink = -1;
+
+	/**
+	 * Copies a Tweet including the flags and links of its tokens into the store.
+	 *
+	 * @param tweet
+	 *            The to be added Tweet.
+	 * @return Returns the index of the Tweet in the store.
+	 */
+	public int addTweet(Tweet tweet) {
+		ArrayList<Token> tokenList = tweet.getTokenList();
+		// append the Tweet columns
+		if (tweetCount == tweetIDs.length) {
+			int capacity = Math.max(INITIAL_TWEET_CAPACITY, tweetIDs.length * 2);
+			tweetIDs = Arrays.copyOf(tweetIDs, capacity);
+			originalTexts = Arrays.copyOf(originalTexts, capacity);
+			goldEmotions = Arrays.copyOf(goldEmotions, capacity);
+			predictedEmotions = Arrays.copyOf(predictedEmotions, capacity);
+			tokenOffsets = Arrays.copyOf(tokenOffsets, capacity);
+			tokenCounts = Arrays.copyOf(tokenCounts, capacity);
+			if (duplicateCounts != null) {
+				duplicateCounts = Arrays.copyOf(duplicateCounts, capacity);
+			}
+		}
+		int tweetIndex = tweetCount;
+		tweetIDs[tweetIndex] = tweet.getNumericID();
+		if (tweetIDs[tweetIndex] < 0) {
+			if (nonNumericIDs == null) {
+				nonNumericIDs = new HashMap<Integer, String>();
+			}
+			nonNumericIDs.put(tweetIndex, tweet.getID());
+		}
+		originalTexts[tweetIndex] = tweet.getOriginalText();
+		goldEmotions[tweetIndex] = getEmotionCode(tweet.getGoldEmotion());
+		predictedEmotions[tweetIndex] = getEmotionCode(tweet.getPredictedEmotion());
+		tokenOffsets[tweetIndex] = tokenCount;
+		tokenCounts[tweetIndex] = tokenList.size();
+		tweetCount++;
+		setMultiplicity(tweetIndex, tweet.getMultiplicity());
+		// append the token columns
+		ensureTokenCapacity(tokenCount + tokenList.size());
+		IdentityHashMap<Token, Integer> tokenIndices = null;
+		for (int i = 0; i < tokenList.size(); i++) {
+			Token token = tokenList.get(i);
+			int tokenIndex = tokenCount++;
+			tokenStringIDs[tokenIndex] = Vocabulary.getID(token.getTokenString());
+			normalizedTokenIDs[tokenIndex] = token.getNormalizedTokenID();
+			flags[tokenIndex] = token.getFlags();
+			firstLinks[tokenIndex] = -1;
+			lastLinks[tokenIndex] = -1;
+			if (tokenIndices == null && !token.getModifies().isEmpty()) {
+				tokenIndices = new IdentityHashMap<Token, Integer>();
+			}
+		}
+		// append the links, only annotated Tweets contain links
+		if (tokenIndices != null) {
+			for (int i = 0; i < tokenList.size(); i++) {
+				tokenIndices.put(tokenList.get(i), tokenOffsets[tweetIndex] + i);
+			}
+			for (int i = 0; i < tokenList.size(); i++) {
+				List<Token> modifies = tokenList.get(i).getModifies();
+				for (int j = 0; j < modifies.size(); j++) {
+					Integer target = tokenIndices.get(modifies.get(j));
+					if (target == null) {
+						throw new IllegalArgumentException("Tweet " + tweet.getID() + " contains a token that modifies a token of another Tweet.");
+					}
+					addLink(tokenOffsets[tweetIndex] + i, target);
+				}
+			}
+		}
+		return tweetIndex;
+	}
+
+	/**
+	 * Reduces the capacity of all columns to the current number of Tweets, tokens and links.
+	 */
+	public void trimToSize() {
+		tweetIDs = Arrays.copyOf(tweetIDs, tweetCount);
+		originalTexts = Arrays.copyOf(originalTexts, tweetCount);
+		goldEmotions = Arrays.copyOf(goldEmotions, tweetCount);
+		predictedEmotions = Arrays.copyOf(predictedEmotions, tweetCount);
+		tokenOffsets = Arrays.copyOf(tokenOffsets, tweetCount);
+		tokenCounts = Arrays.copyOf(tokenCounts, tweetCount);
+		if (duplicateCounts != null) {
+			duplicateCounts = Arrays.copyOf(duplicateCounts, tweetCount);
+		}
+		tokenStringIDs = Arrays.copyOf(tokenStringIDs, tokenCount);
+		normalizedTokenIDs = Arrays.copyOf(normalizedTokenIDs, tokenCount);
+		flags = Arrays.copyOf(flags, tokenCount);
+		firstLinks = Arrays.copyOf(firstLinks, tokenCount);
+		lastLinks = Arrays.copyOf(lastLinks, tokenCount);
+		linkTargets = Arrays.copyOf(linkTargets, linkCount);
+		nextLinks = Arrays.copyOf(nextLinks, linkCount);
+	}
+
+	/**
+	 *
+	 * @return Returns a list view of all Tweets in the store. Adding a Tweet to the list copies it into the store.
+	 */
+	public List<Tweet> getTweets() {
+		return new TweetList(this);
+	}
+
+	/**
+	 *
+	 * @return Returns the number of Tweets in the store.
+	 */
+	public int getTweetCount() {
+		return tweetCount;
+	}
+
+	/**
+	 *
+	 * @return Returns the number of tokens in the store.
+	 */
+	public int getTokenCount() {
+		return tokenCount;
+	}
+
+	/**
+	 *
+	 * @return Returns the ID of a Tweet. A numeric ID is converted to a string.
+	 */
+	public String getTweetID(int tweet) {
+		if (tweetIDs[tweet] < 0) {
+			return nonNumericIDs.get(tweet);
+		}
+		return Long.toString(tweetIDs[tweet]);
+	}
+
+	/**
+	 *
+	 * @return Returns the ID of a Tweet as a long or -1 if the ID is not numeric.
+	 */
+	public long getNumericTweetID(int tweet) {
+		return tweetIDs[tweet];
+	}
+
+	/**
+	 *
+	 * @return Returns the original text of a Tweet.
+	 */
+	public String getOriginalText(int tweet) {
+		return originalTexts[tweet];
+	}
+
+	/**
+	 *
+	 * @return Returns the gold emotion of a Tweet.
+	 */
+	public String getGoldEmotion(int tweet) {
+		return getEmotion(goldEmotions[tweet]);
+	}
+
+	/**
+	 *
+	 * @return Returns the predicted emotion of a Tweet or null if the Tweet has not been classified yet.
+	 */
+	public String getPredictedEmotion(int tweet) {
+		return getEmotion(predictedEmotions[tweet]);
+	}
+
+	/**
+	 * Sets the predicted emotion of a Tweet.
+	 */
+	public void setPredictedEmotion(int tweet, String predictedEmotion) {
+		predictedEmotions[tweet] = getEmotionCode(predictedEmotion);
+	}
+
+	/**
+	 *
+	 * @return Returns the number of Tweets in the data file that are represented by a Tweet.
+	 */
+	public int getMultiplicity(int tweet) {
+		return duplicateCounts == null ? 1 : duplicateCounts[tweet] + 1;
+	}
+
+	/**
+	 * Sets the number of Tweets in the data file that are represented by a Tweet.
+	 */
+	public void setMultiplicity(int tweet, int multiplicity) {
+		if (duplicateCounts == null) {
+			if (multiplicity == 1) {
+				return;
+			}
+			duplicateCounts = new int[tweetIDs.length];
+		}
+		duplicateCounts[tweet] = multiplicity - 1;
+	}
+
+	/**
+	 *
+	 * @return Returns the index of the first token of a Tweet.
+	 */
+	public int getTokenOffset(int tweet) {
+		return tokenOffsets[tweet];
+	}
+
+	/**
+	 *
+	 * @return Returns the number of tokens of a Tweet.
+	 */
+	public int getTokenCount(int tweet) {
+		return tokenCounts[tweet];
+	}
+
+	/**
+	 *
+	 * @return Returns the vocabulary ID of the original string of a token.
+	 */
+	public int getTokenStringID(int token) {
+		return tokenStringIDs[token];
+	}
+
+	/**
+	 *
+	 * @return Returns the vocabulary ID of the normalized string of a token.
+	 */
+	public int getNormalizedTokenID(int token) {
+		return normalizedTokenIDs[token];
+	}
+
+	/**
+	 * Sets the vocabulary ID of the normalized string of a token.
+	 */
+	public void setNormalizedTokenID(int token, int normalizedTokenID) {
+		normalizedTokenIDs[token] = normalizedTokenID;
+	}
+
+	/**
+	 *
+	 * @param flag
+	 *            One of the flag constants of the Token class.
+	 * @return Returns if the flag of a token is set.
+	 */
+	public boolean getFlag(int token, byte flag) {
+		return (flags[token] & flag) != 0;
+	}
+
+	/**
+	 * Sets or clears a flag of a token.
+	 *
+	 * @param flag
+	 *            One of the flag constants of the Token class.
+	 */
+	public void setFlag(int token, byte flag, boolean value) {
+		if (value) {
+			flags[token] |= flag;
+		} else {
+			flags[token] &= ~flag;
+		}
+	}
+
+	/**
+	 *
+	 * @return Returns all flags of a token packed into one byte.
+	 */
+	public byte getFlags(int token) {
+		return flags[token];
+	}
+
+	/**
+	 * Sets all flags of a token at once.
+	 */
+	public void setFlags(int token, byte flags) {
+		this.flags[token] = flags;
+	}
+
+	/**
+	 * Adds a link from a modifier token to a token it modifies. The link is appended to the end of the links of the modifier. A cleared link is reused if
+	 * there is one.
+	 *
+	 * @param source
+	 *            Index of the modifier token.
+	 * @param target
+	 *            Index of the modified token.
+	 */
+	public void addLink(int source, int target) {
+		int link;
+		if (freeLink != -1) {
+			link = freeLink;
+			freeLink = nextLinks[link];
+		} else {
+			if (linkCount == linkTargets.length) {
+				linkTargets = Arrays.copyOf(linkTargets, Math.max(16, linkTargets.length * 2));
+				nextLinks = Arrays.copyOf(nextLinks, linkTargets.length);
+			}
+			link = linkCount++;
+		}
+		linkTargets[link] = target;
+		nextLinks[link] = -1;
+		// append the link to the chain of the source token
+		if (firstLinks[source] == -1) {
+			firstLinks[source] = link;
+		} else {
+			nextLinks[lastLinks[source]] = link;
+		}
+		lastLinks[source] = link;
+	}
+
+	/**
+	 * Removes all links of a modifier token. Its chain of links is added to the cleared links, which are reused by addLink().
+	 *
+	 * @param source
+	 *            Index of the modifier token.
+	 */
+	public void clearLinks(int source) {
+		if (firstLinks[source] == -1) {
+			return;
+		}
+		nextLinks[lastLinks[source]] = freeLink;
+		freeLink = firstLinks[source];
+		firstLinks[source] = -1;
+		lastLinks[source] = -1;
+	}
+
+	/**
+	 *
+	 * @return Returns the index of the first link of a token or -1 if the token does not modify any token.
+	 */
+	public int getFirstLink(int token) {
+		return firstLinks[token];
+	}
+
+	/**
+	 *
+	 * @return Returns the index of the next link of the same modifier or -1 if it is the last link.
+	 */
+	public int getNextLink(int link) {
+		return nextLinks[link];
+	}
+
+	/**
+	 *
+	 * @return Returns the index of the token that is modified by a link.
+	 */
+	public int getLinkTarget(int link) {
+		return linkTargets[link];
+	}
+
+	/**
+	 *
+	 * @return Returns the code of an emotion string. Unknown emotions are added to the emotion list.
+	 */
+	private byte getEmotionCode(String emotion) {
+		if (emotion == null) {
+			return -1;
+		}
+		int code = emotions.indexOf(emotion);
+		if (code == -1) {
+			if (emotions.size() == Byte.MAX_VALUE) {
+				throw new IllegalArgumentException("Too many different emotions.");
+			}
+			code = emotions.size();
+			emotions.add(emotion);
+		}
+		return (byte) code;
+	}
+
+	/**
+	 *
+	 * @return Returns the emotion string of a code.
+	 */
+	private String getEmotion(byte code) {
+		return code == -1 ? null : emotions.get(code);
+	}
+
+	/**
+	 * Makes sure the token columns can store the given number of tokens.
+	 */
+	private void ensureTokenCapacity(int capacity) {
+		if (capacity > flags.length) {
+			capacity = Math.max(capacity, flags.length * 2);
+			tokenStringIDs = Arrays.copyOf(tokenStringIDs, capacity);
+			normalizedTokenIDs = Arrays.copyOf(normalizedTokenIDs, capacity);
+			flags = Arrays.copyOf(flags, capacity);
+			firstLinks = Arrays.copyOf(firstLinks, capacity);
+			lastLinks = Arrays.copyOf(lastLinks, capacity);
+		}
+	}
+
+	/**
+	 * Writes the store. The vocabulary IDs are replaced by indices into a table of the used strings.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		HashMap<Integer, Integer> localIDs = new HashMap<Integer, Integer>();
+		ArrayList<String> strings = new ArrayList<String>();
+		int[] localTokenStringIDs = new int[tokenCount];
+		int[] localNormalizedTokenIDs = new int[tokenCount];
+		for (int i = 0; i < tokenCount; i++) {
+			localTokenStringIDs[i] = getLocalID(tokenStringIDs[i], localIDs, strings);
+			localNormalizedTokenIDs[i] = getLocalID(normalizedTokenIDs[i], localIDs, strings);
+		}
+		out.writeObject(strings.toArray(new String[strings.size()]));
+		out.writeObject(localTokenStringIDs);
+		out.writeObject(localNormalizedTokenIDs);
+	}
+
+	/**
+	 * Reads the store and maps the strings back to vocabulary IDs.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		String[] strings = (String[]) in.readObject();
+		int[] globalIDs = new int[strings.length];
+		for (int i = 0; i < strings.length; i++) {
+			globalIDs[i] = Vocabulary.getID(strings[i]);
+		}
+		tokenStringIDs = (int[]) in.readObject();
+		normalizedTokenIDs = (int[]) in.readObject();
+		for (int i = 0; i < tokenCount; i++) {
+			tokenStringIDs[i] = globalIDs[tokenStringIDs[i]];
+			normalizedTokenIDs[i] = globalIDs[normalizedTokenIDs[i]];
+		}
+		// the ID columns are read without spare capacity, the other token columns need the same size
+		flags = Arrays.copyOf(flags, tokenCount);
+		firstLinks = Arrays.copyOf(firstLinks, tokenCount);
+		lastLinks = Arrays.copyOf(lastLinks, tokenCount);
+	}
+
+	/**
+	 *
+	 * @return Returns the index of a vocabulary ID in the string table. Adds the string to the table if necessary.
+	 */
+	private int getLocalID(int id, HashMap<Integer, Integer> localIDs, ArrayList<String> strings) {
+		Integer localID = localIDs.get(id);
+		if (localID == null) {
+			localID = strings.size();
+			strings.add(Vocabulary.getString(id));
+			localIDs.put(id, localID);
+		}
+		return localID;
+	}
+
+	/**
+	 * List view of the Tweets in a store. Every call of get() creates a new view of the Tweet.
+	 */
+	private static class TweetList extends AbstractList<Tweet> implements RandomAccess, java.io.Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private CorpusStore store;
+
+		private TweetList(CorpusStore store) {
+			this.store = store;
+		}
+
+		@Override
+		public Tweet get(int index) {
+			if (index < 0 || index >= store.tweetCount) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + store.tweetCount);
+			}
+			return new StoredTweet(store, index);
+		}
+
+		@Override
+		public int size() {
+			return store.tweetCount;
+		}
+
+		@Override
+		public boolean add(Tweet tweet) {
+			store.addTweet(tweet);
+			modCount++;
+			return true;
+		}
+	}
+}
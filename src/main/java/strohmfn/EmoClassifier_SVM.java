@@ -1,13 +1,13 @@
 package strohmfn;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 
 import de.bwaldvogel.liblinear.Feature;
 import de.bwaldvogel.liblinear.FeatureNode;
@@ -27,9 +27,11 @@ public class EmoClassifier_SVM {
 	// stores all feature string + number pairs
 	private HashMap<String, Integer> featureMap = new HashMap<String, Integer>();
 	// stores all words in the stop word list file
-	private ArrayList<String> stopWordList = new ArrayList<String>();
+	private Lexicon stopWordList;
 
 	private Corpus corpus;
+	// model trained by prepare()
+	private Model model;
 	private int featureCount = 0;
 	private File stopWords;
 
@@ -55,7 +57,7 @@ public class EmoClassifier_SVM {
 	 */
 	public double startClassification() throws IOException {
 		// Start SVM training
-		Model model = trainSVM();
+		prepare();
 		// create Tweet iterator
 		Iterator<Tweet> iter = corpus.getTestSet().iterator();
 		// needed to show percentage done
@@ -66,12 +68,7 @@ public class EmoClassifier_SVM {
 		System.out.print("Emotion classification: ");
 		while (iter.hasNext()) {
 			Tweet tweet = iter.next();
-			// Creates a feature array for the token list of the current Tweet
-			Feature[] instance = createFeatureNodes(tweet.getTokenList());
-			// uses the trained model and ne feature array to predict the class if the current Tweet
-			double prediction = Linear.predict(model, instance);
-			// sets predicted emotion of the Tweet
-			setPredictedEmotion(prediction, tweet);
+			classifyTweet(tweet);
 			// calculates the percentage done and prints it to console
 			numberOfTweetsFinished++;
 			if ((int) (((double) numberOfTweetsFinished / (double) numberOfTweets) * 100) >= percentageDone+10) {
@@ -82,15 +79,54 @@ public class EmoClassifier_SVM {
 		System.out.println("DONE!");
 		return C;
 	}
+
+	/**
+	 * Trains the SVM model on the training set. Has to be called before classify().
+	 * 
+	 * @throws IOException
+	 *             Throws exception if stopword list can not be read
+	 */
+	public void prepare() throws IOException {
+		model = trainSVM();
+	}
+
+	/**
+	 * Classifies Tweets that are not part of the corpus, e.g. Tweets that have been ingested after the training, with the trained model.
+	 * 
+	 * @param tweets
+	 *            The to be classified Tweets.
+	 */
+	public void classify(Collection<Tweet> tweets) {
+		for (Tweet tweet : tweets) {
+			classifyTweet(tweet);
+		}
+	}
+
+	/**
+	 * Predicts the emotion of a Tweet with the trained model.
+	 * 
+	 * @param tweet
+	 *            The to be classified Tweet.
+	 */
+	private void classifyTweet(Tweet tweet) {
+		// Creates a feature array for the token list of the current Tweet, features that do not occur in the training set are ignored by the model
+		Feature[] instance = createFeatureNodes(tweet.getTokenList(), false);
+		// uses the trained model and ne feature array to predict the class if the current Tweet
+		double prediction = Linear.predict(model, instance);
+		// sets predicted emotion of the Tweet
+		setPredictedEmotion(prediction, tweet);
+	}
 	
 	/**
 	 * Creates feature nodes for the corresponding token list
 	 * 
 	 * @param tokenList
 	 *            Token list of which the feature nodes are supposed to be created
+	 * @param addFeatures
+	 *            If true, new features are added to the feature map. Otherwise features that are not in the feature map are left out.
 	 * @return Returns feature nodes array for corresponding token list
 	 */
-	private FeatureNode[] createFeatureNodes(ArrayList<Token> tokenList) {
+	private FeatureNode[] createFeatureNodes(ArrayList<Token> tokenList, boolean addFeatures) {
 		int featureCount = 0;
 		String tokenString;
 		String unigram = "";
@@ -101,7 +137,7 @@ public class EmoClassifier_SVM {
 		// iterate over token list
 		for (int i = 0; i < tokenList.size(); i++) {
 			// if token string is not a stopword and does not start with # (ignores hashtagged words)
-			if (!stopWordList.contains(tokenList.get(i).getNormalizedTokenString()) && !tokenList.get(i).getNormalizedTokenString().startsWith("#")) {
+			if (!stopWordList.contains(tokenList.get(i)) && !tokenList.get(i).getNormalizedTokenString().startsWith("#")) {
 				tokenString = tokenList.get(i).getNormalizedTokenString();
 				trigram = bigram + tokenString;
 				bigram = unigram + tokenString;
@@ -122,12 +158,17 @@ public class EmoClassifier_SVM {
 
 		FeatureNode[] featureNodes = new FeatureNode[featureCount];
 		// iterate over feature strings
+		int nodeCount = 0;
 		for (int i = 0; i < features.size(); i++) {
 			// create a feature node for each feature string
-			featureNodes[i] = new FeatureNode(getFeatureNo(features.get(i)), 1);
+			if (addFeatures) {
+				featureNodes[nodeCount++] = new FeatureNode(getFeatureNo(features.get(i)), 1);
+			} else if (featureMap.containsKey(features.get(i))) {
+				featureNodes[nodeCount++] = new FeatureNode(featureMap.get(features.get(i)), 1);
+			}
 		}
 		// return feture nodes
-		return featureNodes;
+		return nodeCount == featureCount ? featureNodes : Arrays.copyOf(featureNodes, nodeCount);
 	}
 	
 	/**
@@ -244,11 +285,13 @@ public class EmoClassifier_SVM {
 		loadStopWords();
 		// creates a new problem
 		Problem problem = new Problem();
+		// collapsed duplicates get one training example per occurrence, so the model is the same as without collapsing
+		int numberOfExamples = countTrainingExamples();
 		// creates a feature node array of the size of the training data
-		FeatureNode[][] x = new FeatureNode[corpus.getTrainingSet().size()][];
+		FeatureNode[][] x = new FeatureNode[numberOfExamples][];
 		// creates a new array of the size of the training data
 		// this array stores the classes of the feature nodes
-		double[] y = new double[corpus.getTrainingSet().size()];
+		double[] y = new double[numberOfExamples];
 
 		// create iterator for the training set
 		Iterator<Tweet> iter = corpus.getTrainingSet().iterator();
@@ -265,10 +308,15 @@ public class EmoClassifier_SVM {
 			// retrieve next Tweet
 			Tweet tweet = iter.next();
 			// create feature nodes for current Tweet
-			x[counter] = sortFeatureNodes(createFeatureNodes(tweet.getTokenList()));
+			FeatureNode[] featureNodes = sortFeatureNodes(createFeatureNodes(tweet.getTokenList(), true));
 			// store class of current Tweet as integer
-			y[counter] = calculateY(tweet);
-			counter++;
+			double tweetClass = calculateY(tweet);
+			// the duplicates share the feature nodes
+			for (int i = 0; i < tweet.getMultiplicity(); i++) {
+				x[counter] = featureNodes;
+				y[counter] = tweetClass;
+				counter++;
+			}
 			// calculates the percentage done and prints it to console
 			numberOfTweetsFinished++;
 			if ((int) (((double) numberOfTweetsFinished / (double) numberOfTweets) * 100) >= percentageDone+10) {
@@ -279,7 +327,7 @@ public class EmoClassifier_SVM {
 		System.out.println("DONE!");
 
 		// number of training examples
-		problem.l = corpus.getTrainingSet().size();
+		problem.l = numberOfExamples;
 		// feature nodes
 		problem.x = x;
 		// classes of feature nodes
@@ -330,6 +378,36 @@ public class EmoClassifier_SVM {
 		return -1.0;
 	}
 
+	/**
+	 * 
+	 * @return Returns the number of training examples. Collapsed duplicates count as often as they occurred in the data file.
+	 */
+	private int countTrainingExamples() {
+		int numberOfExamples = 0;
+		Iterator<Tweet> iter = corpus.getTrainingSet().iterator();
+		while (iter.hasNext()) {
+			numberOfExamples += iter.next().getMultiplicity();
+		}
+		return numberOfExamples;
+	}
+
+	/**
+	 * Sets the predicted emotions of the training set according to the predictions of the cross-validation. A Tweet with collapsed duplicates gets the
+	 * prediction of its first training example, the F1 score of the grid search is calculated from the predictions of all examples.
+	 * 
+	 * @param target
+	 *            Predictions of the cross-validation, one per training example.
+	 * @param trainingSet
+	 *            The training set.
+	 */
+	private void annotateTrainingSet(double[] target, List<Tweet> trainingSet) {
+		int example = 0;
+		for (int j = 0; j < trainingSet.size(); j++) {
+			setPredictedEmotion(target[example], trainingSet.get(j));
+			example += trainingSet.get(j).getMultiplicity();
+		}
+	}
+
 	/**
 	 * Performs a grid search and 10-fold-crossvalidation to find the best value for C.
 	 * @param problem The to be solved liblinear problem.
@@ -341,7 +419,7 @@ public class EmoClassifier_SVM {
 		double bestF1 = 0;
 		// This variable will store the predictions retrieved by the cross-validation.
 		double[] target = new double[problem.l];
-		ArrayList<Tweet> trainingSet = corpus.getTrainingSet();
+		List<Tweet> trainingSet = corpus.getTrainingSet();
 		// Perform a coarse grid search from 2^-15 to 2^15 (stepsize = 1).
 		for (int i = -15; i <= 15; i++) {
 			double C = Math.pow(2, i);
@@ -349,11 +427,10 @@ public class EmoClassifier_SVM {
 			Parameter parameter = new Parameter(solver, C, eps);
 			Linear.crossValidation(problem, parameter, 10, target);
 			// Annotate the training corpus according to the retrieved predictions.
-			for (int j = 0; j < trainingSet.size(); j++) {
-				setPredictedEmotion(target[j], trainingSet.get(j));
-			}
-			// Calculate the F1 score.
-			double currentF1 = new Evaluation(trainingSet).evaluateF1Score().getAvgF1Score();
+			annotateTrainingSet(target, trainingSet);
+			// Calculate the F1 score. Every training example counts with its own prediction, so collapsed duplicates give the same score as separate
+			// Tweets.
+			double currentF1 = Evaluation.evaluateF1Score(problem.y, target).getAvgF1Score();
 			// If the new F1 score is the new highest, store it and the corresponding exponent.
 			if (currentF1 > bestF1) {
 				bestF1 = currentF1;
@@ -366,10 +443,8 @@ public class EmoClassifier_SVM {
 			double C = Math.pow(2, bestCoarseExponent + i);
 			Parameter parameter = new Parameter(solver, C, eps);
 			Linear.crossValidation(problem, parameter, 10, target);
-			for (int j = 0; j < trainingSet.size(); j++) {
-				setPredictedEmotion(target[j], trainingSet.get(j));
-			}
-			double currentF1 = new Evaluation(trainingSet).evaluateF1Score().getAvgF1Score();
+			annotateTrainingSet(target, trainingSet);
+			double currentF1 = Evaluation.evaluateF1Score(problem.y, target).getAvgF1Score();
 			if (currentF1 > bestF1) {
 				bestF1 = currentF1;
 				bestFineExponent = i;
@@ -385,12 +460,6 @@ public class EmoClassifier_SVM {
 	 *             Throws exception if the stopwords list can not be found
 	 */
 	private void loadStopWords() throws IOException {
-		BufferedReader input = new BufferedReader(new FileReader(stopWords));
-		String inputString = input.readLine();
-		while (inputString != null) {
-			stopWordList.add(inputString);
-			inputString = input.readLine();
-		}
-		input.close();
+		stopWordList = Lexicon.load(stopWords);
 	}
 }
@@ -5,7 +5,11 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
 /**
@@ -15,12 +19,14 @@ import java.util.Random;
  */
 public class EmoClassifier_Wordlist {
 
-	private ArrayList<String> wordlistHappiness = new ArrayList<String>();
-	private ArrayList<String> wordlistAnger = new ArrayList<String>();
-	private ArrayList<String> wordlistFear = new ArrayList<String>();
-	private ArrayList<String> wordlistSadness = new ArrayList<String>();
-	private ArrayList<String> wordlistSurprise = new ArrayList<String>();
-	private ArrayList<String> wordlistDisgust = new ArrayList<String>();
+	// Prefixes of modified tokens, they are removed before a token is looked up in the word lists.
+	private static final String[] MODIFIER_PREFIXES = { "NEG_", "INT_", "DIM_" };
+
+	// Maps each emotion word to a bitmask of its basic emotions (bit 0 = happiness, 1 = anger, 2 = fear, 3 = sadness, 4 = surprise, 5 = disgust).
+	private HashMap<String, Byte> emotionIndex = new HashMap<String, Byte>();
+	// Bitmask of the basic emotions for each vocabulary ID that existed when the word lists were loaded. The IDs of the emotion words with a modifier
+	// prefix map to the bitmask of the word, so each token needs a single lookup.
+	private byte[] emotionMasks = new byte[0];
 
 	private File emotionLexicon;
 	private Corpus corpus;
@@ -52,15 +58,8 @@ public class EmoClassifier_Wordlist {
 	 *             Throws exception if the word list file can not be read
 	 */
 	public void startClassification() throws IOException {
-		// loads emotion lexicon
-		loadWordlist();
-		// searches the weight matrices which lead to the highest F1 scores in the training data.
-		if (weightMatrices == null) {
-			System.out.println("No weighting matrices loaded. Train new weight matrices (this can take several days depending on the number of searches and tries).");
-			System.out.println("Start weight matices training: ");
-			train();
-			System.out.println("Weight matrices created!");
-		}
+		// loads the emotion lexicon and the weight matrices
+		prepare();
 		// create iterator to iterate over test set
 		Iterator<Tweet> tweetIterator = corpus.getTestSet().iterator();
 		// needed to display percentage done
@@ -84,6 +83,36 @@ public class EmoClassifier_Wordlist {
 		System.out.println("DONE!");
 	}
 
+	/**
+	 * Loads the emotion word lists and trains the weight matrices if none have been loaded. Has to be called before classify().
+	 * 
+	 * @throws IOException
+	 *             Throws exception if the word list file can not be read
+	 */
+	public void prepare() throws IOException {
+		// loads emotion lexicon
+		loadWordlist();
+		// searches the weight matrices which lead to the highest F1 scores in the training data.
+		if (weightMatrices == null) {
+			System.out.println("No weighting matrices loaded. Train new weight matrices (this can take several days depending on the number of searches and tries).");
+			System.out.println("Start weight matices training: ");
+			train();
+			System.out.println("Weight matrices created!");
+		}
+	}
+
+	/**
+	 * Classifies Tweets that are not part of the corpus, e.g. Tweets that have been ingested after the training.
+	 * 
+	 * @param tweets
+	 *            The to be classified Tweets.
+	 */
+	public void classify(Collection<Tweet> tweets) {
+		for (Tweet tweet : tweets) {
+			classifyTweet(tweet);
+		}
+	}
+
 	/**
 	 * Performs hill climbing to find a local optimum weight matrix. This is done several times and then the average weight matrices are calculated.
 	 */
@@ -120,7 +149,7 @@ public class EmoClassifier_Wordlist {
 				// Search for the best matrix while there are tries remaining.
 				while (remainingTries > 0) {
 					// Retrieve training set of corpus.
-					ArrayList<Tweet> trainingSet = corpus.getTrainingSet();
+					List<Tweet> trainingSet = corpus.getTrainingSet();
 					// Create iterator for this training set.
 					Iterator<Tweet> tweetIterator = trainingSet.iterator();
 					// Iterate over test set
@@ -258,40 +287,56 @@ public class EmoClassifier_Wordlist {
 		// set emotion values to zero for each basic emotion
 		double[] emotionValues = { 0, 0, 0, 0, 0, 0 };
 		// iterate over all tokens of the Tweet
-		Iterator<Token> tokenIterator = tweet.getTokenList().iterator();
-		while (tokenIterator.hasNext()) {
-			Token token = tokenIterator.next();
-			String tokenString = token.getNormalizedTokenString();
-			// delete modifier prefixes of tokens (only needed for SVM classification)
-			// for word list classification token.isNegated()/token.isIntensified()/token.isDiminished() is used
-			if (tokenString.startsWith("NEG_") || tokenString.startsWith("INT_") || tokenString.startsWith("DIM_")) {
-				tokenString = tokenString.substring(4);
-			}
+		ArrayList<Token> tokenList = tweet.getTokenList();
+		for (int i = 0; i < tokenList.size(); i++) {
+			Token token = tokenList.get(i);
+			int emotionMask = getEmotionMask(token);
 			// calculate weighting for the token
 			// add weighting to the emotion value of the corresponding basic emotion
-			if (wordlistHappiness.contains(tokenString)) {
-				emotionValues = calculateWeighting(token, emotionValues, 0);
-			}
-			if (wordlistAnger.contains(tokenString)) {
-				emotionValues = calculateWeighting(token, emotionValues, 1);
-			}
-			if (wordlistFear.contains(tokenString)) {
-				emotionValues = calculateWeighting(token, emotionValues, 2);
-			}
-			if (wordlistSadness.contains(tokenString)) {
-				emotionValues = calculateWeighting(token, emotionValues, 3);
-			}
-			if (wordlistSurprise.contains(tokenString)) {
-				emotionValues = calculateWeighting(token, emotionValues, 4);
-			}
-			if (wordlistDisgust.contains(tokenString)) {
-				emotionValues = calculateWeighting(token, emotionValues, 5);
+			for (int emotion = 0; emotionMask != 0; emotion++, emotionMask >>>= 1) {
+				if ((emotionMask & 1) != 0) {
+					emotionValues = calculateWeighting(token, emotionValues, emotion);
+				}
 			}
 		}
 		// set predicted basic emotion for the current Tweet
 		tweet.setPredictedEmotion(calculatePredictedEmotion(emotionValues));
 	}
 
+	/**
+	 * Looks up the basic emotions of a token. Modifier prefixes of the normalized string are ignored (only needed for SVM classification), for word list
+	 * classification token.isNegated()/token.isIntensified()/token.isDiminished() is used.
+	 * 
+	 * @param token
+	 *            The token that is looked up.
+	 * @return Returns the bitmask of the basic emotions of the token or 0 if it is not an emotion word.
+	 */
+	private int getEmotionMask(Token token) {
+		int id = token.getNormalizedTokenID();
+		if (id >= 0 && id < emotionMasks.length) {
+			return emotionMasks[id];
+		}
+		// the normalized string has been added to the vocabulary after the word lists were loaded or is not part of it
+		String tokenString = removeModifierPrefix(token.getNormalizedTokenString());
+		Byte emotionMask = emotionIndex.get(tokenString);
+		return emotionMask == null ? 0 : emotionMask;
+	}
+
+	/**
+	 * 
+	 * @param tokenString
+	 *            Normalized string of a token.
+	 * @return Returns the string without its modifier prefix.
+	 */
+	private static String removeModifierPrefix(String tokenString) {
+		for (String prefix : MODIFIER_PREFIXES) {
+			if (tokenString.startsWith(prefix)) {
+				return tokenString.substring(prefix.length());
+			}
+		}
+		return tokenString;
+	}
+
 	/**
 	 * Calculates the predicted emotion by searching the highest emotion value
 	 * 
@@ -384,27 +429,74 @@ public class EmoClassifier_Wordlist {
 			String[] dataArray = inputString.split("\t");
 			// add emotion words to their corresponding basic emotion lexicon
 			if (dataArray[1].equals("joy") && Integer.parseInt(dataArray[2]) == 1) {
-				wordlistHappiness.add(dataArray[0]);
+				addEmotionWord(dataArray[0], 0);
 			}
 			if (dataArray[1].equals("anger") && Integer.parseInt(dataArray[2]) == 1) {
-				wordlistAnger.add(dataArray[0]);
+				addEmotionWord(dataArray[0], 1);
 			}
 			if (dataArray[1].equals("fear") && Integer.parseInt(dataArray[2]) == 1) {
-				wordlistFear.add(dataArray[0]);
+				addEmotionWord(dataArray[0], 2);
 			}
 			if (dataArray[1].equals("sadness") && Integer.parseInt(dataArray[2]) == 1) {
-				wordlistSadness.add(dataArray[0]);
+				addEmotionWord(dataArray[0], 3);
 			}
 			if (dataArray[1].equals("surprise") && Integer.parseInt(dataArray[2]) == 1) {
-				wordlistSurprise.add(dataArray[0]);
+				addEmotionWord(dataArray[0], 4);
 			}
 			if (dataArray[1].equals("disgust") && Integer.parseInt(dataArray[2]) == 1) {
-				wordlistDisgust.add(dataArray[0]);
+				addEmotionWord(dataArray[0], 5);
 			}
 			inputString = input.readLine();
 		}
 		// close input
 		input.close();
+		createEmotionMasks();
+	}
+
+	/**
+	 * Adds a basic emotion to the bitmask of an emotion word.
+	 * 
+	 * @param word
+	 *            The emotion word.
+	 * @param emotion
+	 *            Index of the basic emotion.
+	 */
+	private void addEmotionWord(String word, int emotion) {
+		Byte emotionMask = emotionIndex.get(word);
+		emotionIndex.put(word, (byte) ((emotionMask == null ? 0 : emotionMask) | (1 << emotion)));
+	}
+
+	/**
+	 * Creates the bitmasks of all vocabulary IDs. Strings that are not in the vocabulary yet are not added, they are looked up in the emotion index when
+	 * they occur.
+	 */
+	private void createEmotionMasks() {
+		emotionMasks = new byte[Vocabulary.size()];
+		for (Map.Entry<String, Byte> entry : emotionIndex.entrySet()) {
+			String word = entry.getKey();
+			// a string with a modifier prefix is looked up without it
+			if (!removeModifierPrefix(word).equals(word)) {
+				continue;
+			}
+			setEmotionMask(word, entry.getValue());
+			for (String prefix : MODIFIER_PREFIXES) {
+				setEmotionMask(prefix + word, entry.getValue());
+			}
+		}
+	}
+
+	/**
+	 * 
+	 * @param string
+	 *            A normalized token string.
+	 * @param emotionMask
+	 *            The bitmask of the basic emotions of the string.
+	 */
+	private void setEmotionMask(String string, byte emotionMask) {
+		int id = Vocabulary.lookupID(string);
+		if (id >= 0 && id < emotionMasks.length) {
+			emotionMasks[id] = emotionMask;
+		}
 	}
 
 	/**
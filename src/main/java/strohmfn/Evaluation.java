@@ -8,6 +8,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 
 /**
  * 
@@ -16,8 +17,10 @@ import java.util.LinkedList;
  */
 public class Evaluation {
 
-	private ArrayList<Tweet> trainingSet;
-	private ArrayList<Tweet> testSet;
+	private List<Tweet> trainingSet;
+	// Tweets per gold emotion of the training set, used if the training set itself is not available.
+	private HashMap<String, Integer> trainingEmotionCounts;
+	private List<Tweet> testSet;
 
 	// stores true positives, true negatives, false positives and false
 	// negatives for each basic emotion
@@ -38,12 +41,17 @@ public class Evaluation {
 	private double[] FN_Modifier = { 0, 0, 0 };
 
 
-	public Evaluation(ArrayList<Tweet> trainingSet, ArrayList<Tweet> testSet) {
+	public Evaluation(List<Tweet> trainingSet, List<Tweet> testSet) {
 		this.trainingSet = trainingSet;
 		this.testSet = testSet;
 	}
 
-	public Evaluation(ArrayList<Tweet> testSet) {
+	public Evaluation(HashMap<String, Integer> trainingEmotionCounts, List<Tweet> testSet) {
+		this.trainingEmotionCounts = trainingEmotionCounts;
+		this.testSet = testSet;
+	}
+
+	public Evaluation(List<Tweet> testSet) {
 		this.testSet = testSet;
 	}
 
@@ -60,7 +68,7 @@ public class Evaluation {
 		double[] precision = calculatePrecision(TP_Emotions, FP_Emotions);
 		double[] accuracy = calculateAccuracy(TP_Emotions, TN_Emotions, FP_Emotions, FN_Emotions);
 		double[] f1score = calculateF1Score(recall, precision);
-		int[] tweetsPerEmoTraining = countTweetsPerEmo(trainingSet);
+		int[] tweetsPerEmoTraining = trainingSet != null ? countTweetsPerEmo(trainingSet) : countTweetsPerEmo(trainingEmotionCounts);
 		int[] tweetsPerEmoTest = countTweetsPerEmo(testSet);
 		double[][] misclassificationMatrix = calculateMissclassificationMatrix(tweetsPerEmoTest);
 		// create new result and return it
@@ -87,6 +95,28 @@ public class Evaluation {
 		return new Result(recall, precision, accuracy, f1score);
 	}
 
+	/**
+	 * Manages the evaluation procedure for predictions that are given per example instead of per Tweet, e.g. the predictions of a cross-validation. A
+	 * Tweet with collapsed duplicates has one example per occurrence, each example is counted with its own prediction.
+	 * 
+	 * @param goldEmotions
+	 *            The gold emotions of the examples as integers ([0] = happy, [1] = anger, ...).
+	 * @param predictedEmotions
+	 *            The predicted emotions of the examples as integers.
+	 * @return Returns the results (the F1 score of every basic emotion).
+	 */
+	public static Result evaluateF1Score(double[] goldEmotions, double[] predictedEmotions) {
+		Evaluation evaluation = new Evaluation(new ArrayList<Tweet>());
+		for (int i = 0; i < goldEmotions.length; i++) {
+			evaluation.countPrediction((int) goldEmotions[i], (int) predictedEmotions[i], 1);
+		}
+		double[] recall = evaluation.calculateRecall(evaluation.TP_Emotions, evaluation.FN_Emotions);
+		double[] precision = evaluation.calculatePrecision(evaluation.TP_Emotions, evaluation.FP_Emotions);
+		double[] accuracy = evaluation.calculateAccuracy(evaluation.TP_Emotions, evaluation.TN_Emotions, evaluation.FP_Emotions, evaluation.FN_Emotions);
+		double[] f1score = evaluation.calculateF1Score(recall, precision);
+		return new Result(recall, precision, accuracy, f1score);
+	}
+
 	/**
 	 * This method counts the number of Tweets for each basic emotion.
 	 * 
@@ -94,12 +124,33 @@ public class Evaluation {
 	 *            The to be evaluated corpus.
 	 * @return Returns an array containing the amount of Tweets per basic emotion.
 	 */
-	private int[] countTweetsPerEmo(ArrayList<Tweet> corpus) {
+	private int[] countTweetsPerEmo(List<Tweet> corpus) {
 		int[] tweetsPerEmo = { 0, 0, 0, 0, 0, 0 };
 		for (int i = 0; i < corpus.size(); i++) {
 			int goldEmotion = emotionToInt(corpus.get(i).getGoldEmotion());
 			if (goldEmotion != 6) {
-				tweetsPerEmo[goldEmotion] += 1;
+				// collapsed duplicates count as often as they occurred in the data file
+				tweetsPerEmo[goldEmotion] += corpus.get(i).getMultiplicity();
+			}
+		}
+		return tweetsPerEmo;
+	}
+
+	/**
+	 * This method counts the number of Tweets for each basic emotion.
+	 * 
+	 * @param emotionCounts
+	 *            The number of Tweets per gold emotion string.
+	 * @return Returns an array containing the amount of Tweets per basic emotion.
+	 */
+	private int[] countTweetsPerEmo(HashMap<String, Integer> emotionCounts) {
+		int[] tweetsPerEmo = { 0, 0, 0, 0, 0, 0 };
+		Iterator<String> iter = emotionCounts.keySet().iterator();
+		while (iter.hasNext()) {
+			String emotion = iter.next();
+			int goldEmotion = emotionToInt(emotion);
+			if (goldEmotion != 6) {
+				tweetsPerEmo[goldEmotion] += emotionCounts.get(emotion);
 			}
 		}
 		return tweetsPerEmo;
@@ -121,7 +172,7 @@ public class Evaluation {
 		for (int i = 0; i < testSet.size(); i++) {
 			int goldEmotion = emotionToInt(testSet.get(i).getGoldEmotion());
 			int predictedEmotion = emotionToInt(testSet.get(i).getPredictedEmotion());
-			misclassificationMatrix[goldEmotion][predictedEmotion] += 1;
+			misclassificationMatrix[goldEmotion][predictedEmotion] += testSet.get(i).getMultiplicity();
 		}
 		for (int i = 0; i < 6; i++) {
 			for (int j = 0; j < 7; j++) {
@@ -144,33 +195,45 @@ public class Evaluation {
 			// retrieve next Tweet in test set
 			Tweet tweet = iter.next();
 			// convert emotions into integer for easy array access
-			int goldEmotion = emotionToInt(tweet.getGoldEmotion());
-			int predictedEmotion = emotionToInt(tweet.getPredictedEmotion());
-
-			// if prediction was correct
-			if (goldEmotion == predictedEmotion) {
-				// increment TP for the corresponding emotion
-				TP_Emotions[predictedEmotion] += 1;
-				// increment TN for every other emotion
-				for (int z = 0; z < 6; z++) {
-					if (z != predictedEmotion) {
-						TN_Emotions[z] += 1;
-					}
-				}
-			} else {
-				// if prediction was incorrect increment FN for the
-				// corresponding gold emotion
-				FN_Emotions[goldEmotion] += 1;
-				// if the emotion is not "unknown"
-				if (predictedEmotion != 6) {
-					// increment FP for the corresponding predicted emotion
-					FP_Emotions[predictedEmotion] += 1;
+			// collapsed duplicates count as often as they occurred in the data file
+			countPrediction(emotionToInt(tweet.getGoldEmotion()), emotionToInt(tweet.getPredictedEmotion()), tweet.getMultiplicity());
+		}
+	}
+
+	/**
+	 * Adds a prediction to the TP/TN/FP/FN of the basic emotions.
+	 * 
+	 * @param goldEmotion
+	 *            The gold emotion as integer.
+	 * @param predictedEmotion
+	 *            The predicted emotion as integer.
+	 * @param count
+	 *            Number of Tweets with this prediction.
+	 */
+	private void countPrediction(int goldEmotion, int predictedEmotion, int count) {
+		// if prediction was correct
+		if (goldEmotion == predictedEmotion) {
+			// increment TP for the corresponding emotion
+			TP_Emotions[predictedEmotion] += count;
+			// increment TN for every other emotion
+			for (int z = 0; z < 6; z++) {
+				if (z != predictedEmotion) {
+					TN_Emotions[z] += count;
 				}
-				// increment TN for every other emotion
-				for (int z = 0; z < 6; z++) {
-					if (z != predictedEmotion && z != goldEmotion) {
-						TN_Emotions[z] += 1;
-					}
+			}
+		} else {
+			// if prediction was incorrect increment FN for the
+			// corresponding gold emotion
+			FN_Emotions[goldEmotion] += count;
+			// if the emotion is not "unknown"
+			if (predictedEmotion != 6) {
+				// increment FP for the corresponding predicted emotion
+				FP_Emotions[predictedEmotion] += count;
+			}
+			// increment TN for every other emotion
+			for (int z = 0; z < 6; z++) {
+				if (z != predictedEmotion && z != goldEmotion) {
+					TN_Emotions[z] += count;
 				}
 			}
 		}
@@ -231,7 +294,7 @@ public class Evaluation {
 	 */
 	public Result evaluateModifier(File handAnnotatedTweetsFile) throws Exception {
 		LinkedList<String[]> handAnnotatedTweets = loadHandAnnotatedTweets(handAnnotatedTweetsFile);
-		HashMap<String, Tweet> tweets = createHashMap();
+		HashMap<Object, Tweet> tweets = createHashMap();
 		calcPosNegModifier(handAnnotatedTweets, tweets);
 		double[] recall = calculateRecall(TP_Modifier, FN_Modifier);
 		double[] precision = calculatePrecision(TP_Modifier, FP_Modifier);
@@ -245,14 +308,14 @@ public class Evaluation {
 	 * the value. The hashmap is used to retrieve a Tweet object using its ID from a hand
 	 * annotation.
 	 * 
-	 * @return Returns a hashmap containing all Tweet IDs as keys with their corresponding Tweet
-	 *         object as the value.
+	 * @return Returns a hashmap containing the keys of all Tweet IDs (see Tweet.getIDKey()) with
+	 *         their corresponding Tweet object as the value.
 	 */
-	private HashMap<String, Tweet> createHashMap() {
-		HashMap<String, Tweet> tweets = new HashMap<String, Tweet>();
+	private HashMap<Object, Tweet> createHashMap() {
+		HashMap<Object, Tweet> tweets = new HashMap<Object, Tweet>();
 		for (int i = 0; i < testSet.size(); i++) {
 			Tweet tweet = testSet.get(i);
-			tweets.put(tweet.getID(), tweet);
+			tweets.put(tweet.getIDKey(), tweet);
 		}
 		return tweets;
 	}
@@ -299,7 +362,7 @@ public class Evaluation {
 	 *             Throws exception if a Tweet in the hand annotated Tweets file is not present in
 	 *             the corpus
 	 */
-	private void calcPosNegModifier(LinkedList<String[]> handAnnotations, HashMap<String, Tweet> handAnnotatedTweets)
+	private void calcPosNegModifier(LinkedList<String[]> handAnnotations, HashMap<Object, Tweet> handAnnotatedTweets)
 			throws Exception {
 		int numberOfAnnotations = handAnnotations.size();
 		// iterate over all Tweets that were annotated by hand
@@ -315,13 +378,13 @@ public class Evaluation {
 			// retrieve the token list of the corresponding Tweet
 			ArrayList<Token> tokenList;
 			try {
-				tokenList = handAnnotatedTweets.get(currentAnnotation[0]).getTokenList();
+				tokenList = handAnnotatedTweets.get(Tweet.createIDKey(currentAnnotation[0])).getTokenList();
 			} catch (Exception e) {
 				throw new Exception("Tweet with ID " + currentAnnotation[0] + " is not present in the corpus." + "\n"
 						+ "To evaluate the modifer detection all Tweets in the hand annotated Tweets file must be present in the corpus.");
 			}
 			// retrieve the "modifies list" of the corresponding token
-			ArrayList<Token> modifiesList = tokenList.get(Integer.parseInt(currentAnnotation[1]) - 1).getModifies();
+			List<Token> modifiesList = tokenList.get(Integer.parseInt(currentAnnotation[1]) - 1).getModifies();
 			// iterate over the modifies list and search if it modifies the
 			// corresponding emotion
 			for (int j = 0; j < modifiesList.size(); j++) {
@@ -367,7 +430,7 @@ public class Evaluation {
 	 */
 	public Result evaluateModifierSimple(File handAnnotatedTweetsFile) throws Exception {
 		LinkedList<String[]> handAnnotatedTweets = loadHandAnnotatedTweets(handAnnotatedTweetsFile);
-		HashMap<String, Tweet> tweets = createHashMap();
+		HashMap<Object, Tweet> tweets = createHashMap();
 		calcPosNegModifierSimple(handAnnotatedTweets, tweets);
 		double[] recall = calculateRecall(TP_Modifier, FN_Modifier);
 		double[] precision = calculatePrecision(TP_Modifier, FP_Modifier);
@@ -391,7 +454,7 @@ public class Evaluation {
 	 *             the corpus
 	 */
 	private void calcPosNegModifierSimple(LinkedList<String[]> handAnnotations,
-			HashMap<String, Tweet> handAnnotatedTweets) throws Exception {
+			HashMap<Object, Tweet> handAnnotatedTweets) throws Exception {
 		handAnnotations = createSimpleAnnotations(handAnnotations);
 		int numberOfAnnotations = handAnnotations.size();
 		// iterate over all Tweets that were annotated by hand
@@ -406,7 +469,7 @@ public class Evaluation {
 			// retrieve the token list of the corresponding Tweet
 			ArrayList<Token> tokenList;
 			try {
-				tokenList = handAnnotatedTweets.get(currentAnnotation[0]).getTokenList();
+				tokenList = handAnnotatedTweets.get(Tweet.createIDKey(currentAnnotation[0])).getTokenList();
 			} catch (Exception e) {
 				throw new Exception("Tweet with ID " + currentAnnotation[0] + " is not present in the corpus." + "\n"
 						+ "To evaluate the modifer detection all Tweets in the hand annotated Tweets file must be present in the corpus.");
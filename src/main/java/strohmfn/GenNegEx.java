@@ -24,6 +24,11 @@ public class GenNegEx {
 	private List<String> postNegPhrases; // list of post-negation pharses
 	private List<String> conjunctions; // list of conjunctions
 	private boolean value; // boolean for an option of yes or no
+	// the phrase lists compiled into tries of vocabulary IDs, used by negScope(List<Token>)
+	private PhraseTrie pseNegTrie;
+	private PhraseTrie negTrie;
+	private PhraseTrie postNegTrie;
+	private PhraseTrie conjunctionTrie;
 
 	// post: constructs a GenNegEx object
 	// creates a list of negation phrases, pseudo-negation phrases, post-negation phrases, and conjunction
@@ -37,6 +42,10 @@ public class GenNegEx {
 		sorts(negPhrases);
 		sorts(postNegPhrases);
 		sorts(conjunctions);
+		pseNegTrie = new PhraseTrie(pseNegPhrases);
+		negTrie = new PhraseTrie(negPhrases);
+		postNegTrie = new PhraseTrie(postNegPhrases);
+		conjunctionTrie = new PhraseTrie(conjunctions);
 		this.value = value;
 	}
 
@@ -52,6 +61,65 @@ public class GenNegEx {
 		return helper(s, 0);
 	}
 
+	// post: returns the negation scope of a token list as {first, last} token index (inclusive)
+	// returns null if no negation phrase is found (or for -2, see the notes above)
+	// every token is one word of the sentence, the words are matched by the vocabulary IDs of the normalized token strings
+	// the result is the same as negScope(String) of the normalized token strings separated by spaces
+	public int[] negScope(List<Token> tokenList) {
+		int[] s = new int[tokenList.size()];
+		for (int i = 0; i < s.length; i++)
+			s[i] = tokenList.get(i).getNormalizedTokenID();
+		return scope(s, 0);
+	}
+
+	// post: processes the word IDs and returns the negation scope, same algorithm as helper()
+	// returns null if no negation phrase is found
+	private int[] scope(int[] s, int index) {
+		for (int i = index; i < s.length; i++) {
+			int length = pseNegTrie.match(s, i);
+			if (length > 0)
+				return scope(s, i + length);
+			length = negTrie.match(s, i);
+			if (length > 0) {
+				int start = i + length;
+				int end = -1;
+				for (int j = start; j < s.length; j++) {
+					end = conjunctionIndex(s, j);
+					if (end != -1)
+						break;
+				}
+				if (end != -1)
+					return new int[] { start, end - 1 };
+				else if (start > s.length - 1)
+					if (value)
+						return new int[] { 0, start - 2 };
+					else
+						return null;
+				else
+					return new int[] { start, s.length - 1 };
+			} else {
+				int end = phraseIndex(postNegTrie, s, i);
+				if (end != -1)
+					return new int[] { 0, end };
+			}
+		}
+		return null;
+	}
+
+	// post: returns the same index as contains(s, conjunctions, index, 1)
+	private int conjunctionIndex(int[] s, int index) {
+		return phraseIndex(conjunctionTrie, s, index);
+	}
+
+	// post: returns the same index as contains() with type 1: index + 1 for a single word phrase, index for a longer phrase
+	// returns -1 if no phrase is found
+	private int phraseIndex(PhraseTrie trie, int[] s, int index) {
+		int length = trie.match(s, index);
+		if (length == 0)
+			return -1;
+		return length == 1 ? index + 1 : index;
+	}
+
 	// post: processes data and returns negation scope
 	// returns -1 if no negation phrase is found
 	private String helper(String[] s, int index) {
@@ -235,4 +303,45 @@ public class GenNegEx {
 		conjunctions.add("origins for");
 		conjunctions.add("other possibilities of");
 	}
+
+	// phrases of a list as a trie of the vocabulary IDs of their words
+	private static class PhraseTrie {
+		private HashMap<Integer, PhraseTrie> children = new HashMap<Integer, PhraseTrie>();
+		private boolean isPhrase = false;
+
+		// post: adds all phrases of a list
+		private PhraseTrie(List<String> phrases) {
+			for (String phrase : phrases) {
+				PhraseTrie node = this;
+				for (String word : phrase.split("\\s+")) {
+					int id = Vocabulary.getID(word);
+					PhraseTrie child = node.children.get(id);
+					if (child == null) {
+						child = new PhraseTrie();
+						node.children.put(id, child);
+					}
+					node = child;
+				}
+				node.isPhrase = true;
+			}
+		}
+
+		private PhraseTrie() {
+		}
+
+		// post: returns the number of words of the longest phrase that starts at index, 0 if no phrase starts there
+		// contains() checks the phrases in descending order, so of two phrases where one is the start of the other the longer one wins
+		private int match(int[] s, int index) {
+			int length = 0;
+			PhraseTrie node = this;
+			for (int i = index; i < s.length; i++) {
+				node = node.children.get(s[i]);
+				if (node == null)
+					break;
+				if (node.isPhrase)
+					length = i - index + 1;
+			}
+			return length;
+		}
+	}
 }
@@ -0,0 +1,246 @@
+package strohmfn;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Word list with constant time lookups, e.g. a modifier lexicon or the stop words. Single-word entries are looked up by the vocabulary ID of a token,
+ * so no string has to be hashed or compared. Entries that consist of several words separated by single spaces (e.g. "no longer") are multi-word cues
+ * and are matched against consecutive tokens with matchLength().
+ *
+ * Lexicon files are loaded once per process: load() keeps every loaded file in a registry, so all modifier detection methods and classifiers share the
+ * same instance. A file is loaded again if it has been modified.
+ *
+ * @author strohmfn
+ *
+ */
+public class Lexicon {
+
+	// Lexicons that have been loaded, by canonical file path.
+	private static final HashMap<String, Lexicon> registry = new HashMap<String, Lexicon>();
+
+	// All entries as they are written in the file.
+	private HashSet<String> entries = new HashSet<String>();
+	// Vocabulary IDs of all entries.
+	private BitSet entryIDs = new BitSet();
+	// Multi-word entries split into their words, by the vocabulary ID of their first word.
+	private HashMap<Integer, ArrayList<int[]>> phrases = new HashMap<Integer, ArrayList<int[]>>();
+
+	// Size and modification time of the file the lexicon has been loaded from.
+	private long fileLength = -1;
+	private long lastModified = -1;
+
+	/**
+	 * Creates a lexicon from a collection of words.
+	 *
+	 * @param entries
+	 *            The entries of the lexicon.
+	 */
+	public Lexicon(Collection<String> entries) {
+		for (String entry : entries) {
+			add(entry);
+		}
+	}
+
+	/**
+	 * Returns the lexicon of a file. Each file is only read once per process, unless it has been modified since it was loaded.
+	 *
+	 * @param file
+	 *            File that contains one entry per line.
+	 * @return Returns the shared lexicon of the file.
+	 * @throws IOException
+	 *             Throws exception if the file can not be read.
+	 */
+	public static Lexicon load(File file) throws IOException {
+		String key = file.getCanonicalPath();
+		synchronized (registry) {
+			Lexicon lexicon = registry.get(key);
+			if (lexicon == null || lexicon.fileLength != file.length() || lexicon.lastModified != file.lastModified()) {
+				lexicon = new Lexicon(readEntries(file));
+				lexicon.fileLength = file.length();
+				lexicon.lastModified = file.lastModified();
+				registry.put(key, lexicon);
+			}
+			return lexicon;
+		}
+	}
+
+	/**
+	 * Reads all lines of a file.
+	 *
+	 * @param file
+	 *            The to be read file.
+	 * @return Returns a list that contains each line of the file.
+	 * @throws IOException
+	 *             Throws exception if the file can not be read.
+	 */
+	private static ArrayList<String> readEntries(File file) throws IOException {
+		ArrayList<String> lines = new ArrayList<String>();
+		BufferedReader input = new BufferedReader(new FileReader(file));
+		try {
+			String inputString = input.readLine();
+			while (inputString != null) {
+				lines.add(inputString);
+				inputString = input.readLine();
+			}
+		} finally {
+			input.close();
+		}
+		return lines;
+	}
+
+	/**
+	 * Adds an entry to the lexicon.
+	 *
+	 * @param entry
+	 *            The to be added entry.
+	 */
+	private void add(String entry) {
+		entries.add(entry);
+		entryIDs.set(Vocabulary.getID(entry));
+		// an entry is a multi-word cue if it consists of several words separated by single spaces
+		String[] words = entry.split(" ", -1);
+		if (words.length < 2) {
+			return;
+		}
+		int[] wordIDs = new int[words.length];
+		for (int i = 0; i < words.length; i++) {
+			if (words[i].isEmpty()) {
+				return;
+			}
+			wordIDs[i] = Vocabulary.getID(words[i]);
+		}
+		ArrayList<int[]> phrasesOfWord = phrases.get(wordIDs[0]);
+		if (phrasesOfWord == null) {
+			phrasesOfWord = new ArrayList<int[]>();
+			phrases.put(wordIDs[0], phrasesOfWord);
+		}
+		phrasesOfWord.add(wordIDs);
+	}
+
+	/**
+	 *
+	 * @param string
+	 *            The string that is looked up.
+	 * @return Returns true if the string is an entry of the lexicon.
+	 */
+	public boolean contains(String string) {
+		return entries.contains(string);
+	}
+
+	/**
+	 *
+	 * @param token
+	 *            The token that is looked up.
+	 * @return Returns true if the normalized string of the token is an entry of the lexicon.
+	 */
+	public boolean contains(Token token) {
+		return containsID(token.getNormalizedTokenID());
+	}
+
+	/**
+	 *
+	 * @param id
+	 *            Vocabulary ID of the string that is looked up.
+	 * @return Returns true if the string of the ID is an entry of the lexicon.
+	 */
+	public boolean containsID(int id) {
+		// strings that are not part of the vocabulary (-1) are no entries, the entries are always added to it
+		return id >= 0 && entryIDs.get(id);
+	}
+
+	/**
+	 * Matches the entries of the lexicon against the tokens that start at a position. Multi-word entries are matched against the normalized strings of
+	 * consecutive tokens.
+	 *
+	 * @param tokenList
+	 *            The token list.
+	 * @param start
+	 *            Index of the first token.
+	 * @return Returns the number of tokens of the longest matching entry or 0 if no entry matches.
+	 */
+	public int matchLength(List<Token> tokenList, int start) {
+		int length = contains(tokenList.get(start)) ? 1 : 0;
+		if (phrases.isEmpty()) {
+			return length;
+		}
+		ArrayList<int[]> phrasesOfWord = phrases.get(tokenList.get(start).getNormalizedTokenID());
+		if (phrasesOfWord != null) {
+			for (int[] wordIDs : phrasesOfWord) {
+				if (wordIDs.length > length && start + wordIDs.length <= tokenList.size() && matches(wordIDs, tokenList, start)) {
+					length = wordIDs.length;
+				}
+			}
+		}
+		return length;
+	}
+
+	/**
+	 *
+	 * @param wordIDs
+	 *            Vocabulary IDs of the words of a multi-word entry.
+	 * @param tokenList
+	 *            The token list.
+	 * @param start
+	 *            Index of the first token.
+	 * @return Returns true if the tokens that start at the index are the words of the entry.
+	 */
+	private static boolean matches(int[] wordIDs, List<Token> tokenList, int start) {
+		for (int i = 1; i < wordIDs.length; i++) {
+			if (tokenList.get(start + i).getNormalizedTokenID() != wordIDs[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Compares the entries with the entries of another lexicon, e.g. an earlier version of the same file. Only Tweets that contain one of the returned
+	 * words can match an entry that is part of only one of the lexicons.
+	 *
+	 * @param other
+	 *            The other lexicon.
+	 * @return Returns the first word of each entry that is part of only one of the lexicons.
+	 */
+	public HashSet<String> getChangedWords(Lexicon other) {
+		HashSet<String> words = new HashSet<String>();
+		addFirstWords(entries, other.entries, words);
+		addFirstWords(other.entries, entries, words);
+		return words;
+	}
+
+	/**
+	 * Adds the first word of each entry that is not part of the other entries.
+	 *
+	 * @param entries
+	 *            The entries.
+	 * @param otherEntries
+	 *            The other entries.
+	 * @param words
+	 *            The set the words are added to.
+	 */
+	private static void addFirstWords(HashSet<String> entries, HashSet<String> otherEntries, HashSet<String> words) {
+		for (String entry : entries) {
+			if (!otherEntries.contains(entry)) {
+				int space = entry.indexOf(' ');
+				words.add(space > 0 ? entry.substring(0, space) : entry);
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @return Returns the number of entries.
+	 */
+	public int size() {
+		return entries.size();
+	}
+}
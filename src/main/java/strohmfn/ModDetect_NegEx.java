@@ -1,8 +1,7 @@
 package strohmfn;
 
 import java.util.ArrayList;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Collection;
 
 /**
  * 
@@ -20,38 +19,23 @@ public class ModDetect_NegEx {
 	 * @param corpus
 	 *            The to be annotated corpus.
 	 */
-	public void annotateNegEx(ArrayList<Tweet> corpus) {
+	public void annotateNegEx(Collection<Tweet> corpus) {
 		// Needed to display the percentage done.
 		int numberOfSentences = corpus.size();
 		int numberOfSentencesFinished = 0;
 		byte percentageDone = 0;
 
-		/*
-		 * The NegEx algorithm returns the negation scope of a sentence in the form X-Y. 
-		 * We use a pattern and a matcher to extract X and Y. Then we iterate over
-		 * the token list within this scope and negate the tokens.
-		 */
-
-		// Create pattern to extract the scope.
-		Pattern p = Pattern.compile("([0-9]*) - ([0-9]*)");
 		// Instantiate NegEx.
 		GenNegEx negEx = new GenNegEx(true);
 		// Iterate over the to be annotated corpus.
-		for (int i = 0; i < corpus.size(); i++) {
+		for (Tweet tweet : corpus) {
 			// Retrieve token list of the current Tweet.
-			ArrayList<Token> tokenList = corpus.get(i).getTokenList();
-			// Create the Tweet string using the normalized token strings.
-			String tweetString = "";
-			for (Token token : tokenList) {
-				tweetString += token.getNormalizedTokenString() + " ";
-			}
-			// Run NegEx.
-			String result = negEx.negScope(tweetString);
-			// Extract X and Y
-			Matcher m = p.matcher(result);
-			if (m.find()) {
-				// Iterate over the token list from X to Y.
-				for (int j = Integer.parseInt(m.group(1)); j <= Integer.parseInt(m.group(2)); j++) {
+			ArrayList<Token> tokenList = tweet.getTokenList();
+			// Run NegEx on the normalized token strings. The scope is returned as the indices of the first and the last negated token.
+			int[] scope = negEx.negScope(tokenList);
+			if (scope != null) {
+				// Iterate over the token list within this scope.
+				for (int j = scope[0]; j <= scope[1]; j++) {
 					// Negate current token.
 					Token modifiedToken = tokenList.get(j);
 					modifiedToken.setNegated(true);
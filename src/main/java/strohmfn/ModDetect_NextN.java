@@ -1,11 +1,11 @@
 package strohmfn;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
-import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 
 /**
  * 
@@ -15,11 +15,13 @@ import java.util.Iterator;
 public class ModDetect_NextN {
 
 	// stores all words in the negation lexicon
-	private ArrayList<String> negationLexicon = new ArrayList<String>();
+	private Lexicon negationLexicon;
 	// stores all words in the intensifier lexicon
-	private ArrayList<String> intensifierLexicon = new ArrayList<String>();
+	private Lexicon intensifierLexicon;
 	// stores all words in the diminisher lexicon
-	private ArrayList<String> diminisherLexicon = new ArrayList<String>();
+	private Lexicon diminisherLexicon;
+	// stores all adversative conjunction words and end of line characters
+	private Lexicon conjunctions = loadConjunctions();
 
 	// stores settings for the modifier detection
 	private boolean[] modifierDetectionSettings;
@@ -36,10 +38,10 @@ public class ModDetect_NextN {
 	 */
 	public ModDetect_NextN(File[] modifierLexicons, boolean[] modifierDetectionSettings) throws Exception {
 		this.modifierDetectionSettings = modifierDetectionSettings;
-		// loads lexica
-		loadNegationLexicon(modifierLexicons[0]);
-		loadIntensifierLexicon(modifierLexicons[1]);
-		loadDiminisherLexicon(modifierLexicons[2]);
+		// loads lexica, they are shared with the other modifier detection methods
+		negationLexicon = Lexicon.load(modifierLexicons[0]);
+		intensifierLexicon = Lexicon.load(modifierLexicons[1]);
+		diminisherLexicon = Lexicon.load(modifierLexicons[2]);
 	}
 
 	/**
@@ -50,83 +52,44 @@ public class ModDetect_NextN {
 	 * @param n
 	 *            Modifies next n tokens after a modifier has occured.
 	 */
-	public void annotateNextN(ArrayList<Tweet> corpus, int n) {
+	public void annotateNextN(Collection<Tweet> corpus, int n) {
 		// Create iterator to iterate over corpus.
 		Iterator<Tweet> tweetIter = corpus.iterator();
 		// Needed to show percentage done.
 		int numberOfTweets = corpus.size();
 		int numberOfTweetsFinished = 0;
 		byte percentageDone = 0;
-		// Loads a list that contains all adversative conjunction words and end of line characters.
-		ArrayList<String> conjunctions = loadConjunctions();
 		// Iterate over the to be annotated corpus.
 		while (tweetIter.hasNext()) {
-			// Defines how many next words have to be modified.
-			int modifyCounter = 0;
-			// Says if next words are negated(1), intensified(2), diminished(3).
-			int modifierType = 0;
 			// Retrieve next Tweet form corpus.
-			Tweet tweet = tweetIter.next();
-			// Iterate over the token list of the current Tweet.
-			Iterator<Token> tokenIter = tweet.getTokenList().iterator();
-			// Stores the current modifier token.
-			Token currentModifierToken = null;
-			while (tokenIter.hasNext()) {
-				Token token = tokenIter.next();
-				// Check if token is a conjunction or end of line marker. If so, stop modifying by current modifier.
-				if (conjunctions.contains(token.getNormalizedTokenString())) {
-					modifyCounter = 0;
-				}
-				// Check if current token has to be modified.
-				if (modifyCounter > 0) {
-					if (!token.getNormalizedTokenString().startsWith("#") && !token.getNormalizedTokenString().startsWith("NEG_") && !token.getNormalizedTokenString().startsWith("INT_")
-							&& !token.getNormalizedTokenString().startsWith("DIM_")) {
-						// Add token to the "modifies list" of the current modifier token.
-						currentModifierToken.getModifies().add(token);
-						// Check if token is negated.
-						if (modifierType == 1) {
-							// Mark token as negated.
-							token.setNegated(true);
-							token.setNormalizedTokenString("NEG_" + token.getNormalizedTokenString());
-
-						}
-						// Check if token is intensified.
-						else if (modifierType == 2) {
-							token.setIntensified(true);
-							token.setNormalizedTokenString("INT_" + token.getNormalizedTokenString());
-
-						}
-						// Check if token is diminished.
-						else if (modifierType == 3) {
-							token.setDiminished(true);
-							token.setNormalizedTokenString("DIM_" + token.getNormalizedTokenString());
-						}
-					}
-					modifyCounter--;
-				}
-				// Check in modifier detection settings if negations are supposed to be considered.
-				// If so, check if negation lexicon contains current token string.
-				if (modifierDetectionSettings[0] && negationLexicon.contains(token.getNormalizedTokenString())) {
-					// Mark token as a negator.
-					token.setNegator(true);
-					// Store current negator token.
-					currentModifierToken = token;
-					// Set modifyCounter to n.
-					modifyCounter = n;
-					// Set modifierType to 1 -> negate next tokens.
-					modifierType = 1;
-				} else if (modifierDetectionSettings[1] && intensifierLexicon.contains(token.getNormalizedTokenString())) {
-					token.setIntensifier(true);
-					currentModifierToken = token;
-					modifyCounter = n;
-					modifierType = 2;
-				} else if (modifierDetectionSettings[2] && diminisherLexicon.contains(token.getNormalizedTokenString())) {
-					token.setDiminisher(true);
-					currentModifierToken = token;
-					modifyCounter = n;
-					modifierType = 3;
-				}
+			ArrayList<Token> tokenList = tweetIter.next().getTokenList();
+			// Find the modifier cues and modify the next n tokens after each cue.
+			annotate(tokenList, scan(tokenList), n);
+			// Calculates the percentage done and prints it to console.
+			numberOfTweetsFinished++;
+			if ((int) (((double) numberOfTweetsFinished / (double) numberOfTweets) * 100) >= percentageDone + 10) {
+				percentageDone = (byte) (((double) numberOfTweetsFinished / (double) numberOfTweets) * 100);
+				System.out.print(percentageDone + "% | ");
 			}
+		}
+	}
+
+	/**
+	 * Looks up the modifier cues and conjunctions of all Tweets. The result does not depend on n, so the Tweets can be annotated for several window sizes
+	 * with annotateNextN(corpus, scans, n) without looking up the tokens again. Has to be called before the Tweets are annotated.
+	 * 
+	 * @param corpus
+	 *            The to be annotated corpus.
+	 * @return Returns the cues of each Tweet in the order of the corpus.
+	 */
+	public ArrayList<CueScan> scanCues(Collection<Tweet> corpus) {
+		// Needed to show percentage done.
+		int numberOfTweets = corpus.size();
+		int numberOfTweetsFinished = 0;
+		byte percentageDone = 0;
+		ArrayList<CueScan> scans = new ArrayList<CueScan>(numberOfTweets);
+		for (Tweet tweet : corpus) {
+			scans.add(scan(tweet.getTokenList()));
 			// Calculates the percentage done and prints it to console.
 			numberOfTweetsFinished++;
 			if ((int) (((double) numberOfTweetsFinished / (double) numberOfTweets) * 100) >= percentageDone + 10) {
@@ -134,80 +97,183 @@ public class ModDetect_NextN {
 				System.out.print(percentageDone + "% | ");
 			}
 		}
+		return scans;
 	}
 
 	/**
-	 * Creates a list that contains all adversative conjunction words and end of line characters.
+	 * Annotates the Tweets for a window size using the cues found by scanCues(). The annotations of a previous window size (flags, modified tokens and
+	 * modifier prefixes) are removed first, so the Tweets can be annotated for any number of window sizes.
 	 * 
-	 * @return Returns a list that contains all adversative conjunction words and end of line characters.
+	 * @param corpus
+	 *            The to be annotated corpus. Has to be the corpus that has been passed to scanCues().
+	 * @param scans
+	 *            The cues of each Tweet returned by scanCues().
+	 * @param n
+	 *            Modifies next n tokens after a modifier has occured.
 	 */
-	private ArrayList<String> loadConjunctions() {
-		ArrayList<String> conjunctions = new ArrayList<String>();
-		conjunctions.add(".");
-		conjunctions.add("?");
-		conjunctions.add("!");
-		conjunctions.add("but");
-		conjunctions.add("however");
-		conjunctions.add("nevertheless");
-		conjunctions.add("yet");
-		conjunctions.add("though");
-		conjunctions.add("although");
-		conjunctions.add("still");
-		conjunctions.add("except");
-		return conjunctions;
+	public void annotateNextN(Collection<Tweet> corpus, List<CueScan> scans, int n) {
+		Iterator<CueScan> scanIter = scans.iterator();
+		for (Tweet tweet : corpus) {
+			ArrayList<Token> tokenList = tweet.getTokenList();
+			CueScan scan = scanIter.next();
+			// restore the tokens as they have been scanned
+			for (int i = 0; i < tokenList.size(); i++) {
+				Token token = tokenList.get(i);
+				token.setFlags((byte) 0);
+				token.clearModifies();
+				token.setNormalizedTokenString(Vocabulary.getString(scan.normalizedTokenIDs[i]));
+			}
+			annotate(tokenList, scan, n);
+		}
 	}
 
 	/**
-	 * Loads the negation lexicon.
+	 * Looks up the modifier cues and conjunctions of a token list.
 	 * 
-	 * @param negationLexicon
-	 *            File that contains all negating words.
-	 * @throws IOException
-	 *             Throws exception if the negation lexicon can not be found.
+	 * @param tokenList
+	 *            The token list of a Tweet.
+	 * @return Returns the cues of the token list.
 	 */
-	private void loadNegationLexicon(File negationLexicon) throws IOException {
-		BufferedReader input = new BufferedReader(new FileReader(negationLexicon));
-		String inputString = input.readLine();
-		while (inputString != null) {
-			this.negationLexicon.add(inputString);
-			inputString = input.readLine();
+	private CueScan scan(ArrayList<Token> tokenList) {
+		CueScan scan = new CueScan(tokenList.size());
+		for (int i = 0; i < tokenList.size(); i++) {
+			Token token = tokenList.get(i);
+			String tokenString = token.getNormalizedTokenString();
+			scan.normalizedTokenIDs[i] = token.getNormalizedTokenID();
+			byte info = 0;
+			// Check if token is a conjunction or end of line marker.
+			if (conjunctions.contains(token)) {
+				info |= CueScan.CONJUNCTION;
+			}
+			// Hashtags and tokens that already are modified are not modified.
+			if (!tokenString.startsWith("#") && !tokenString.startsWith("NEG_") && !tokenString.startsWith("INT_") && !tokenString.startsWith("DIM_")) {
+				info |= CueScan.MODIFIABLE;
+			}
+			// Check in modifier detection settings which modifier types are supposed to be considered.
+			// If so, check if a cue of this type starts at the current token.
+			int cueLength;
+			if (modifierDetectionSettings[0] && (cueLength = negationLexicon.matchLength(tokenList, i)) > 0) {
+				info |= 1;
+			} else if (modifierDetectionSettings[1] && (cueLength = intensifierLexicon.matchLength(tokenList, i)) > 0) {
+				info |= 2;
+			} else if (modifierDetectionSettings[2] && (cueLength = diminisherLexicon.matchLength(tokenList, i)) > 0) {
+				info |= 3;
+			} else {
+				cueLength = 0;
+			}
+			scan.info[i] = info;
+			scan.cueLengths[i] = (byte) Math.min(cueLength, Byte.MAX_VALUE);
 		}
-		input.close();
+		return scan;
 	}
 
 	/**
-	 * Loads the intensifier lexicon.
+	 * Modifies the next n tokens after each modifier cue of a token list.
 	 * 
-	 * @param intensifierLexicon
-	 *            File that contains all intensifying words.
-	 * @throws IOException
-	 *             Throws exception if the intensifier lexicon can not be found.
+	 * @param tokenList
+	 *            The token list of a Tweet.
+	 * @param scan
+	 *            The cues of the token list.
+	 * @param n
+	 *            Modifies next n tokens after a modifier has occured.
 	 */
-	private void loadIntensifierLexicon(File intensifierLexicon) throws IOException {
-		BufferedReader input = new BufferedReader(new FileReader(intensifierLexicon));
-		String inputString = input.readLine();
-		while (inputString != null) {
-			this.intensifierLexicon.add(inputString);
-			inputString = input.readLine();
+	private void annotate(ArrayList<Token> tokenList, CueScan scan, int n) {
+		// Defines how many next words have to be modified.
+		int modifyCounter = 0;
+		// Says if next words are negated(1), intensified(2), diminished(3).
+		int modifierType = 0;
+		// Stores the current modifier token.
+		Token currentModifierToken = null;
+		for (int i = 0; i < tokenList.size(); i++) {
+			Token token = tokenList.get(i);
+			// Check if token is a conjunction or end of line marker. If so, stop modifying by current modifier.
+			if ((scan.info[i] & CueScan.CONJUNCTION) != 0) {
+				modifyCounter = 0;
+			}
+			// Check if current token has to be modified.
+			boolean modified = false;
+			if (modifyCounter > 0) {
+				if ((scan.info[i] & CueScan.MODIFIABLE) != 0) {
+					// Add token to the "modifies list" of the current modifier token.
+					currentModifierToken.addModifies(token);
+					// Check if token is negated.
+					if (modifierType == 1) {
+						// Mark token as negated.
+						token.setNegated(true);
+						token.setNormalizedTokenString("NEG_" + token.getNormalizedTokenString());
+					}
+					// Check if token is intensified.
+					else if (modifierType == 2) {
+						token.setIntensified(true);
+						token.setNormalizedTokenString("INT_" + token.getNormalizedTokenString());
+					}
+					// Check if token is diminished.
+					else if (modifierType == 3) {
+						token.setDiminished(true);
+						token.setNormalizedTokenString("DIM_" + token.getNormalizedTokenString());
+					}
+					modified = true;
+				}
+				modifyCounter--;
+			}
+			// A modified token has a modifier prefix now, so it is no cue (the lexicons contain no prefixed words).
+			// Otherwise check if a cue starts at the current token. The tokens of a multi-word cue are all marked as modifiers.
+			int cueType = scan.info[i] & CueScan.CUE_TYPE;
+			if (!modified && cueType != 0) {
+				int cueLength = scan.cueLengths[i];
+				for (int j = i; j < i + cueLength; j++) {
+					if (cueType == 1) {
+						// Mark the cue tokens as negators.
+						tokenList.get(j).setNegator(true);
+					} else if (cueType == 2) {
+						tokenList.get(j).setIntensifier(true);
+					} else {
+						tokenList.get(j).setDiminisher(true);
+					}
+				}
+				// Store current modifier token.
+				currentModifierToken = token;
+				// Set modifyCounter to n.
+				modifyCounter = n;
+				// Set modifierType -> negate(1), intensify(2) or diminish(3) next tokens.
+				modifierType = cueType;
+				// The scope starts after the last token of the cue.
+				i += cueLength - 1;
+			}
 		}
-		input.close();
 	}
 
 	/**
-	 * Loads the diminisher lexicon.
+	 * Creates a lexicon that contains all adversative conjunction words and end of line characters.
 	 * 
-	 * @param diminisherLexicon
-	 *            File that contains all diminishing words.
-	 * @throws IOException
-	 *             Throws exception if the diminisher lexicon can not be found.
+	 * @return Returns a lexicon that contains all adversative conjunction words and end of line characters.
+	 */
+	private static Lexicon loadConjunctions() {
+		return new Lexicon(Arrays.asList(".", "?", "!", "but", "however", "nevertheless", "yet", "though", "although", "still", "except"));
+	}
+
+	/**
+	 * Modifier cues and conjunctions of the tokens of a Tweet, found by looking up the tokens in the lexicons once. The annotation for a window size n
+	 * is derived from it by a single pass over the token list, without any lexicon lookups.
 	 */
-	private void loadDiminisherLexicon(File diminisherLexicon) throws IOException {
-		BufferedReader input = new BufferedReader(new FileReader(diminisherLexicon));
-		String inputString = input.readLine();
-		while (inputString != null) {
-			this.diminisherLexicon.add(inputString);
-			inputString = input.readLine();
+	public static class CueScan {
+
+		// Bits of the info byte of a token. The lowest two bits are the type of the cue that starts at the token (0 = none, 1 = negation,
+		// 2 = intensifier, 3 = diminisher).
+		private static final byte CUE_TYPE = 3;
+		private static final byte CONJUNCTION = 4;
+		private static final byte MODIFIABLE = 8;
+
+		// Normalized token IDs before the annotation.
+		private int[] normalizedTokenIDs;
+		private byte[] info;
+		// Number of tokens of the cue that starts at each token.
+		private byte[] cueLengths;
+
+		private CueScan(int numberOfTokens) {
+			normalizedTokenIDs = new int[numberOfTokens];
+			info = new byte[numberOfTokens];
+			cueLengths = new byte[numberOfTokens];
 		}
-		input.close();
 	}
 }
@@ -6,6 +6,7 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -19,12 +20,9 @@ import de.bwaldvogel.liblinear.Parameter;
 import de.bwaldvogel.liblinear.Problem;
 import de.bwaldvogel.liblinear.SolverType;
 import edu.stanford.nlp.ling.CoreAnnotations.PartOfSpeechAnnotation;
-import edu.stanford.nlp.ling.CoreAnnotations.SentencesAnnotation;
 import edu.stanford.nlp.ling.CoreAnnotations.TokensAnnotation;
 import edu.stanford.nlp.ling.CoreLabel;
 import edu.stanford.nlp.ling.IndexedWord;
-import edu.stanford.nlp.pipeline.Annotation;
-import edu.stanford.nlp.pipeline.StanfordCoreNLP;
 import edu.stanford.nlp.semgraph.SemanticGraph;
 import edu.stanford.nlp.semgraph.SemanticGraphCoreAnnotations.EnhancedDependenciesAnnotation;
 import edu.stanford.nlp.semgraph.SemanticGraphEdge;
@@ -38,11 +36,11 @@ import edu.stanford.nlp.util.CoreMap;
 public class ModDetect_SVM {
 
 	// Stores all words in the negation lexicon.
-	private ArrayList<String> negationLexicon = new ArrayList<String>();
+	private Lexicon negationLexicon;
 	// Stores all words in the intensifier lexicon.
-	private ArrayList<String> intensifierLexicon = new ArrayList<String>();
+	private Lexicon intensifierLexicon;
 	// Stores all words in the diminisher lexicon.
-	private ArrayList<String> diminisherLexicon = new ArrayList<String>();
+	private Lexicon diminisherLexicon;
 
 	// Stores settings for the modifier detection.
 	private boolean[] modifierDetectionSettings;
@@ -52,6 +50,8 @@ public class ModDetect_SVM {
 	private Corpus handAnnotatedTweetsCorpus;
 	private double eps;
 	private double C;
+	// Parses the Tweets, reads the parses from the parse cache if possible.
+	private TweetParser parser;
 
 	/**
 	 * Loads modifier lexicons.
@@ -68,20 +68,30 @@ public class ModDetect_SVM {
 	 *            Stopping criteria.
 	 * @param C
 	 *            Costs of constraint violation.
+	 * @param parseCache
+	 *            Cache of the dependency parses (null = no cache).
+	 * @param parserThreads
+	 *            Number of threads that parse the Tweets.
+	 * @param parserBatchSize
+	 *            Number of Tweets that are scheduled for parsing at once.
 	 * @throws Exception
 	 *             Throws exception if the lexicons can not be read.
 	 */
-	public ModDetect_SVM(File[] modifierLexicons, boolean[] modifierDetectionSettings, File[] trainingFiles, Corpus handAnnotatedTweetsCorpus, double eps, double C) throws Exception {
+	public ModDetect_SVM(File[] modifierLexicons, boolean[] modifierDetectionSettings, File[] trainingFiles, Corpus handAnnotatedTweetsCorpus, double eps, double C,
+			ParseCache parseCache, int parserThreads, int parserBatchSize) throws Exception {
 		this.modifierDetectionSettings = modifierDetectionSettings;
 		this.trainingFiles = trainingFiles;
 		this.handAnnotatedTweetsCorpus = handAnnotatedTweetsCorpus;
 		this.eps = eps;
 		this.C = C;
 
-		// loads lexica
-		loadNegationLexicon(modifierLexicons[0]);
-		loadIntensifierLexicon(modifierLexicons[1]);
-		loadDiminisherLexicon(modifierLexicons[2]);
+		// loads lexica, they are shared with the other modifier detection methods
+		negationLexicon = Lexicon.load(modifierLexicons[0]);
+		intensifierLexicon = Lexicon.load(modifierLexicons[1]);
+		diminisherLexicon = Lexicon.load(modifierLexicons[2]);
+		Properties props = new Properties();
+		props.put("annotators", "tokenize, ssplit, pos, parse, depparse");
+		parser = new TweetParser(props, parseCache, parserThreads, parserBatchSize);
 	}
 
 	/**
@@ -92,7 +102,7 @@ public class ModDetect_SVM {
 	 * @throws IOException
 	 *             Throws exception if the training data is corrupt.
 	 */
-	public void annotateSVM(ArrayList<Tweet> corpus) throws IOException {
+	public void annotateSVM(Collection<Tweet> corpus) throws IOException {
 		// Start SVM training if no models are present.
 		if (svmModels == null) {
 			System.out.println("No SVM models existing! Start SVM training...");
@@ -105,37 +115,36 @@ public class ModDetect_SVM {
 		int numberOfSentencesFinished = 0;
 		byte percentageDone = 0;
 
-		// Create CoreNLP annotation pipeline.
-		Properties props = new Properties();
-		props.put("annotators", "tokenize, ssplit, pos, parse, depparse");
-		StanfordCoreNLP pipeline = new StanfordCoreNLP(props);
-		// Iterate over the to be annotated corpus.
-		Iterator<Tweet> tweetIter = corpus.iterator();
-		while (tweetIter.hasNext()) {
-			// Retrieve next Tweet.
-			Tweet currentTweet = tweetIter.next();
-			// Retrieve token list of the current Tweet.
-			ArrayList<Token> tokenList = currentTweet.getTokenList();
-			// Annotate modifier cues in the current Tweet.
-			ArrayList<ArrayList<Integer>> modifierTokensIndices = annotateModifierCues(tokenList);
-			// Create an empty Annotation just with the given text.
-			Annotation document = new Annotation(currentTweet.getOriginalText());
-			// Run all Annotators on this text.
-			pipeline.annotate(document);
-			// These are all the sentences in this document.
-			List<CoreMap> sentences = document.get(SentencesAnnotation.class);
-			// Iterate over current token list.
-			for (int i = 0; i < tokenList.size(); i++) {
-				// Annotate modifier scope.
-				predict(tokenList, i, modifierTokensIndices, sentences);
-			}
+		// The Tweets are parsed in parallel, the parses are returned in the order of the corpus. The texts are only read as far as the parses are scheduled.
+		TweetParser.ParseQueue parses = parser.parseAll(corpus.stream().map(Tweet::getOriginalText).iterator());
+		try {
+			// Iterate over the to be annotated corpus.
+			Iterator<Tweet> tweetIter = corpus.iterator();
+			while (tweetIter.hasNext()) {
+				// Retrieve next Tweet.
+				Tweet currentTweet = tweetIter.next();
+				// Retrieve token list of the current Tweet.
+				ArrayList<Token> tokenList = currentTweet.getTokenList();
+				// Annotate modifier cues in the current Tweet.
+				ArrayList<ArrayList<Integer>> modifierTokensIndices = annotateModifierCues(tokenList);
+				// Retrieve the parse of the text. These are all the sentences of the Tweet.
+				List<CoreMap> sentences = parses.next();
+				// Iterate over current token list.
+				for (int i = 0; i < tokenList.size(); i++) {
+					// Annotate modifier scope.
+					predict(tokenList, i, modifierTokensIndices, sentences);
+				}
 
-			// Calculate percentage done and print it to console.
-			numberOfSentencesFinished++;
-			if ((int) (((double) numberOfSentencesFinished / (double) numberOfSentences) * 100) >= percentageDone + 10) {
-				percentageDone = (byte) (((double) numberOfSentencesFinished / (double) numberOfSentences) * 100);
-				System.out.print(percentageDone + "% | ");
+				// Calculate percentage done and print it to console.
+				numberOfSentencesFinished++;
+				if ((int) (((double) numberOfSentencesFinished / (double) numberOfSentences) * 100) >= percentageDone + 10) {
+					percentageDone = (byte) (((double) numberOfSentencesFinished / (double) numberOfSentences) * 100);
+					System.out.print(percentageDone + "% | ");
+				}
 			}
+		} finally {
+			// stops the parses that are still scheduled if the annotation fails
+			parses.close();
 		}
 	}
 
@@ -157,13 +166,13 @@ public class ModDetect_SVM {
 		while (tokenIter.hasNext()) {
 			// Annotated modifier cues and store their indices.
 			Token currentToken = tokenIter.next();
-			if (negationLexicon.contains(currentToken.getNormalizedTokenString())) {
+			if (negationLexicon.contains(currentToken)) {
 				currentToken.setNegator(true);
 				negCues.add(counter);
-			} else if (intensifierLexicon.contains(currentToken.getNormalizedTokenString())) {
+			} else if (intensifierLexicon.contains(currentToken)) {
 				currentToken.setIntensifier(true);
 				intCues.add(counter);
-			} else if (diminisherLexicon.contains(currentToken.getNormalizedTokenString())) {
+			} else if (diminisherLexicon.contains(currentToken)) {
 				currentToken.setDiminisher(true);
 				dimCues.add(counter);
 			}
@@ -500,11 +509,9 @@ public class ModDetect_SVM {
 		Model[] models = new Model[3];
 		// Retrieve a HashMap that contains all Tweets as values with their corresponding ID as the key.
 		// This allows us to retrieve the Tweet object with the Tweet ID extracted from the hand annotations.
-		HashMap<String, Tweet> tweets = createHashMap();
-		// Create CoreNLP annotation pipeline.
-		Properties props = new Properties();
-		props.put("annotators", "tokenize, ssplit, pos, parse, depparse");
-		StanfordCoreNLP pipeline = new StanfordCoreNLP(props);
+		HashMap<Object, Tweet> tweets = createHashMap();
+		// Stores the sentences of each Tweet by its ID. A Tweet has annotations for several tokens and SVM, but it is only parsed once.
+		HashMap<String, List<CoreMap>> parsedTweets = new HashMap<String, List<CoreMap>>();
 		for (int i = 0; i < 3; i++) {
 			// Creates a new problem.
 			Problem problem = new Problem();
@@ -535,13 +542,13 @@ public class ModDetect_SVM {
 				String[] data = { annotationData[0], annotationData[1] };
 				trainDataTweetIDs.add(data);
 				// Retrieve Tweet object.
-				Tweet currentTweet = tweets.get(annotationData[0]);
-				// Create empty annotation just with the given text.
-				Annotation document = new Annotation(currentTweet.getOriginalText());
-				// Run all annotators on this text.
-				pipeline.annotate(document);
-				// These are all the sentences in this document.
-				List<CoreMap> sentences = document.get(SentencesAnnotation.class);
+				Tweet currentTweet = tweets.get(Tweet.createIDKey(annotationData[0]));
+				// Parse the text if the Tweet has not been parsed yet. These are all the sentences of the Tweet.
+				List<CoreMap> sentences = parsedTweets.get(annotationData[0]);
+				if (sentences == null) {
+					sentences = parser.parse(currentTweet.getOriginalText());
+					parsedTweets.put(annotationData[0], sentences);
+				}
 				// Annotate the modifier cues in the current Tweet.
 				ArrayList<ArrayList<Integer>> modifierTokens = annotateModifierCues(currentTweet.getTokenList());
 				// Create feature nodes for current Tweet.
@@ -611,7 +618,7 @@ public class ModDetect_SVM {
 	 * @throws Exception
 	 *             Throws exception if the training data is corrupt.
 	 */
-	private double findBestC(Problem problem, SolverType solver, int modifierType, File trainingFile, HashMap<String, Tweet> tweets, ArrayList<String[]> trainDataTweetIDs) throws Exception {
+	private double findBestC(Problem problem, SolverType solver, int modifierType, File trainingFile, HashMap<Object, Tweet> tweets, ArrayList<String[]> trainDataTweetIDs) throws Exception {
 		double bestCoarseExponent = 0;
 		double bestF1 = 0;
 		// This variable will store the predictions retrieved by the cross-validation.
@@ -626,7 +633,7 @@ public class ModDetect_SVM {
 			for (int j = 0; j < problem.l; j++) {
 				String TweetID = trainDataTweetIDs.get(j)[0];
 				int tokenIndex = Integer.parseInt(trainDataTweetIDs.get(j)[1]);
-				Tweet tweet = tweets.get(TweetID);
+				Tweet tweet = tweets.get(Tweet.createIDKey(TweetID));
 				Token token = tweet.getTokenList().get(tokenIndex);
 				if (target[j] == 1) {
 					if (modifierType == 0) {
@@ -655,7 +662,7 @@ public class ModDetect_SVM {
 			for (int j = 0; j < problem.l; j++) {
 				String TweetID = trainDataTweetIDs.get(j)[0];
 				int tokenIndex = Integer.parseInt(trainDataTweetIDs.get(j)[1]);
-				Tweet tweet = tweets.get(TweetID);
+				Tweet tweet = tweets.get(Tweet.createIDKey(TweetID));
 				Token token = tweet.getTokenList().get(tokenIndex);
 				if (target[j] == 1) {
 					if (modifierType == 0) {
@@ -732,14 +739,14 @@ public class ModDetect_SVM {
 	 * Creates a HashMap containing all Tweets from the 'handAnnotatedTweetsCorpus' with their corresponding TweetID as the key. This allows to easily retrieve
 	 * a Tweet object with its ID.
 	 * 
-	 * @return Returns a HashMap containing all Tweets from the 'handAnnotatedTweetsCorpus' with their corresponding TweetID as the key.
+	 * @return Returns a HashMap containing all Tweets from the 'handAnnotatedTweetsCorpus' with the key of their TweetID (see Tweet.getIDKey()).
 	 */
-	private HashMap<String, Tweet> createHashMap() {
-		ArrayList<Tweet> handAnnotatedTweets = handAnnotatedTweetsCorpus.getTestSet();
-		HashMap<String, Tweet> tweets = new HashMap<String, Tweet>();
+	private HashMap<Object, Tweet> createHashMap() {
+		List<Tweet> handAnnotatedTweets = handAnnotatedTweetsCorpus.getTestSet();
+		HashMap<Object, Tweet> tweets = new HashMap<Object, Tweet>();
 		for (int i = 0; i < handAnnotatedTweets.size(); i++) {
 			Tweet tweet = handAnnotatedTweets.get(i);
-			tweets.put(tweet.getID(), tweet);
+			tweets.put(tweet.getIDKey(), tweet);
 		}
 		return tweets;
 	}
@@ -765,60 +772,6 @@ public class ModDetect_SVM {
 		return readData;
 	}
 
-	/**
-	 * Loads the negation lexicon.
-	 * 
-	 * @param negationLexicon
-	 *            File that contains all negating words.
-	 * @throws IOException
-	 *             Throws exception if the negation lexicon can not be found
-	 */
-	private void loadNegationLexicon(File negationLexicon) throws IOException {
-		BufferedReader input = new BufferedReader(new FileReader(negationLexicon));
-		String inputString = input.readLine();
-		while (inputString != null) {
-			this.negationLexicon.add(inputString);
-			inputString = input.readLine();
-		}
-		input.close();
-	}
-
-	/**
-	 * Loads the intensifier lexicon.
-	 * 
-	 * @param intensifierLexicon
-	 *            File that contains all intensifying words.
-	 * @throws IOException
-	 *             Throws exception if the intensifier lexicon can not be found
-	 */
-	private void loadIntensifierLexicon(File intensifierLexicon) throws IOException {
-		BufferedReader input = new BufferedReader(new FileReader(intensifierLexicon));
-		String inputString = input.readLine();
-		while (inputString != null) {
-			this.intensifierLexicon.add(inputString);
-			inputString = input.readLine();
-		}
-		input.close();
-	}
-
-	/**
-	 * Loads the diminisher lexicon.
-	 * 
-	 * @param diminisherLexicon
-	 *            File that contains all diminishing words.
-	 * @throws IOException
-	 *             Throws exception if the diminisher lexicon can not be found
-	 */
-	private void loadDiminisherLexicon(File diminisherLexicon) throws IOException {
-		BufferedReader input = new BufferedReader(new FileReader(diminisherLexicon));
-		String inputString = input.readLine();
-		while (inputString != null) {
-			this.diminisherLexicon.add(inputString);
-			inputString = input.readLine();
-		}
-		input.close();
-	}
-
 	/**
 	 * 
 	 * @return Returns the value of the paramert C.
@@ -0,0 +1,109 @@
+package strohmfn;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache from token strings to their normalized (and stemmed) strings. Most tokens of a corpus are repetitions of a small number of words, so the
+ * normalization and the Porter stemmer only have to run once per distinct token string. The cache can be used by several threads at the same time. If it
+ * is full, a quarter of the entries is evicted by the second chance (clock) strategy: entries that have been used since the last eviction are kept, so
+ * the frequent token strings stay cached while rare token strings can not let it grow without limit.
+ *
+ * @author strohmfn
+ *
+ */
+public class NormalizationCache {
+
+	// Default maximum number of cached token strings.
+	public static final int DEFAULT_CAPACITY = 1 << 18;
+
+	private final ConcurrentHashMap<String, Entry> normalizedStrings;
+	private final int capacity;
+
+	public NormalizationCache() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 *
+	 * @param capacity
+	 *            Maximum number of cached token strings.
+	 */
+	public NormalizationCache(int capacity) {
+		this.capacity = capacity;
+		this.normalizedStrings = new ConcurrentHashMap<String, Entry>(Math.min(capacity, 1 << 12));
+	}
+
+	/**
+	 *
+	 * @param tokenString
+	 *            The original token string.
+	 * @return Returns the cached normalized string of the token string or null if it is not cached.
+	 */
+	public String get(String tokenString) {
+		Entry entry = normalizedStrings.get(tokenString);
+		if (entry == null) {
+			return null;
+		}
+		// only written if it changes, so frequent token strings do not cause writes
+		if (!entry.used) {
+			entry.used = true;
+		}
+		return entry.normalizedString;
+	}
+
+	/**
+	 * Adds the normalized string of a token string to the cache. Entries are evicted first if the cache is full.
+	 *
+	 * @param tokenString
+	 *            The original token string.
+	 * @param normalizedString
+	 *            The normalized string of the token string.
+	 */
+	public void put(String tokenString, String normalizedString) {
+		if (normalizedStrings.size() >= capacity) {
+			evict();
+		}
+		normalizedStrings.put(tokenString, new Entry(normalizedString));
+	}
+
+	/**
+	 * Removes entries until the cache is filled to three quarters. Entries that have been used since the last eviction get a second chance: they are only
+	 * marked as unused.
+	 */
+	private synchronized void evict() {
+		int targetSize = capacity - capacity / 4;
+		// another thread could have evicted the entries in the meantime
+		while (normalizedStrings.size() > targetSize) {
+			Iterator<Entry> entryIter = normalizedStrings.values().iterator();
+			while (entryIter.hasNext() && normalizedStrings.size() > targetSize) {
+				Entry entry = entryIter.next();
+				if (entry.used) {
+					entry.used = false;
+				} else {
+					entryIter.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @return Returns the number of cached token strings.
+	 */
+	public int size() {
+		return normalizedStrings.size();
+	}
+
+	/**
+	 * Cached normalized string and whether it has been used since the last eviction.
+	 */
+	private static class Entry {
+		private final String normalizedString;
+		private volatile boolean used = false;
+
+		private Entry(String normalizedString) {
+			this.normalizedString = normalizedString;
+		}
+	}
+}
@@ -0,0 +1,437 @@
+package strohmfn;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.stanford.nlp.international.Language;
+import edu.stanford.nlp.ling.CoreAnnotations.SentenceIndexAnnotation;
+import edu.stanford.nlp.ling.CoreAnnotations.TokensAnnotation;
+import edu.stanford.nlp.ling.CoreLabel;
+import edu.stanford.nlp.ling.IndexedWord;
+import edu.stanford.nlp.semgraph.SemanticGraph;
+import edu.stanford.nlp.semgraph.SemanticGraphCoreAnnotations.EnhancedDependenciesAnnotation;
+import edu.stanford.nlp.semgraph.SemanticGraphEdge;
+import edu.stanford.nlp.trees.GrammaticalRelation;
+import edu.stanford.nlp.util.ArrayCoreMap;
+import edu.stanford.nlp.util.CoreMap;
+
+/**
+ * Directory that caches the CoreNLP parses of Tweet texts across runs, so a Tweet is only parsed once. Each entry stores the POS tags and the enhanced
+ * dependency graph of each sentence of a text in a compact binary form. The entries are keyed by the hash of the text and the properties of the pipeline
+ * that parsed it (see createKey()).
+ *
+ * The size of the directory is bounded: if it is exceeded, the least recently used entries are deleted. The order of use is kept in memory and only
+ * written to the modification times of the entries by flush(), so reading an entry does not write to the directory. The cache can be used by several
+ * threads at the same time.
+ *
+ * @author strohmfn
+ *
+ */
+public class ParseCache {
+
+	// Changes whenever the format of the entries changes, so entries of an older version are never read.
+	private static final int VERSION = 1;
+	// Weight of the dependency edges created by CoreNLP. Only other weights are stored.
+	private static final double DEFAULT_WEIGHT = Double.NEGATIVE_INFINITY;
+	// Edge flags.
+	private static final int EXTRA = 1;
+	private static final int WEIGHTED = 2;
+
+	private File directory;
+	// Maximum size of all entries in bytes.
+	private long maxSize;
+	// Size of each entry by its key, the least recently used entry first.
+	private LinkedHashMap<String, Long> entries = new LinkedHashMap<String, Long>(1024, 0.75f, true);
+	private long size = 0;
+	// Time of the last use of each entry that has been read since the last flush().
+	private HashMap<String, Long> useTimes = new HashMap<String, Long>();
+
+	/**
+	 * Opens the cache in a directory. The directory is created if it does not exist. The entries of a previous run are ordered by the time they have
+	 * been used last.
+	 *
+	 * @param directory
+	 *            The cache directory.
+	 * @param maxSize
+	 *            Maximum size of all entries in bytes.
+	 * @throws IOException
+	 *             Throws IO exception if the directory can not be created.
+	 */
+	public ParseCache(File directory, long maxSize) throws IOException {
+		this.directory = directory;
+		this.maxSize = maxSize;
+		Files.createDirectories(directory.toPath());
+		// the entries are distributed over sub directories by the first two characters of their key
+		ArrayList<File> files = new ArrayList<File>();
+		File[] subDirectories = directory.listFiles();
+		if (subDirectories != null) {
+			for (File subDirectory : subDirectories) {
+				File[] subDirectoryFiles = subDirectory.listFiles();
+				if (subDirectoryFiles == null) {
+					continue;
+				}
+				for (File file : subDirectoryFiles) {
+					if (file.getName().endsWith(".bin")) {
+						files.add(file);
+					} else if (file.getName().endsWith(".tmp")) {
+						// left by an interrupted run
+						file.delete();
+					}
+				}
+			}
+		}
+		final HashMap<File, Long> lastModified = new HashMap<File, Long>();
+		for (File file : files) {
+			lastModified.put(file, file.lastModified());
+		}
+		files.sort(new Comparator<File>() {
+			@Override
+			public int compare(File file1, File file2) {
+				return Long.compare(lastModified.get(file1), lastModified.get(file2));
+			}
+		});
+		for (File file : files) {
+			String name = file.getName();
+			entries.put(name.substring(0, name.length() - ".bin".length()), file.length());
+			size += file.length();
+		}
+		evict();
+	}
+
+	/**
+	 * Creates the key of a text. It covers the text and the properties of the pipeline, so a text parsed with other annotators or models has another key.
+	 *
+	 * @param configuration
+	 *            The properties of the pipeline, see PipelineProvider.createKey().
+	 * @param text
+	 *            The parsed text.
+	 * @return Returns the SHA-256 hash of the text and the configuration as hex string.
+	 */
+	public static String createKey(String configuration, String text) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		digest.update((VERSION + "|" + configuration + "|").getBytes(StandardCharsets.UTF_8));
+		digest.update(text.getBytes(StandardCharsets.UTF_8));
+		StringBuilder key = new StringBuilder();
+		byte[] hash = digest.digest();
+		for (int i = 0; i < hash.length; i++) {
+			key.append(String.format("%02x", hash[i]));
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Reads the sentences of an entry.
+	 *
+	 * @param key
+	 *            The key of the text, see createKey().
+	 * @return Returns the sentences of the text with their tokens (index and POS tag) and enhanced dependencies or null if the text is not cached.
+	 */
+	public List<CoreMap> get(String key) {
+		synchronized (this) {
+			// marks the entry as used
+			if (entries.get(key) == null) {
+				return null;
+			}
+		}
+		File file = getFile(key);
+		try {
+			List<CoreMap> sentences = decode(Files.readAllBytes(file.toPath()));
+			synchronized (this) {
+				if (entries.containsKey(key)) {
+					useTimes.put(key, System.currentTimeMillis());
+				}
+			}
+			return sentences;
+		} catch (IOException e) {
+			// the entry has been deleted or is damaged, the text is parsed again
+			remove(key);
+			return null;
+		}
+	}
+
+	/**
+	 * Adds the sentences of a text to the cache. The least recently used entries are deleted if the cache is full afterwards. The entry is written under
+	 * a temporary name first, so an interrupted run never leaves an incomplete entry.
+	 *
+	 * @param key
+	 *            The key of the text, see createKey().
+	 * @param sentences
+	 *            The sentences of the text annotated by CoreNLP.
+	 */
+	public void put(String key, List<CoreMap> sentences) {
+		File file = getFile(key);
+		File temporaryFile = new File(file.getPath() + "." + Thread.currentThread().getId() + ".tmp");
+		try {
+			byte[] data = encode(sentences);
+			Files.createDirectories(file.getParentFile().toPath());
+			Files.write(temporaryFile.toPath(), data);
+			Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			synchronized (this) {
+				Long previousSize = entries.put(key, (long) data.length);
+				useTimes.remove(key);
+				size += data.length - (previousSize == null ? 0 : previousSize);
+				evict();
+			}
+		} catch (IOException e) {
+			// the cache is only an optimization, the parse can still be used
+			temporaryFile.delete();
+		}
+	}
+
+	/**
+	 * Writes the time of the last use of each entry that has been read since the last call to its modification time, from which the order of the entries
+	 * is restored when the cache is opened again. Written entries already have the time they have been written.
+	 */
+	public synchronized void flush() {
+		for (Map.Entry<String, Long> useTime : useTimes.entrySet()) {
+			getFile(useTime.getKey()).setLastModified(useTime.getValue());
+		}
+		useTimes.clear();
+	}
+
+	/**
+	 * Removes an entry from the cache.
+	 *
+	 * @param key
+	 *            The key of the entry.
+	 */
+	private synchronized void remove(String key) {
+		Long entrySize = entries.remove(key);
+		useTimes.remove(key);
+		if (entrySize != null) {
+			size -= entrySize;
+			getFile(key).delete();
+		}
+	}
+
+	/**
+	 * Deletes the least recently used entries until the size of the cache is not larger than the maximum size.
+	 */
+	private synchronized void evict() {
+		Iterator<Map.Entry<String, Long>> entryIter = entries.entrySet().iterator();
+		while (size > maxSize && entryIter.hasNext()) {
+			Map.Entry<String, Long> entry = entryIter.next();
+			getFile(entry.getKey()).delete();
+			size -= entry.getValue();
+			useTimes.remove(entry.getKey());
+			entryIter.remove();
+		}
+	}
+
+	/**
+	 *
+	 * @param key
+	 *            The key of an entry.
+	 * @return Returns the file of the entry.
+	 */
+	private File getFile(String key) {
+		return new File(new File(directory, key.substring(0, 2)), key + ".bin");
+	}
+
+	/**
+	 *
+	 * @return Returns the number of cached texts.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Encodes the POS tags and the enhanced dependencies of sentences. All strings (POS tags and relations) are stored once in a table at the beginning,
+	 * the tokens and edges refer to them by their index.
+	 *
+	 * @param sentences
+	 *            The sentences annotated by CoreNLP.
+	 * @return Returns the encoded sentences.
+	 * @throws IOException
+	 *             Throws IO exception if a sentence is too long to be encoded.
+	 */
+	private static byte[] encode(List<CoreMap> sentences) throws IOException {
+		ArrayList<String> strings = new ArrayList<String>();
+		HashMap<String, Integer> stringIndices = new HashMap<String, Integer>();
+		ByteArrayOutputStream sentenceBytes = new ByteArrayOutputStream();
+		DataOutputStream output = new DataOutputStream(sentenceBytes);
+		writeCount(output, sentences.size());
+		for (CoreMap sentence : sentences) {
+			List<CoreLabel> tokens = sentence.get(TokensAnnotation.class);
+			writeCount(output, tokens.size());
+			for (CoreLabel token : tokens) {
+				writeCount(output, getStringIndex(String.valueOf(token.tag()), strings, stringIndices));
+			}
+			SemanticGraph dependencies = sentence.get(EnhancedDependenciesAnnotation.class);
+			List<IndexedWord> vertices = dependencies.vertexListSorted();
+			HashMap<IndexedWord, Integer> vertexIndices = new HashMap<IndexedWord, Integer>();
+			writeCount(output, vertices.size());
+			for (IndexedWord vertex : vertices) {
+				vertexIndices.put(vertex, vertexIndices.size());
+				writeCount(output, vertex.index());
+				writeCount(output, vertex.copyCount());
+			}
+			writeCount(output, dependencies.getRoots().size());
+			for (IndexedWord root : dependencies.getRoots()) {
+				writeCount(output, vertexIndices.get(root));
+			}
+			writeCount(output, dependencies.edgeCount());
+			for (SemanticGraphEdge edge : dependencies.edgeIterable()) {
+				writeCount(output, vertexIndices.get(edge.getGovernor()));
+				writeCount(output, vertexIndices.get(edge.getDependent()));
+				GrammaticalRelation relation = edge.getRelation();
+				writeCount(output, getStringIndex(relation.getLanguage().name() + " " + relation.toString(), strings, stringIndices));
+				boolean weighted = edge.getWeight() != DEFAULT_WEIGHT;
+				output.writeByte((edge.isExtra() ? EXTRA : 0) | (weighted ? WEIGHTED : 0));
+				if (weighted) {
+					output.writeDouble(edge.getWeight());
+				}
+			}
+		}
+		output.flush();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(sentenceBytes.size() + 16 * strings.size());
+		DataOutputStream entryOutput = new DataOutputStream(bytes);
+		writeCount(entryOutput, strings.size());
+		for (String string : strings) {
+			entryOutput.writeUTF(string);
+		}
+		sentenceBytes.writeTo(entryOutput);
+		entryOutput.flush();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Decodes sentences encoded by encode().
+	 *
+	 * @param data
+	 *            The encoded sentences.
+	 * @return Returns the sentences with their tokens (index and POS tag) and enhanced dependencies.
+	 * @throws IOException
+	 *             Throws IO exception if the data is damaged.
+	 */
+	private static List<CoreMap> decode(byte[] data) throws IOException {
+		DataInputStream input = new DataInputStream(new ByteArrayInputStream(data));
+		String[] strings = new String[input.readUnsignedShort()];
+		for (int i = 0; i < strings.length; i++) {
+			strings[i] = input.readUTF();
+		}
+		GrammaticalRelation[] relations = new GrammaticalRelation[strings.length];
+		try {
+			int numberOfSentences = input.readUnsignedShort();
+			ArrayList<CoreMap> sentences = new ArrayList<CoreMap>(numberOfSentences);
+			for (int sentenceIndex = 0; sentenceIndex < numberOfSentences; sentenceIndex++) {
+				int numberOfTokens = input.readUnsignedShort();
+				ArrayList<CoreLabel> tokens = new ArrayList<CoreLabel>(numberOfTokens);
+				for (int i = 1; i <= numberOfTokens; i++) {
+					CoreLabel token = new CoreLabel();
+					token.setIndex(i);
+					token.setSentIndex(sentenceIndex);
+					token.setTag(strings[input.readUnsignedShort()]);
+					tokens.add(token);
+				}
+				SemanticGraph dependencies = new SemanticGraph();
+				IndexedWord[] vertices = new IndexedWord[input.readUnsignedShort()];
+				for (int i = 0; i < vertices.length; i++) {
+					int index = input.readUnsignedShort();
+					int copyCount = input.readUnsignedShort();
+					CoreLabel token;
+					if (index >= 1 && index <= tokens.size()) {
+						token = tokens.get(index - 1);
+					} else {
+						token = new CoreLabel();
+						token.setIndex(index);
+						token.setSentIndex(sentenceIndex);
+					}
+					IndexedWord vertex = new IndexedWord(token);
+					if (copyCount > 0) {
+						vertex = vertex.makeSoftCopy(copyCount);
+					}
+					vertices[i] = vertex;
+					dependencies.addVertex(vertex);
+				}
+				int numberOfRoots = input.readUnsignedShort();
+				for (int i = 0; i < numberOfRoots; i++) {
+					dependencies.addRoot(vertices[input.readUnsignedShort()]);
+				}
+				int numberOfEdges = input.readUnsignedShort();
+				for (int i = 0; i < numberOfEdges; i++) {
+					IndexedWord governor = vertices[input.readUnsignedShort()];
+					IndexedWord dependent = vertices[input.readUnsignedShort()];
+					int relationIndex = input.readUnsignedShort();
+					if (relations[relationIndex] == null) {
+						String relation = strings[relationIndex];
+						int space = relation.indexOf(' ');
+						relations[relationIndex] = GrammaticalRelation.valueOf(Language.valueOf(relation.substring(0, space)), relation.substring(space + 1));
+					}
+					int flags = input.readByte();
+					double weight = (flags & WEIGHTED) != 0 ? input.readDouble() : DEFAULT_WEIGHT;
+					dependencies.addEdge(governor, dependent, relations[relationIndex], weight, (flags & EXTRA) != 0);
+				}
+				CoreMap sentence = new ArrayCoreMap(3);
+				sentence.set(SentenceIndexAnnotation.class, sentenceIndex);
+				sentence.set(TokensAnnotation.class, tokens);
+				sentence.set(EnhancedDependenciesAnnotation.class, dependencies);
+				sentences.add(sentence);
+			}
+			return sentences;
+		} catch (RuntimeException e) {
+			// e.g. an index out of bounds or an unknown relation
+			throw new IOException("Damaged parse cache entry", e);
+		}
+	}
+
+	/**
+	 * Writes a number that is stored in two bytes.
+	 *
+	 * @param output
+	 *            The output stream.
+	 * @param count
+	 *            The number.
+	 * @throws IOException
+	 *             Throws IO exception if the number is larger than 65535.
+	 */
+	private static void writeCount(DataOutputStream output, int count) throws IOException {
+		if (count < 0 || count > 0xFFFF) {
+			throw new IOException("Number can not be stored in the parse cache: " + count);
+		}
+		output.writeShort(count);
+	}
+
+	/**
+	 * Returns the index of a string in the string table of an entry. The string is added to the table if it is not part of it.
+	 *
+	 * @param string
+	 *            The string.
+	 * @param strings
+	 *            The string table.
+	 * @param stringIndices
+	 *            The index of each string of the table.
+	 * @return Returns the index of the string.
+	 */
+	private static int getStringIndex(String string, ArrayList<String> strings, HashMap<String, Integer> stringIndices) {
+		Integer index = stringIndices.get(string);
+		if (index == null) {
+			index = strings.size();
+			strings.add(string);
+			stringIndices.put(string, index);
+		}
+		return index;
+	}
+}
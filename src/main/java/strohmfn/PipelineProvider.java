@@ -0,0 +1,60 @@
+package strohmfn;
+
+import java.util.HashMap;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import edu.stanford.nlp.pipeline.StanfordCoreNLP;
+
+/**
+ * Provides the CoreNLP pipelines of the process. Creating a pipeline loads the models of its annotators (e.g. POS tagger and parsers), which takes a lot of
+ * time and memory. Therefore each pipeline is created once, when it is requested for the first time, and the same instance is returned for the same
+ * properties afterwards. The instances are kept for the whole process and can be used by several threads.
+ *
+ * @author strohmfn
+ *
+ */
+public class PipelineProvider {
+
+	// Pipelines that have been created, by their properties.
+	private static final HashMap<String, StanfordCoreNLP> pipelines = new HashMap<String, StanfordCoreNLP>();
+
+	/**
+	 * Returns the pipeline of the properties. The pipeline is created if it is requested for the first time.
+	 *
+	 * @param props
+	 *            The properties of the pipeline, e.g. the annotators.
+	 * @return Returns the shared pipeline of the properties.
+	 */
+	public static StanfordCoreNLP get(Properties props) {
+		String key = createKey(props);
+		synchronized (pipelines) {
+			StanfordCoreNLP pipeline = pipelines.get(key);
+			if (pipeline == null) {
+				// the properties are copied, so a later change by the caller does not affect the pipeline
+				Properties copy = new Properties();
+				for (String name : props.stringPropertyNames()) {
+					copy.setProperty(name, props.getProperty(name));
+				}
+				pipeline = new StanfordCoreNLP(copy);
+				pipelines.put(key, pipeline);
+			}
+			return pipeline;
+		}
+	}
+
+	/**
+	 * Creates the key of the properties. Properties with the same entries have the same key, regardless of their order.
+	 *
+	 * @param props
+	 *            The properties of a pipeline.
+	 * @return Returns all entries of the properties sorted by name.
+	 */
+	public static String createKey(Properties props) {
+		TreeMap<String, String> entries = new TreeMap<String, String>();
+		for (String name : props.stringPropertyNames()) {
+			entries.put(name, props.getProperty(name));
+		}
+		return entries.toString();
+	}
+}
@@ -1,5 +1,6 @@
 package strohmfn;
 
+import java.util.Arrays;
 import java.util.function.Function;
 
 import edu.stanford.nlp.ling.Word;
@@ -8,6 +9,9 @@ import edu.stanford.nlp.ling.Word;
  * Stemmer, implementing the Porter Stemming Algorithm The Stemmer class transforms a word into its root form. The input word can be provided a character at
  * time (by calling add()), or at once by calling one of the various stem(something) methods.
  *
+ * A Stemmer can be reused for any number of words. It must not be shared by several threads at the same time (use one Stemmer per thread). The stem()
+ * methods that take a CharSequence or a char[] slice do not allocate anything once the internal buffer is large enough for the longest word.
+ *
  * @author Sepandar Kamvar (sdkamvar@stanford.edu)
  */
 
@@ -25,17 +29,30 @@ public class Stemmer implements Function<Word, Word> {
 		i_end = 0;
 	}
 
+	/**
+	 * Discards the characters that have been added and the last result, so the next word can be stemmed.
+	 */
+	public void reset() {
+		i = 0;
+		i_end = 0;
+	}
+
+	/**
+	 * Makes sure that the buffer can hold at least the given number of characters. The buffer is at least doubled, so long words only cause a few copies.
+	 */
+	private void ensureCapacity(int capacity) {
+		if (capacity > b.length) {
+			b = Arrays.copyOf(b, Math.max(capacity, b.length * 2));
+		}
+	}
+
 	/**
 	 * Add a character to the word being stemmed. When you are finished adding characters, you can call stem(void) to stem the word.
 	 */
 
 	private void add(char ch) {
 		if (i == b.length) {
-			char[] new_b = new char[i + INC];
-			for (int c = 0; c < i; c++) {
-				new_b[c] = b[c];
-			}
-			b = new_b;
+			ensureCapacity(i + INC);
 		}
 		b[i++] = ch;
 	}
@@ -49,6 +66,22 @@ public class Stemmer implements Function<Word, Word> {
 		return new String(b, 0, i_end);
 	}
 
+	/**
+	 *
+	 * @return Returns the internal buffer. The stem of the last word are its first getResultLength() characters. It is overwritten by the next word.
+	 */
+	public char[] getResultBuffer() {
+		return b;
+	}
+
+	/**
+	 *
+	 * @return Returns the length of the stem of the last word.
+	 */
+	public int getResultLength() {
+		return i_end;
+	}
+
 	/* cons(i) is true <=> b[i] is a consonant. */
 	private final boolean cons(int i) {
 		switch (b[i]) {
@@ -523,16 +556,70 @@ public class Stemmer implements Function<Word, Word> {
 	}
 
 	/**
-	 * Stems <code>s</code> and returns stemmed <code>String</code>.
+	 * Stems <code>s</code> and returns stemmed <code>String</code>. If the stem is equal to <code>s</code>, <code>s</code> itself is returned.
 	 */
 
 	public String stem(String s) {
-		char[] characters = s.toCharArray();
-		for (char character : characters) {
-			add(character);
+		int length = stem(s, 0, s.length());
+		if (length == s.length() && isUnchanged(s)) {
+			return s;
 		}
+		return new String(b, 0, length);
+	}
+
+	/**
+	 * @return Returns true if the stem in the buffer is equal to the first characters of <code>s</code>.
+	 */
+	private boolean isUnchanged(CharSequence s) {
+		for (int c = 0; c < i_end; c++) {
+			if (b[c] != s.charAt(c)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Stems the characters <code>start</code> (inclusive) to <code>end</code> (exclusive) of <code>s</code>. The stem can be retrieved with
+	 * getResultBuffer() and getResultLength().
+	 *
+	 * @return Returns the length of the stem. It is never longer than the word.
+	 */
+	public int stem(CharSequence s, int start, int end) {
+		int length = end - start;
+		ensureCapacity(length);
+		for (int c = 0; c < length; c++) {
+			b[c] = s.charAt(start + c);
+		}
+		i = length;
+		stem();
+		return i_end;
+	}
+
+	/**
+	 * Stems the <code>length</code> characters of <code>word</code> that start at <code>offset</code>. The stem can be retrieved with getResultBuffer()
+	 * and getResultLength().
+	 *
+	 * @return Returns the length of the stem. It is never longer than the word.
+	 */
+	public int stem(char[] word, int offset, int length) {
+		ensureCapacity(length);
+		System.arraycopy(word, offset, b, 0, length);
+		i = length;
 		stem();
-		return toString();
+		return i_end;
+	}
+
+	/**
+	 * Stems the <code>length</code> characters of <code>word</code> that start at <code>offset</code> and copies the stem into <code>result</code>.
+	 * <code>word</code> and <code>result</code> may be the same array, so a word can be stemmed in place.
+	 *
+	 * @return Returns the length of the stem, which is the number of characters written to <code>result</code>.
+	 */
+	public int stem(char[] word, int offset, int length, char[] result, int resultOffset) {
+		int resultLength = stem(word, offset, length);
+		System.arraycopy(b, 0, result, resultOffset, resultLength);
+		return resultLength;
 	}
 
 	/**
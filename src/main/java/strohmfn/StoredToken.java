@@ -0,0 +1,157 @@
+package strohmfn;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * View of a token in a CorpusStore. All getters and setters read from and write to the store.
+ * 
+ * @author strohmfn
+ *
+ */
+public class StoredToken extends Token {
+
+	private static final long serialVersionUID = 1L;
+
+	private CorpusStore store;
+	private int index;
+	// The Tweet view this token belongs to. The modified tokens are taken from its token list.
+	private StoredTweet tweet;
+
+	public StoredToken(CorpusStore store, int index, StoredTweet tweet) {
+		this.store = store;
+		this.index = index;
+		this.tweet = tweet;
+	}
+
+	@Override
+	public byte getFlags() {
+		return store.getFlags(index);
+	}
+
+	@Override
+	public void setFlags(byte flags) {
+		store.setFlags(index, flags);
+	}
+
+	@Override
+	public boolean isNegator() {
+		return store.getFlag(index, NEGATOR);
+	}
+
+	@Override
+	public void setNegator(boolean isNegator) {
+		store.setFlag(index, NEGATOR, isNegator);
+	}
+
+	@Override
+	public boolean isIntensifier() {
+		return store.getFlag(index, INTENSIFIER);
+	}
+
+	@Override
+	public void setIntensifier(boolean isIntensifier) {
+		store.setFlag(index, INTENSIFIER, isIntensifier);
+	}
+
+	@Override
+	public boolean isDiminisher() {
+		return store.getFlag(index, DIMINISHER);
+	}
+
+	@Override
+	public void setDiminisher(boolean isDiminisher) {
+		store.setFlag(index, DIMINISHER, isDiminisher);
+	}
+
+	@Override
+	public boolean isNegated() {
+		return store.getFlag(index, NEGATED);
+	}
+
+	@Override
+	public void setNegated(boolean isNegated) {
+		store.setFlag(index, NEGATED, isNegated);
+	}
+
+	@Override
+	public boolean isIntensified() {
+		return store.getFlag(index, INTENSIFIED);
+	}
+
+	@Override
+	public void setIntensified(boolean isIntensified) {
+		store.setFlag(index, INTENSIFIED, isIntensified);
+	}
+
+	@Override
+	public boolean isDiminished() {
+		return store.getFlag(index, DIMINISHED);
+	}
+
+	@Override
+	public void setDiminished(boolean isDiminished) {
+		store.setFlag(index, DIMINISHED, isDiminished);
+	}
+
+	/**
+	 * 
+	 * @return Returns a read-only list containing all tokens that this token is modifying. The tokens are taken from the token list of the Tweet view.
+	 */
+	@Override
+	public List<Token> getModifies() {
+		if (store.getFirstLink(index) == -1) {
+			return Collections.emptyList();
+		}
+		ArrayList<Token> tokenList = tweet.getTokenList();
+		int offset = tweet.getTokenOffset();
+		ArrayList<Token> modifies = new ArrayList<Token>();
+		for (int link = store.getFirstLink(index); link != -1; link = store.getNextLink(link)) {
+			modifies.add(tokenList.get(store.getLinkTarget(link) - offset));
+		}
+		return Collections.unmodifiableList(modifies);
+	}
+
+	/**
+	 * Adds a link from this token to the modified token to the store.
+	 * 
+	 * @param token
+	 *            The modified token. Has to be a token of the same Tweet view.
+	 */
+	@Override
+	public void addModifies(Token token) {
+		if (!(token instanceof StoredToken) || ((StoredToken) token).tweet != tweet) {
+			throw new IllegalArgumentException("A token can only modify tokens of the same Tweet.");
+		}
+		store.addLink(index, ((StoredToken) token).index);
+	}
+
+	/**
+	 * Removes all links from this token to the tokens it modifies from the store.
+	 */
+	@Override
+	public void clearModifies() {
+		store.clearLinks(index);
+	}
+
+	@Override
+	public String getTokenString() {
+		return Vocabulary.getString(store.getTokenStringID(index));
+	}
+
+	@Override
+	public String getNormalizedTokenString() {
+		return Vocabulary.getString(store.getNormalizedTokenID(index));
+	}
+
+	@Override
+	public void setNormalizedTokenString(String normalizedTokenString) {
+		store.setNormalizedTokenID(index, Vocabulary.getID(normalizedTokenString));
+	}
+
+	@Override
+	public int getNormalizedTokenID() {
+		return store.getNormalizedTokenID(index);
+	}
+}
@@ -0,0 +1,103 @@
+package strohmfn;
+
+import java.util.ArrayList;
+
+/**
+ * View of a Tweet in a CorpusStore. All getters and setters read from and write to the store.
+ * 
+ * @author strohmfn
+ *
+ */
+public class StoredTweet extends Tweet {
+
+	private static final long serialVersionUID = 1L;
+
+	private CorpusStore store;
+	private int index;
+	// Views of the tokens, created when the token list is requested for the first time.
+	private ArrayList<Token> tokenList = null;
+
+	public StoredTweet(CorpusStore store, int index) {
+		this.store = store;
+		this.index = index;
+	}
+
+	/**
+	 * 
+	 * @return Returns an ArrayList that contains views of all tokens of this Tweet. Adding or removing tokens does not change the store.
+	 */
+	@Override
+	public ArrayList<Token> getTokenList() {
+		if (tokenList == null) {
+			int offset = store.getTokenOffset(index);
+			int count = store.getTokenCount(index);
+			tokenList = new ArrayList<Token>(count);
+			for (int i = 0; i < count; i++) {
+				tokenList.add(new StoredToken(store, offset + i, this));
+			}
+		}
+		return tokenList;
+	}
+
+	/**
+	 * 
+	 * @return Returns an array that contains the vocabulary IDs of the normalized strings of all tokens of this Tweet.
+	 */
+	@Override
+	public int[] getNormalizedTokenIDs() {
+		int offset = store.getTokenOffset(index);
+		int[] ids = new int[store.getTokenCount(index)];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = store.getNormalizedTokenID(offset + i);
+		}
+		return ids;
+	}
+
+	@Override
+	public String getGoldEmotion() {
+		return store.getGoldEmotion(index);
+	}
+
+	@Override
+	public String getPredictedEmotion() {
+		return store.getPredictedEmotion(index);
+	}
+
+	@Override
+	public void setPredictedEmotion(String predictedEmotion) {
+		store.setPredictedEmotion(index, predictedEmotion);
+	}
+
+	@Override
+	public String getOriginalText() {
+		return store.getOriginalText(index);
+	}
+
+	@Override
+	public int getMultiplicity() {
+		return store.getMultiplicity(index);
+	}
+
+	@Override
+	public void setMultiplicity(int multiplicity) {
+		store.setMultiplicity(index, multiplicity);
+	}
+
+	@Override
+	public String getID() {
+		return store.getTweetID(index);
+	}
+
+	@Override
+	public long getNumericID() {
+		return store.getNumericTweetID(index);
+	}
+
+	/**
+	 * 
+	 * @return Returns the index of the first token of this Tweet in the store.
+	 */
+	int getTokenOffset() {
+		return store.getTokenOffset(index);
+	}
+}
@@ -0,0 +1,261 @@
+package strohmfn;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * The training or the test set of a corpus file as a collection that is read from disk while it is iterated. Only one block of Tweets is kept in memory,
+ * so sets that are larger than the heap can be processed. Every iteration (or stream) is a new pass over the file.
+ *
+ * The Tweets are not written back when they are changed. To annotate a set, iterate over the parts of rewriteTo(), which writes every part to a new corpus
+ * file after it has been processed (see Control, annotateLoadedCorpus).
+ *
+ * Read errors are thrown as UncheckedIOException, because iterators can not throw checked exceptions.
+ *
+ * @author strohmfn
+ *
+ */
+public class StreamingCorpus extends AbstractCollection<Tweet> {
+
+	private CorpusFile corpusFile;
+	private int set;
+
+	/**
+	 * Opens a set of a corpus file.
+	 *
+	 * @param file
+	 *            The corpus file.
+	 * @param set
+	 *            CorpusFile.TRAINING_SET or CorpusFile.TEST_SET.
+	 * @throws IOException
+	 *             Throws exception if the file can not be read or is not a corpus file.
+	 */
+	public StreamingCorpus(File file, int set) throws IOException {
+		this(new CorpusFile(file), set);
+	}
+
+	/**
+	 * Opens a set of a corpus file.
+	 *
+	 * @param corpusFile
+	 *            The corpus file.
+	 * @param set
+	 *            CorpusFile.TRAINING_SET or CorpusFile.TEST_SET.
+	 */
+	public StreamingCorpus(CorpusFile corpusFile, int set) {
+		this.corpusFile = corpusFile;
+		this.set = set;
+	}
+
+	/**
+	 *
+	 * @return Returns the number of Tweets in the set. It is read from the header of the file.
+	 */
+	@Override
+	public int size() {
+		return corpusFile.getTweetCount(set);
+	}
+
+	/**
+	 *
+	 * @return Returns an iterator that reads the Tweets of the set block by block.
+	 */
+	@Override
+	public Iterator<Tweet> iterator() {
+		return new BlockIterator();
+	}
+
+	/**
+	 *
+	 * @return Returns a sized spliterator that reads the Tweets of the set block by block. Parallel streams split off batches of Tweets.
+	 */
+	@Override
+	public Spliterator<Tweet> spliterator() {
+		return Spliterators.spliterator(this, Spliterator.ORDERED | Spliterator.NONNULL);
+	}
+
+	/**
+	 *
+	 * @return Returns the number of Tweets per gold emotion in the set.
+	 */
+	public HashMap<String, Integer> getEmotionCounts() {
+		return corpusFile.getEmotionCounts(set);
+	}
+
+	/**
+	 * Returns the Tweets of this set in parts and writes them to a new corpus file while they are iterated. A part is written when the next part is
+	 * requested, so changes made to its Tweets in the meantime (e.g. by a modifier detection) are written as well. The other set is copied unchanged. The
+	 * file is complete when the iteration has finished.
+	 *
+	 * Only the current part is in memory, but the consumer gets all Tweets of a part at once and can process them in any order, e.g. parse them in
+	 * parallel.
+	 *
+	 * @param target
+	 *            The to be written corpus file. Must not be the file this set is read from.
+	 * @param partSize
+	 *            Number of Tweets of a part, only the last part can be smaller.
+	 * @param annotation
+	 *            Description of the settings the Tweets are annotated with, it is recorded in the new corpus file (see CorpusFile.getAnnotation()). The
+	 *            appended Tweets files of this file are recorded as well.
+	 * @return Returns the parts of the set, can be iterated once.
+	 */
+	public Iterable<List<Tweet>> rewriteTo(final File target, final int partSize, final String annotation) {
+		return new Iterable<List<Tweet>>() {
+
+			@Override
+			public Iterator<List<Tweet>> iterator() {
+				try {
+					return new RewriteIterator(target, partSize, annotation);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+		};
+	}
+
+	/**
+	 * Iterates over the Tweets of the set and reads the next block when the current one is finished.
+	 */
+	private class BlockIterator implements Iterator<Tweet> {
+
+		private CorpusFile.BlockReader reader;
+		private ArrayList<Tweet> block = new ArrayList<Tweet>();
+		private int position = 0;
+
+		@Override
+		public boolean hasNext() {
+			// the block is null when the end of the file has been reached
+			if (block == null) {
+				return false;
+			}
+			try {
+				while (position == block.size()) {
+					if (reader == null) {
+						reader = corpusFile.openBlockReader(set);
+					}
+					block = reader.readBlock();
+					position = 0;
+					if (block == null) {
+						reader.close();
+						reader = null;
+						return false;
+					}
+				}
+				return true;
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		@Override
+		public Tweet next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return block.get(position++);
+		}
+	}
+
+	/**
+	 * Iterates over the parts of the set and writes every returned part to the target file before the next one is returned.
+	 */
+	private class RewriteIterator implements Iterator<List<Tweet>> {
+
+		private int partSize;
+		private CorpusFile.BlockReader reader;
+		private CorpusFileWriter writer;
+		// The last returned part, it is not written yet.
+		private ArrayList<Tweet> current;
+		// The next part, it has been read by hasNext().
+		private ArrayList<Tweet> next;
+		// The last read block and the number of its Tweets that have been added to a part.
+		private ArrayList<Tweet> block = new ArrayList<Tweet>();
+		private int position = 0;
+
+		private RewriteIterator(File target, int partSize, String annotation) throws IOException {
+			this.partSize = Math.max(1, partSize);
+			writer = new CorpusFileWriter(target);
+			writer.setAnnotation(annotation);
+			for (long appendedFile : corpusFile.getAppendedFiles()) {
+				writer.addAppendedFile(appendedFile);
+			}
+			// keep the order of the sets
+			if (set == CorpusFile.TEST_SET) {
+				writer.addTweets(CorpusFile.TRAINING_SET, new StreamingCorpus(corpusFile, CorpusFile.TRAINING_SET));
+			}
+			reader = corpusFile.openBlockReader(set);
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (writer == null) {
+				return false;
+			}
+			try {
+				if (current != null) {
+					writer.addTweets(set, current);
+					current = null;
+				}
+				if (next == null) {
+					next = readPart();
+				}
+				if (next != null) {
+					return true;
+				}
+				reader.close();
+				if (set == CorpusFile.TRAINING_SET) {
+					writer.addTweets(CorpusFile.TEST_SET, new StreamingCorpus(corpusFile, CorpusFile.TEST_SET));
+				}
+				writer.close();
+				writer = null;
+				return false;
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		/**
+		 * Reads blocks until the part has partSize Tweets or the end of the set has been reached.
+		 *
+		 * @return Returns the next part or null if there are no more Tweets.
+		 * @throws IOException
+		 *             Throws exception if the file can not be read.
+		 */
+		private ArrayList<Tweet> readPart() throws IOException {
+			ArrayList<Tweet> part = new ArrayList<Tweet>();
+			while (part.size() < partSize) {
+				if (position == block.size()) {
+					block = reader.readBlock();
+					position = 0;
+					if (block == null) {
+						block = new ArrayList<Tweet>();
+						break;
+					}
+				}
+				int end = Math.min(block.size(), position + partSize - part.size());
+				part.addAll(block.subList(position, end));
+				position = end;
+			}
+			return part.isEmpty() ? null : part;
+		}
+
+		@Override
+		public List<Tweet> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			current = next;
+			next = null;
+			return current;
+		}
+	}
+}
@@ -1,6 +1,12 @@
 package strohmfn;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * 
@@ -10,20 +16,40 @@ import java.util.ArrayList;
 public class Token implements java.io.Serializable{
 
 	private static final long serialVersionUID = 1L;
+
+	// Bits of the packed flag byte of a token.
+	public static final byte NEGATOR = 1;
+	public static final byte INTENSIFIER = 2;
+	public static final byte DIMINISHER = 4;
+	public static final byte NEGATED = 8;
+	public static final byte INTENSIFIED = 16;
+	public static final byte DIMINISHED = 32;
 	
 	private String tokenString;
 	private String normalizedTokenString;
-	private boolean isNegator;
-	private boolean isIntensifier;
-	private boolean isDiminisher;
-	private boolean isNegated;
-	private boolean isIntensified;
-	private boolean isDiminished;
-	private ArrayList<Token> modifies = new ArrayList<Token>();
+	// ID of the normalized token string in the vocabulary. Is only valid within the running process, so it is not serialized.
+	private transient int normalizedTokenID;
+	// Negator, intensifier, diminisher, negated, intensified and diminished flags packed into one byte.
+	private byte flags;
+	// Is only allocated if the token modifies other tokens, which is rare.
+	private ArrayList<Token> modifies = null;
+
+	// The serialized form still contains the six boolean fields and the modifies list, so existing corpus files stay readable.
+	private static final ObjectStreamField[] serialPersistentFields = { new ObjectStreamField("tokenString", String.class),
+			new ObjectStreamField("normalizedTokenString", String.class), new ObjectStreamField("isNegator", boolean.class),
+			new ObjectStreamField("isIntensifier", boolean.class), new ObjectStreamField("isDiminisher", boolean.class),
+			new ObjectStreamField("isNegated", boolean.class), new ObjectStreamField("isIntensified", boolean.class),
+			new ObjectStreamField("isDiminished", boolean.class), new ObjectStreamField("modifies", ArrayList.class) };
+
+	/**
+	 * Used by tokens whose data is stored somewhere else (see CorpusStore).
+	 */
+	protected Token() {
+	}
 
 	public Token(String originalString, String normalizedString) {
 		this.tokenString = originalString;
-		this.normalizedTokenString = normalizedString;
+		setNormalizedTokenString(normalizedString);
 	}
 
 	/**
@@ -31,7 +57,7 @@ public class Token implements java.io.Serializable{
 	 * @return Returns if the token is a negator.
 	 */
 	public boolean isNegator() {
-		return isNegator;
+		return getFlag(NEGATOR);
 	}
 
 	/**
@@ -40,7 +66,7 @@ public class Token implements java.io.Serializable{
 	 *            Sets the variable isNegator to true or false.
 	 */
 	public void setNegator(boolean isNegator) {
-		this.isNegator = isNegator;
+		setFlag(NEGATOR, isNegator);
 	}
 
 	/**
@@ -48,7 +74,7 @@ public class Token implements java.io.Serializable{
 	 * @return Returns if the token is an intensifier.
 	 */
 	public boolean isIntensifier() {
-		return isIntensifier;
+		return getFlag(INTENSIFIER);
 	}
 
 	/**
@@ -57,7 +83,7 @@ public class Token implements java.io.Serializable{
 	 *            Sets the variable isIntensifier to true or false.
 	 */
 	public void setIntensifier(boolean isIntensifier) {
-		this.isIntensifier = isIntensifier;
+		setFlag(INTENSIFIER, isIntensifier);
 	}
 
 	/**
@@ -65,7 +91,7 @@ public class Token implements java.io.Serializable{
 	 * @return Returns if the token is a diminisher.
 	 */
 	public boolean isDiminisher() {
-		return isDiminisher;
+		return getFlag(DIMINISHER);
 	}
 
 	/**
@@ -74,7 +100,7 @@ public class Token implements java.io.Serializable{
 	 *            Sets the variable isDiminisher to true or false.
 	 */
 	public void setDiminisher(boolean isDiminisher) {
-		this.isDiminisher = isDiminisher;
+		setFlag(DIMINISHER, isDiminisher);
 	}
 
 	/**
@@ -82,7 +108,7 @@ public class Token implements java.io.Serializable{
 	 * @return Returns if the token is a negator.
 	 */
 	public boolean isNegated() {
-		return isNegated;
+		return getFlag(NEGATED);
 	}
 
 	/**
@@ -91,7 +117,7 @@ public class Token implements java.io.Serializable{
 	 *            Sets the variable isNegator to true or false.
 	 */
 	public void setNegated(boolean isNegated) {
-		this.isNegated = isNegated;
+		setFlag(NEGATED, isNegated);
 	}
 
 	/**
@@ -99,7 +125,7 @@ public class Token implements java.io.Serializable{
 	 * @return Returns if the token is an intensifier.
 	 */
 	public boolean isIntensified() {
-		return isIntensified;
+		return getFlag(INTENSIFIED);
 	}
 
 	/**
@@ -108,7 +134,7 @@ public class Token implements java.io.Serializable{
 	 *            Sets the variable isIntensifier to true or false.
 	 */
 	public void setIntensified(boolean isIntensified) {
-		this.isIntensified = isIntensified;
+		setFlag(INTENSIFIED, isIntensified);
 	}
 
 	/**
@@ -116,7 +142,7 @@ public class Token implements java.io.Serializable{
 	 * @return Returns if the token is a diminisher.
 	 */
 	public boolean isDiminished() {
-		return isDiminished;
+		return getFlag(DIMINISHED);
 	}
 
 	/**
@@ -125,15 +151,38 @@ public class Token implements java.io.Serializable{
 	 *            Sets the variable isDiminisher to true or false.
 	 */
 	public void setDiminished(boolean isDiminished) {
-		this.isDiminished = isDiminished;
+		setFlag(DIMINISHED, isDiminished);
 	}
 
 	/**
 	 * 
-	 * @return Returns an ArrayList containing all tokens that this token is modifying.
+	 * @return Returns a read-only list containing all tokens that this token is modifying.
 	 */
-	public ArrayList<Token> getModifies() {
-		return modifies;
+	public List<Token> getModifies() {
+		if (modifies == null) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(modifies);
+	}
+
+	/**
+	 * Adds a token to the list of tokens that this token is modifying.
+	 * 
+	 * @param token
+	 *            The modified token.
+	 */
+	public void addModifies(Token token) {
+		if (modifies == null) {
+			modifies = new ArrayList<Token>(2);
+		}
+		modifies.add(token);
+	}
+
+	/**
+	 * Removes all tokens from the list of tokens that this token is modifying.
+	 */
+	public void clearModifies() {
+		modifies = null;
 	}
 
 	/**
@@ -158,6 +207,110 @@ public class Token implements java.io.Serializable{
 	 *            Returns the normalized token string
 	 */
 	public void setNormalizedTokenString(String normalizedTokenString) {
-		this.normalizedTokenString = normalizedTokenString;
+		// use the shared string of the vocabulary, so equal strings are only stored once
+		this.normalizedTokenID = getVocabularyID(normalizedTokenString);
+		this.normalizedTokenString = normalizedTokenID >= 0 ? Vocabulary.getString(normalizedTokenID) : normalizedTokenString;
+	}
+
+	/**
+	 * Returns the vocabulary ID of a normalized string. The string is added to the vocabulary if it is not part of it.
+	 * 
+	 * @param normalizedTokenString
+	 *            The normalized string.
+	 * @return Returns the ID of the string.
+	 */
+	protected int getVocabularyID(String normalizedTokenString) {
+		return Vocabulary.getID(normalizedTokenString);
+	}
+
+	/**
+	 * 
+	 * @return Returns the vocabulary ID of the normalized string of the token.
+	 */
+	public int getNormalizedTokenID() {
+		return normalizedTokenID;
+	}
+
+	/**
+	 * 
+	 * @return Returns all flags of the token packed into one byte (see the flag constants).
+	 */
+	public byte getFlags() {
+		return flags;
+	}
+
+	/**
+	 * 
+	 * @param flags
+	 *            Sets all flags of the token at once (see the flag constants).
+	 */
+	public void setFlags(byte flags) {
+		this.flags = flags;
+	}
+
+	/**
+	 * 
+	 * @param flag
+	 *            One of the flag constants.
+	 * @return Returns if the flag is set.
+	 */
+	private boolean getFlag(byte flag) {
+		return (flags & flag) != 0;
+	}
+
+	/**
+	 * 
+	 * @param flag
+	 *            One of the flag constants.
+	 * @param value
+	 *            Sets or clears the flag.
+	 */
+	private void setFlag(byte flag, boolean value) {
+		if (value) {
+			flags |= flag;
+		} else {
+			flags &= ~flag;
+		}
+	}
+
+	/**
+	 * Writes the token in the serialized form of the six boolean fields.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		ObjectOutputStream.PutField fields = out.putFields();
+		fields.put("tokenString", tokenString);
+		fields.put("normalizedTokenString", normalizedTokenString);
+		fields.put("isNegator", getFlag(NEGATOR));
+		fields.put("isIntensifier", getFlag(INTENSIFIER));
+		fields.put("isDiminisher", getFlag(DIMINISHER));
+		fields.put("isNegated", getFlag(NEGATED));
+		fields.put("isIntensified", getFlag(INTENSIFIED));
+		fields.put("isDiminished", getFlag(DIMINISHED));
+		fields.put("modifies", modifies == null ? new ArrayList<Token>(0) : modifies);
+		out.writeFields();
+	}
+
+	/**
+	 * Reads the token from the serialized form and restores the vocabulary ID.
+	 */
+	@SuppressWarnings("unchecked")
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField fields = in.readFields();
+		tokenString = (String) fields.get("tokenString", null);
+		normalizedTokenString = (String) fields.get("normalizedTokenString", null);
+		setFlag(NEGATOR, fields.get("isNegator", false));
+		setFlag(INTENSIFIER, fields.get("isIntensifier", false));
+		setFlag(DIMINISHER, fields.get("isDiminisher", false));
+		setFlag(NEGATED, fields.get("isNegated", false));
+		setFlag(INTENSIFIED, fields.get("isIntensified", false));
+		setFlag(DIMINISHED, fields.get("isDiminished", false));
+		modifies = (ArrayList<Token>) fields.get("modifies", null);
+		if (modifies != null && modifies.isEmpty()) {
+			modifies = null;
+		}
+		if (normalizedTokenString != null) {
+			normalizedTokenID = Vocabulary.getID(normalizedTokenString);
+			normalizedTokenString = Vocabulary.getString(normalizedTokenID);
+		}
 	}
 }
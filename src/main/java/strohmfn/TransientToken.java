@@ -0,0 +1,23 @@
+package strohmfn;
+
+/**
+ * Token of a Tweet that is discarded after it has been classified (see Control.watch()). Its normalized strings are only looked up in the vocabulary
+ * and never added to it, so the vocabulary does not grow with every classified Tweet. Strings that are not part of the vocabulary have the ID -1; they
+ * are no entries of any lexicon.
+ * 
+ * @author strohmfn
+ *
+ */
+public class TransientToken extends Token {
+
+	private static final long serialVersionUID = 1L;
+
+	public TransientToken(String originalString, String normalizedString) {
+		super(originalString, normalizedString);
+	}
+
+	@Override
+	protected int getVocabularyID(String normalizedTokenString) {
+		return Vocabulary.lookupID(normalizedTokenString);
+	}
+}
@@ -1,5 +1,9 @@
 package strohmfn;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.util.ArrayList;
 
 /**
@@ -16,9 +20,50 @@ public class Tweet implements java.io.Serializable{
 	private String predictedEmotion;
 	private String goldEmotion;
 	private String originalText;
-	private String ID;
+	// Tweet IDs are numeric, so they are stored as a long. IDs that can not be stored as a long are kept as a string.
+	private long ID;
+	private String nonNumericID = null;
+	// Number of Tweets in the data file that are represented by this Tweet (see Corpus, collapsing duplicates).
+	private int multiplicity = 1;
+
+	// The serialized form still contains the ID as a string, so existing corpus files stay readable.
+	private static final ObjectStreamField[] serialPersistentFields = { new ObjectStreamField("tokenList", ArrayList.class),
+			new ObjectStreamField("predictedEmotion", String.class), new ObjectStreamField("goldEmotion", String.class),
+			new ObjectStreamField("originalText", String.class), new ObjectStreamField("ID", String.class),
+			new ObjectStreamField("multiplicity", int.class) };
+
+	/**
+	 * Used by Tweets whose data is stored somewhere else (see CorpusStore).
+	 */
+	protected Tweet() {
+	}
 
 	public Tweet(String ID, String goldEmotion, String originalText, ArrayList<Token> tokenList) {
+		setID(ID);
+		this.goldEmotion = goldEmotion;
+		this.originalText = originalText;
+		this.tokenList = tokenList;
+	}
+
+	/**
+	 * Creates a Tweet with a numeric ID.
+	 * 
+	 * @param ID
+	 *            The Tweet ID, must not be negative.
+	 * @param goldEmotion
+	 *            The gold emotion.
+	 * @param originalText
+	 *            The original text.
+	 * @param tokenList
+	 *            The tokens of the text.
+	 * @throws IllegalArgumentException
+	 *             Throws exception if the ID is negative.
+	 */
+	public Tweet(long ID, String goldEmotion, String originalText, ArrayList<Token> tokenList) {
+		if (ID < 0) {
+			// negative values mark non-numeric IDs
+			throw new IllegalArgumentException("Negative Tweet ID: " + ID);
+		}
 		this.ID = ID;
 		this.goldEmotion = goldEmotion;
 		this.originalText = originalText;
@@ -33,6 +78,18 @@ public class Tweet implements java.io.Serializable{
 		return tokenList;
 	}
 
+	/**
+	 * 
+	 * @return Returns an array that contains the vocabulary IDs of the normalized strings of all tokens of this Tweet.
+	 */
+	public int[] getNormalizedTokenIDs() {
+		int[] ids = new int[tokenList.size()];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = tokenList.get(i).getNormalizedTokenID();
+		}
+		return ids;
+	}
+
 	/**
 	 * 
 	 * @return Returns the gold emotion of this Tweet.
@@ -68,10 +125,181 @@ public class Tweet implements java.io.Serializable{
 	}
 
 	/**
+	 * 
+	 * @return Returns the number of Tweets in the data file that are represented by this Tweet. Is 1 unless duplicates were collapsed.
+	 */
+	public int getMultiplicity() {
+		return multiplicity;
+	}
+
+	/**
+	 * Sets the number of Tweets in the data file that are represented by this Tweet.
+	 * 
+	 * @param multiplicity
+	 *            Number of duplicates including this Tweet.
+	 */
+	public void setMultiplicity(int multiplicity) {
+		this.multiplicity = multiplicity;
+	}
+
+	/**
+	 * Creates the string of a numeric ID. Use getNumericID(), hasSameID() or appendID() where the ID is needed for every Tweet.
+	 * 
 	 * @return Returns the Tweet ID.
 	 */
 	public String getID() {
+		if (nonNumericID != null) {
+			return nonNumericID;
+		}
+		return Long.toString(ID);
+	}
+
+	/**
+	 * 
+	 * @return Returns the Tweet ID as a long or -1 if the ID is not numeric (see isNumericID()).
+	 */
+	public long getNumericID() {
+		if (nonNumericID != null) {
+			return -1;
+		}
+		return ID;
+	}
+
+	/**
+	 * 
+	 * @param other
+	 *            Another Tweet.
+	 * @return Returns true if both Tweets have the same ID.
+	 */
+	public boolean hasSameID(Tweet other) {
+		long numericID = getNumericID();
+		if (numericID >= 0) {
+			return numericID == other.getNumericID();
+		}
+		return other.getNumericID() < 0 && getID().equals(other.getID());
+	}
+
+	/**
+	 * Appends the ID to a string builder without creating a string of a numeric ID.
+	 * 
+	 * @param builder
+	 *            The string builder.
+	 * @return Returns the string builder.
+	 */
+	public StringBuilder appendID(StringBuilder builder) {
+		long numericID = getNumericID();
+		if (numericID >= 0) {
+			return builder.append(numericID);
+		}
+		return builder.append(getID());
+	}
+
+	/**
+	 * 
+	 * @return Returns a hash map key of the ID: a Long if the ID is numeric, otherwise the ID string (see createIDKey()).
+	 */
+	public Object getIDKey() {
+		long numericID = getNumericID();
+		if (numericID >= 0) {
+			return numericID;
+		}
+		return getID();
+	}
+
+	/**
+	 * 
+	 * @param ID
+	 *            A Tweet ID.
+	 * @return Returns the hash map key of the ID, equals the key returned by getIDKey() of the Tweet with the ID.
+	 */
+	public static Object createIDKey(String ID) {
+		long numericID = parseNumericID(ID);
+		if (numericID >= 0) {
+			return numericID;
+		}
 		return ID;
 	}
 
+	/**
+	 * Stores the ID as a long if it is numeric, otherwise as a string.
+	 * 
+	 * @param ID
+	 *            The Tweet ID.
+	 */
+	private void setID(String ID) {
+		long numericID = parseNumericID(ID);
+		if (numericID >= 0) {
+			this.ID = numericID;
+			nonNumericID = null;
+		} else {
+			nonNumericID = ID;
+		}
+	}
+
+	/**
+	 * 
+	 * @param ID
+	 *            A Tweet ID.
+	 * @return Returns true if the ID only consists of digits without leading zeros and is not larger than Long.MAX_VALUE, so it can be stored as a long
+	 *         and is restored exactly by Long.toString().
+	 */
+	public static boolean isNumericID(String ID) {
+		return parseNumericID(ID) >= 0;
+	}
+
+	/**
+	 * 
+	 * @param ID
+	 *            A Tweet ID.
+	 * @return Returns the ID as a long if it is numeric (see isNumericID()), otherwise -1.
+	 */
+	public static long parseNumericID(String ID) {
+		int length = ID.length();
+		// Long.MAX_VALUE has 19 digits
+		if (length == 0 || length > 19 || (length > 1 && ID.charAt(0) == '0')) {
+			return -1;
+		}
+		long value = 0;
+		for (int i = 0; i < length; i++) {
+			int digit = ID.charAt(i) - '0';
+			if (digit < 0 || digit > 9 || value > (Long.MAX_VALUE - digit) / 10) {
+				return -1;
+			}
+			value = value * 10 + digit;
+		}
+		return value;
+	}
+
+	/**
+	 * Writes the Tweet in the serialized form with a string ID.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		ObjectOutputStream.PutField fields = out.putFields();
+		fields.put("tokenList", tokenList);
+		fields.put("predictedEmotion", predictedEmotion);
+		fields.put("goldEmotion", goldEmotion);
+		fields.put("originalText", originalText);
+		fields.put("ID", nonNumericID != null ? nonNumericID : Long.toString(ID));
+		fields.put("multiplicity", multiplicity);
+		out.writeFields();
+	}
+
+	/**
+	 * Reads the Tweet from the serialized form.
+	 */
+	@SuppressWarnings("unchecked")
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField fields = in.readFields();
+		tokenList = (ArrayList<Token>) fields.get("tokenList", null);
+		predictedEmotion = (String) fields.get("predictedEmotion", null);
+		goldEmotion = (String) fields.get("goldEmotion", null);
+		originalText = (String) fields.get("originalText", null);
+		// corpus files of older versions do not contain the multiplicity
+		multiplicity = fields.get("multiplicity", 1);
+		String ID = (String) fields.get("ID", null);
+		if (ID != null) {
+			setID(ID);
+		}
+	}
+
 }
@@ -0,0 +1,148 @@
+package strohmfn;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Extracts the columns of a line of a Tweet data file directly from the line buffer. Only the column offsets are calculated, no strings are created. Lines
+ * whose gold emotion is not one of the six basic emotions or whose language is not english are rejected while scanning.
+ *
+ * The columns of a data file are separated by tabs: [0] = gold emotion; [3] = ID of Tweet; [6] = language of the Tweet; [8] = text of the Tweet.
+ *
+ * @author strohmfn
+ *
+ */
+public class TweetFieldScanner {
+
+	public static final int EMOTION = 0;
+	public static final int ID = 3;
+	public static final int LANGUAGE = 6;
+	public static final int TEXT = 8;
+
+	// The six emotions that are used in this thesis.
+	private static final String[] EMOTIONS = { "happy", "anger", "fear", "sad", "surprise", "disgust" };
+	private static final byte[][] EMOTION_BYTES = new byte[EMOTIONS.length][];
+	private static final byte[] LANGUAGE_BYTES = "en".getBytes(StandardCharsets.US_ASCII);
+
+	static {
+		for (int i = 0; i < EMOTIONS.length; i++) {
+			EMOTION_BYTES[i] = EMOTIONS[i].getBytes(StandardCharsets.US_ASCII);
+		}
+	}
+
+	// Start and end positions of the columns 0 to 8 of the last scanned line.
+	private int[] fieldStart = new int[TEXT + 1];
+	private int[] fieldEnd = new int[TEXT + 1];
+	// Gold emotion of the last accepted line.
+	private String emotion;
+
+	/**
+	 * Checks if a data file with the given charset can be scanned. The scanner compares single bytes, so tabs, line breaks and the ASCII characters of the
+	 * emotions and the language have to be encoded like in ASCII.
+	 *
+	 * @param charset
+	 *            Charset of the data file.
+	 * @return Returns true if the charset is ASCII compatible.
+	 */
+	public static boolean isSupported(Charset charset) {
+		String sample = "\t\n\rhappy anger fear sad surprise disgust en";
+		return Arrays.equals(sample.getBytes(charset), sample.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	/**
+	 * Scans a line. The line is rejected as soon as the gold emotion or the language column do not match, so the remaining columns are not scanned at all.
+	 *
+	 * @param buffer
+	 *            Buffer containing the line.
+	 * @param start
+	 *            Position of the first byte of the line (inclusive).
+	 * @param end
+	 *            Position directly after the last byte of the line (exclusive).
+	 * @return Returns true if the line contains a Tweet with one of the six emotions in english.
+	 */
+	public boolean scan(ByteBuffer buffer, int start, int end) {
+		int position = start;
+		for (int column = 0; column <= TEXT; column++) {
+			// Check if the line has enough columns.
+			if (position > end) {
+				return false;
+			}
+			fieldStart[column] = position;
+			while (position < end && buffer.get(position) != '\t') {
+				position++;
+			}
+			fieldEnd[column] = position;
+			// Skip the tab.
+			position++;
+			// Reject the line as early as possible.
+			if (column == EMOTION) {
+				emotion = matchEmotion(buffer, fieldStart[column], fieldEnd[column]);
+				if (emotion == null) {
+					return false;
+				}
+			} else if (column == LANGUAGE && !matches(buffer, fieldStart[column], fieldEnd[column], LANGUAGE_BYTES)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 *
+	 * @return Returns the gold emotion of the last accepted line.
+	 */
+	public String getEmotion() {
+		return emotion;
+	}
+
+	/**
+	 *
+	 * @param column
+	 *            Index of the column.
+	 * @return Returns the position of the first byte of the column in the last scanned line.
+	 */
+	public int getFieldStart(int column) {
+		return fieldStart[column];
+	}
+
+	/**
+	 *
+	 * @param column
+	 *            Index of the column.
+	 * @return Returns the position directly after the last byte of the column in the last scanned line.
+	 */
+	public int getFieldEnd(int column) {
+		return fieldEnd[column];
+	}
+
+	/**
+	 *
+	 * @return Returns the emotion string of the column or null if the column does not contain one of the six emotions.
+	 */
+	private String matchEmotion(ByteBuffer buffer, int start, int end) {
+		for (int i = 0; i < EMOTION_BYTES.length; i++) {
+			if (matches(buffer, start, end, EMOTION_BYTES[i])) {
+				return EMOTIONS[i];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 *
+	 * @return Returns true if the bytes between start and end equal the expected bytes.
+	 */
+	private boolean matches(ByteBuffer buffer, int start, int end, byte[] expected) {
+		if (end - start != expected.length) {
+			return false;
+		}
+		for (int i = 0; i < expected.length; i++) {
+			if (buffer.get(start + i) != expected[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
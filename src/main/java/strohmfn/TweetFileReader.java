@@ -0,0 +1,316 @@
+package strohmfn;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a Tweet data file (or a byte range of it) line by line in a single pass. The file is memory mapped in windows and every line is decoded with an
+ * explicit charset. Malformed or unmappable bytes are replaced, just like FileReader does.
+ *
+ * @author strohmfn
+ *
+ */
+public class TweetFileReader implements Closeable {
+
+	// Size of a single memory mapped window. Lines that cross the end of a window cause the window to be remapped at the start of the line.
+	private static final long WINDOW_SIZE = 256L * 1024 * 1024;
+
+	private FileChannel channel;
+	private CharsetDecoder decoder;
+	// Reusable buffer for the decoded characters of the current line.
+	private CharBuffer chars = CharBuffer.allocate(1024);
+
+	// Byte range of the file that is read by this reader.
+	private long start;
+	private long end;
+
+	// Currently mapped window and the file offset of its first byte.
+	private MappedByteBuffer window;
+	private long windowOffset;
+	// Position in the window where the next line starts.
+	private int position;
+	// Positions of the current line in the window.
+	private int lineStart;
+	private int lineEnd;
+
+	/**
+	 * Opens a reader for the whole file. Gzip compressed files (also concatenated ones) are recognized by their first bytes and decompressed while they are
+	 * read, see TweetFileReader_Gzip.
+	 *
+	 * @param data
+	 *            The to be read data file.
+	 * @param charset
+	 *            Charset of the (decompressed) data file.
+	 * @throws IOException
+	 *             Throws exception if the file can not be opened.
+	 * @return Returns the reader.
+	 */
+	public static TweetFileReader open(File data, Charset charset) throws IOException {
+		return open(data, charset, 0);
+	}
+
+	/**
+	 * Opens a reader that starts at an offset, e.g. to resume an interrupted ingestion. The offset of a compressed file refers to the decompressed data,
+	 * the file is decompressed from the start and the lines in front of the offset are skipped.
+	 *
+	 * @param data
+	 *            The to be read data file.
+	 * @param charset
+	 *            Charset of the (decompressed) data file.
+	 * @param offset
+	 *            Offset of the first line that is read. Has to be the start of a line, e.g. a value of getOffset().
+	 * @throws IOException
+	 *             Throws exception if the file can not be opened.
+	 * @return Returns the reader.
+	 */
+	public static TweetFileReader open(File data, Charset charset, long offset) throws IOException {
+		if (isCompressed(data)) {
+			TweetFileReader reader = new TweetFileReader_Gzip(data, charset);
+			while (reader.getOffset() < offset && reader.nextLine()) {
+				// skip the line
+			}
+			return reader;
+		}
+		return new TweetFileReader(data, charset, offset, data.length());
+	}
+
+	/**
+	 *
+	 * @param data
+	 *            The data file.
+	 * @throws IOException
+	 *             Throws exception if the file can not be read.
+	 * @return Returns true if the file starts with the gzip magic bytes. Compressed files can only be read from the start, not in byte ranges.
+	 */
+	public static boolean isCompressed(File data) throws IOException {
+		InputStream input = new FileInputStream(data);
+		try {
+			return input.read() == 0x1f && input.read() == 0x8b;
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Used by readers that get their lines from somewhere else. They have to override all methods that access the file.
+	 *
+	 * @param charset
+	 *            Charset of the lines.
+	 */
+	protected TweetFileReader(Charset charset) {
+		this.decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+
+	/**
+	 * Creates a reader for the whole file.
+	 *
+	 * @param data
+	 *            The to be read data file.
+	 * @param charset
+	 *            Charset of the data file.
+	 * @throws IOException
+	 *             Throws exception if the file can not be opened.
+	 */
+	public TweetFileReader(File data, Charset charset) throws IOException {
+		this(data, charset, 0, data.length());
+	}
+
+	/**
+	 * Creates a reader for a byte range of the file. The range has to start at the beginning of a line.
+	 *
+	 * @param data
+	 *            The to be read data file.
+	 * @param charset
+	 *            Charset of the data file.
+	 * @param start
+	 *            Byte offset of the first line (inclusive).
+	 * @param end
+	 *            Byte offset of the end of the range (exclusive).
+	 * @throws IOException
+	 *             Throws exception if the file can not be opened.
+	 */
+	public TweetFileReader(File data, Charset charset, long start, long end) throws IOException {
+		this.channel = FileChannel.open(data.toPath(), StandardOpenOption.READ);
+		this.decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+		this.start = start;
+		this.end = Math.min(end, channel.size());
+		this.windowOffset = start;
+		map(WINDOW_SIZE);
+	}
+
+	/**
+	 * Moves the reader to the next line without decoding it. The bytes of the line can be accessed with getBuffer(), getLineStart() and getLineEnd(). Lines
+	 * are terminated by '\n', a '\r' directly in front of it is not part of the line.
+	 *
+	 * @return Returns false if the end of the range is reached.
+	 * @throws IOException
+	 *             Throws exception if the file can not be read.
+	 */
+	public boolean nextLine() throws IOException {
+		// Check if the end of the range is reached.
+		if (windowOffset + position >= end) {
+			return false;
+		}
+		// Search the next line break. If the window ends in the middle of a line, map a new window starting at this line.
+		int lineBreak = findLineBreak(position);
+		while (lineBreak == -1 && windowOffset + window.limit() < end) {
+			// Double the window size if a single line does not fit into the current window.
+			long size = position == 0 ? Math.max(WINDOW_SIZE, (long) window.limit() * 2) : WINDOW_SIZE;
+			windowOffset += position;
+			position = 0;
+			map(size);
+			lineBreak = findLineBreak(position);
+		}
+		lineStart = position;
+		if (lineBreak == -1) {
+			// The last line of the range has no line break.
+			lineEnd = window.limit();
+			position = lineEnd;
+		} else {
+			lineEnd = lineBreak;
+			position = lineBreak + 1;
+		}
+		// Remove carriage return in front of the line break.
+		if (lineEnd > lineStart && window.get(lineEnd - 1) == '\r') {
+			lineEnd--;
+		}
+		return true;
+	}
+
+	/**
+	 * Reads and decodes the next line.
+	 *
+	 * @return Returns the decoded line or null if the end of the range is reached.
+	 * @throws IOException
+	 *             Throws exception if the file can not be read.
+	 */
+	public String readLine() throws IOException {
+		if (!nextLine()) {
+			return null;
+		}
+		return decode(getLineStart(), getLineEnd());
+	}
+
+	/**
+	 *
+	 * @return Returns the buffer containing the current line. The buffer must not be modified.
+	 */
+	public ByteBuffer getBuffer() {
+		return window;
+	}
+
+	/**
+	 *
+	 * @return Returns the position of the first byte of the current line in the buffer.
+	 */
+	public int getLineStart() {
+		return lineStart;
+	}
+
+	/**
+	 *
+	 * @return Returns the position directly after the last byte of the current line in the buffer.
+	 */
+	public int getLineEnd() {
+		return lineEnd;
+	}
+
+	/**
+	 * Decodes a part of the current line.
+	 *
+	 * @param from
+	 *            First position of the to be decoded bytes in the buffer (inclusive).
+	 * @param to
+	 *            Last position of the to be decoded bytes in the buffer (exclusive).
+	 * @return Returns the decoded string.
+	 */
+	public String decode(int from, int to) {
+		ByteBuffer bytes = getBuffer().duplicate();
+		bytes.limit(to);
+		bytes.position(from);
+		// Make sure the character buffer is large enough for the worst case.
+		int maxChars = (int) Math.ceil((to - from) * (double) decoder.maxCharsPerByte()) + 1;
+		if (chars.capacity() < maxChars) {
+			chars = CharBuffer.allocate(maxChars);
+		}
+		chars.clear();
+		decoder.reset();
+		decoder.decode(bytes, chars, true);
+		decoder.flush(chars);
+		chars.flip();
+		return chars.toString();
+	}
+
+	/**
+	 *
+	 * @return Returns the file offset directly after the last line that was read.
+	 */
+	public long getOffset() {
+		return windowOffset + position;
+	}
+
+	/**
+	 *
+	 * @return Returns the number of bytes that are read by this reader.
+	 */
+	public long getLength() {
+		return end - start;
+	}
+
+	/**
+	 *
+	 * @return Returns the number of bytes that have already been read by this reader.
+	 */
+	public long getBytesRead() {
+		return getOffset() - start;
+	}
+
+	/**
+	 * Closes the underlying file channel.
+	 */
+	@Override
+	public void close() throws IOException {
+		window = null;
+		channel.close();
+	}
+
+	/**
+	 * Maps a new window starting at the current window offset.
+	 *
+	 * @param size
+	 *            Desired size of the window. The window never exceeds the end of the range.
+	 * @throws IOException
+	 *             Throws exception if the file can not be mapped.
+	 */
+	private void map(long size) throws IOException {
+		long mappedSize = Math.min(Math.min(size, Integer.MAX_VALUE), end - windowOffset);
+		window = channel.map(FileChannel.MapMode.READ_ONLY, windowOffset, Math.max(0, mappedSize));
+	}
+
+	/**
+	 *
+	 * @param from
+	 *            Position in the window where the search starts.
+	 * @return Returns the position of the next '\n' in the window or -1 if the window contains no further line break.
+	 */
+	private int findLineBreak(int from) {
+		int limit = window.limit();
+		for (int i = from; i < limit; i++) {
+			if (window.get(i) == '\n') {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
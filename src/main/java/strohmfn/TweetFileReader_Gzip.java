@@ -0,0 +1,281 @@
+package strohmfn;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads a gzip compressed Tweet data file line by line in a single pass. Files that consist of several concatenated gzip members are read as one file.
+ * The file is decompressed by a thread of its own, which fills a few blocks ahead of the reader, so the decompression overlaps with the tokenization of
+ * the lines. The blocks are reused, so the memory does not depend on the size of the file.
+ *
+ * The progress (getBytesRead() and getLength()) refers to the compressed file, because the size of the decompressed data is not known in advance.
+ *
+ * @author strohmfn
+ *
+ */
+public class TweetFileReader_Gzip extends TweetFileReader {
+
+	// Size of the blocks the decompression thread fills.
+	private static final int BLOCK_SIZE = 1 << 20;
+	// Number of blocks. The decompression thread runs at most this many blocks ahead of the reader.
+	private static final int BLOCKS = 4;
+	// Is passed to the reader after the last block.
+	private static final Block END = new Block(0);
+
+	private File data;
+	private Thread decompressionThread;
+	private BlockingQueue<Block> filledBlocks = new ArrayBlockingQueue<Block>(BLOCKS + 1);
+	private BlockingQueue<Block> emptyBlocks = new ArrayBlockingQueue<Block>(BLOCKS);
+	// Error of the decompression thread. Is thrown by the reader when it reaches the end of the decompressed data.
+	private volatile IOException error = null;
+	// Number of compressed bytes that have been read by the decompression thread.
+	private volatile long compressedBytesRead = 0;
+	// True if the reader has received the last block.
+	private boolean finished = false;
+
+	// Decompressed bytes of the current line and the following lines.
+	private byte[] bytes = new byte[2 * BLOCK_SIZE];
+	private ByteBuffer buffer = ByteBuffer.wrap(bytes);
+	// Number of valid bytes in the buffer.
+	private int limit = 0;
+	// Offset of the first byte of the buffer in the decompressed data.
+	private long offset = 0;
+	// Position in the buffer where the next line starts.
+	private int position = 0;
+	// Positions of the current line in the buffer.
+	private int lineStart;
+	private int lineEnd;
+
+	/**
+	 * Creates a reader for the whole file and starts the decompression thread.
+	 *
+	 * @param data
+	 *            The to be read gzip compressed data file.
+	 * @param charset
+	 *            Charset of the decompressed data.
+	 * @throws IOException
+	 *             Throws exception if the file does not exist.
+	 */
+	public TweetFileReader_Gzip(File data, Charset charset) throws IOException {
+		super(charset);
+		if (!data.isFile()) {
+			throw new IOException("File " + data.getPath() + " does not exist.");
+		}
+		this.data = data;
+		for (int i = 0; i < BLOCKS; i++) {
+			emptyBlocks.add(new Block(BLOCK_SIZE));
+		}
+		decompressionThread = new Thread(this::decompress, "Decompression of " + data.getName());
+		decompressionThread.setDaemon(true);
+		decompressionThread.start();
+	}
+
+	@Override
+	public boolean nextLine() throws IOException {
+		// Search the next line break. If the buffer ends in the middle of a line, the rest of the line is moved to the start and the next block is added.
+		int lineBreak = findLineBreak(position);
+		while (lineBreak == -1 && !finished) {
+			int rest = limit - position;
+			System.arraycopy(bytes, position, bytes, 0, rest);
+			offset += position;
+			position = 0;
+			limit = rest;
+			Block block = takeBlock();
+			if (block != END) {
+				if (limit + block.length > bytes.length) {
+					// a single line does not fit into the buffer
+					bytes = Arrays.copyOf(bytes, Math.max(limit + block.length, bytes.length * 2));
+					buffer = ByteBuffer.wrap(bytes);
+				}
+				System.arraycopy(block.bytes, 0, bytes, limit, block.length);
+				limit += block.length;
+				emptyBlocks.add(block);
+			}
+			lineBreak = findLineBreak(rest);
+		}
+		// Check if the end of the file is reached.
+		if (position >= limit) {
+			return false;
+		}
+		lineStart = position;
+		if (lineBreak == -1) {
+			// The last line of the file has no line break.
+			lineEnd = limit;
+			position = limit;
+		} else {
+			lineEnd = lineBreak;
+			position = lineBreak + 1;
+		}
+		// Remove carriage return in front of the line break.
+		if (lineEnd > lineStart && bytes[lineEnd - 1] == '\r') {
+			lineEnd--;
+		}
+		return true;
+	}
+
+	@Override
+	public ByteBuffer getBuffer() {
+		return buffer;
+	}
+
+	@Override
+	public int getLineStart() {
+		return lineStart;
+	}
+
+	@Override
+	public int getLineEnd() {
+		return lineEnd;
+	}
+
+	/**
+	 *
+	 * @return Returns the offset in the decompressed data directly after the last line that was read.
+	 */
+	@Override
+	public long getOffset() {
+		return offset + position;
+	}
+
+	/**
+	 *
+	 * @return Returns the size of the compressed file.
+	 */
+	@Override
+	public long getLength() {
+		return data.length();
+	}
+
+	/**
+	 *
+	 * @return Returns the number of compressed bytes that have been decompressed so far.
+	 */
+	@Override
+	public long getBytesRead() {
+		return compressedBytesRead;
+	}
+
+	/**
+	 * Stops the decompression thread, which closes the file.
+	 */
+	@Override
+	public void close() throws IOException {
+		decompressionThread.interrupt();
+		try {
+			decompressionThread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Waits for the next block of the decompression thread.
+	 *
+	 * @return Returns the next block or END if the whole file has been decompressed.
+	 * @throws IOException
+	 *             Throws the error of the decompression thread if the file could not be decompressed.
+	 */
+	private Block takeBlock() throws IOException {
+		Block block;
+		try {
+			block = filledBlocks.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for the decompression of " + data.getName());
+		}
+		if (block == END) {
+			finished = true;
+			if (error != null) {
+				throw error;
+			}
+		}
+		return block;
+	}
+
+	/**
+	 * Decompresses the file into the empty blocks until the end of the file is reached or the reader is closed. Is executed by the decompression thread.
+	 */
+	private void decompress() {
+		try {
+			InputStream input = new GZIPInputStream(new FilterInputStream(new FileInputStream(data)) {
+
+				@Override
+				public int read(byte[] b, int off, int len) throws IOException {
+					int length = super.read(b, off, len);
+					if (length > 0) {
+						compressedBytesRead += length;
+					}
+					return length;
+				}
+			}, 1 << 16);
+			try {
+				int length = BLOCK_SIZE;
+				// a block that is not filled completely is the last one
+				while (length == BLOCK_SIZE) {
+					Block block = emptyBlocks.take();
+					length = 0;
+					int read = input.read(block.bytes, 0, BLOCK_SIZE);
+					while (read != -1) {
+						length += read;
+						if (length == BLOCK_SIZE) {
+							break;
+						}
+						read = input.read(block.bytes, length, BLOCK_SIZE - length);
+					}
+					block.length = length;
+					filledBlocks.put(block);
+				}
+			} finally {
+				input.close();
+			}
+		} catch (IOException e) {
+			error = e;
+		} catch (InterruptedException e) {
+			// the reader has been closed
+			return;
+		}
+		try {
+			filledBlocks.put(END);
+		} catch (InterruptedException e) {
+			// the reader has been closed
+		}
+	}
+
+	/**
+	 *
+	 * @param from
+	 *            Position in the buffer where the search starts.
+	 * @return Returns the position of the next '\n' in the buffer or -1 if the buffer contains no further line break.
+	 */
+	private int findLineBreak(int from) {
+		for (int i = from; i < limit; i++) {
+			if (bytes[i] == '\n') {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Decompressed bytes that are passed from the decompression thread to the reader.
+	 */
+	private static class Block {
+
+		private byte[] bytes;
+		private int length;
+
+		private Block(int size) {
+			this.bytes = new byte[size];
+		}
+	}
+}
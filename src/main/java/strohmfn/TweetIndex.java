@@ -0,0 +1,156 @@
+package strohmfn;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Inverted index from the vocabulary IDs of the normalized token strings to the Tweets of a corpus that contain them. It is built before the modifier
+ * detection annotates the Tweets, so it also stores the normalized token strings of each Tweet and can restore a Tweet to its state before the
+ * annotation. This allows to annotate only the Tweets again that contain an entry of a lexicon that has been changed.
+ *
+ * The Tweets are numbered in the order of the training set followed by the test set.
+ *
+ * @author strohmfn
+ *
+ */
+public class TweetIndex {
+
+	private List<Tweet> trainingSet;
+	private List<Tweet> testSet;
+	// Tweet numbers by vocabulary ID in ascending order. Only the first postingSizes[id] numbers are used.
+	private int[][] postings = new int[1024][];
+	private int[] postingSizes = new int[1024];
+	// Vocabulary IDs of the normalized token strings of each Tweet when the index was built.
+	private int[][] tokenIDs;
+
+	/**
+	 * Builds the index of a training and a test set. Has to be called before the Tweets are annotated.
+	 *
+	 * @param trainingSet
+	 *            The training set.
+	 * @param testSet
+	 *            The test set.
+	 */
+	public TweetIndex(List<Tweet> trainingSet, List<Tweet> testSet) {
+		this.trainingSet = trainingSet;
+		this.testSet = testSet;
+		tokenIDs = new int[trainingSet.size() + testSet.size()][];
+		int number = 0;
+		for (Tweet tweet : trainingSet) {
+			addTweet(number++, tweet);
+		}
+		for (Tweet tweet : testSet) {
+			addTweet(number++, tweet);
+		}
+	}
+
+	/**
+	 * Adds the tokens of a Tweet to the index.
+	 *
+	 * @param number
+	 *            Number of the Tweet.
+	 * @param tweet
+	 *            The Tweet.
+	 */
+	private void addTweet(int number, Tweet tweet) {
+		ArrayList<Token> tokenList = tweet.getTokenList();
+		int[] ids = new int[tokenList.size()];
+		for (int i = 0; i < ids.length; i++) {
+			int id = tokenList.get(i).getNormalizedTokenID();
+			ids[i] = id;
+			if (id >= postings.length) {
+				int length = Math.max(postings.length * 2, id + 1);
+				postings = Arrays.copyOf(postings, length);
+				postingSizes = Arrays.copyOf(postingSizes, length);
+			}
+			// a Tweet is added once to the postings of each string, even if it contains the string several times
+			int size = postingSizes[id];
+			if (size > 0 && postings[id][size - 1] == number) {
+				continue;
+			}
+			if (postings[id] == null) {
+				postings[id] = new int[4];
+			} else if (size == postings[id].length) {
+				postings[id] = Arrays.copyOf(postings[id], size * 2);
+			}
+			postings[id][size] = number;
+			postingSizes[id] = size + 1;
+		}
+		tokenIDs[number] = ids;
+	}
+
+	/**
+	 * Finds all Tweets that contain at least one of the strings.
+	 *
+	 * @param strings
+	 *            Normalized token strings.
+	 * @return Returns the numbers of the Tweets that contain at least one of the strings.
+	 */
+	public BitSet findTweets(Collection<String> strings) {
+		BitSet tweets = new BitSet(tokenIDs.length);
+		for (String string : strings) {
+			int id = Vocabulary.lookupID(string);
+			if (id < 0 || id >= postings.length) {
+				continue;
+			}
+			for (int i = 0; i < postingSizes[id]; i++) {
+				tweets.set(postings[id][i]);
+			}
+		}
+		return tweets;
+	}
+
+	/**
+	 *
+	 * @param number
+	 *            Number of a Tweet.
+	 * @return Returns the Tweet with the number.
+	 */
+	public Tweet getTweet(int number) {
+		if (number < trainingSet.size()) {
+			return trainingSet.get(number);
+		}
+		return testSet.get(number - trainingSet.size());
+	}
+
+	/**
+	 *
+	 * @param number
+	 *            Number of a Tweet.
+	 * @return Returns true if the Tweet with the number is part of the training set.
+	 */
+	public boolean isTrainingTweet(int number) {
+		return number < trainingSet.size();
+	}
+
+	/**
+	 *
+	 * @return Returns the number of Tweets of the index.
+	 */
+	public int size() {
+		return tokenIDs.length;
+	}
+
+	/**
+	 * Removes the annotation of a Tweet: the flags and the modifies lists of its tokens are cleared and the normalized token strings are restored to the
+	 * strings they had when the index was built.
+	 *
+	 * @param number
+	 *            Number of the Tweet.
+	 */
+	public void restore(int number) {
+		ArrayList<Token> tokenList = getTweet(number).getTokenList();
+		int[] ids = tokenIDs[number];
+		for (int i = 0; i < ids.length; i++) {
+			Token token = tokenList.get(i);
+			token.setFlags((byte) 0);
+			token.clearModifies();
+			if (token.getNormalizedTokenID() != ids[i]) {
+				token.setNormalizedTokenString(Vocabulary.getString(ids[i]));
+			}
+		}
+	}
+}
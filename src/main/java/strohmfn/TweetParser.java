@@ -0,0 +1,196 @@
+package strohmfn;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import edu.stanford.nlp.ling.CoreAnnotations.SentencesAnnotation;
+import edu.stanford.nlp.pipeline.Annotation;
+import edu.stanford.nlp.util.CoreMap;
+
+/**
+ * Parses Tweet texts with a CoreNLP pipeline. If a parse cache is set, each text is looked up in the cache first and only parsed if it is not cached; the
+ * pipeline (and its models) is not even loaded if all texts are cached.
+ *
+ * Several texts can be parsed in parallel with parseAll(). The threads share the pipeline of the process, the annotators of CoreNLP can be used by
+ * several threads at the same time.
+ *
+ * @author strohmfn
+ *
+ */
+public class TweetParser {
+
+	// Properties of the pipeline.
+	private Properties props;
+	// Key of the properties, see PipelineProvider.createKey().
+	private String configuration;
+	private ParseCache parseCache;
+	// Number of threads of parseAll().
+	private int threads;
+	// Number of texts that parseAll() schedules at once.
+	private int batchSize;
+
+	/**
+	 *
+	 * @param props
+	 *            The properties of the CoreNLP pipeline, e.g. the annotators.
+	 * @param parseCache
+	 *            The cache of the parses (null = no cache).
+	 * @param threads
+	 *            Number of threads that parse the texts of parseAll() (1 = the texts are parsed one by one when they are requested).
+	 * @param batchSize
+	 *            Number of texts that parseAll() schedules at once. At most two batches are parsed or waiting to be requested at the same time.
+	 */
+	public TweetParser(Properties props, ParseCache parseCache, int threads, int batchSize) {
+		this.props = props;
+		this.configuration = PipelineProvider.createKey(props);
+		this.parseCache = parseCache;
+		this.threads = Math.max(1, threads);
+		this.batchSize = Math.max(1, batchSize);
+	}
+
+	/**
+	 * Parses a text. The returned sentences contain at least the tokens with their POS tags and the enhanced dependencies; if the text has been cached,
+	 * they contain nothing else.
+	 *
+	 * @param text
+	 *            The to be parsed text.
+	 * @return Returns the sentences of the text.
+	 */
+	public List<CoreMap> parse(String text) {
+		String key = null;
+		if (parseCache != null) {
+			key = ParseCache.createKey(configuration, text);
+			List<CoreMap> sentences = parseCache.get(key);
+			if (sentences != null) {
+				return sentences;
+			}
+		}
+		// Create an empty Annotation just with the given text and run all Annotators on it.
+		Annotation document = new Annotation(text);
+		PipelineProvider.get(props).annotate(document);
+		List<CoreMap> sentences = document.get(SentencesAnnotation.class);
+		if (parseCache != null) {
+			parseCache.put(key, sentences);
+		}
+		return sentences;
+	}
+
+	/**
+	 * Parses a sequence of texts. The parses are returned in the order of the texts, but they are created in parallel if more than one thread is set: the
+	 * texts are scheduled in batches, the longest texts of a batch first, so a long text does not delay the end of a batch. The next batch is read from
+	 * the texts and scheduled as soon as the results of the current batch are requested, so the number of texts and parses in memory is bounded.
+	 *
+	 * The returned queue has to be closed if it is not read to the end, e.g. in a finally block, otherwise the scheduled parses keep running.
+	 *
+	 * @param texts
+	 *            The to be parsed texts. They are only read when their batch is scheduled.
+	 * @return Returns an iterator over the sentences of each text.
+	 */
+	public ParseQueue parseAll(Iterator<String> texts) {
+		return new ParseQueue(texts);
+	}
+
+	/**
+	 * Iterator over the parses of a sequence of texts, see parseAll().
+	 */
+	public class ParseQueue implements Iterator<List<CoreMap>>, AutoCloseable {
+
+		private Iterator<String> texts;
+		// null if the texts are parsed by the thread that requests them
+		private ForkJoinPool pool;
+		// tasks that have not been requested yet in the order of the texts
+		private ArrayDeque<ForkJoinTask<List<CoreMap>>> tasks = new ArrayDeque<ForkJoinTask<List<CoreMap>>>();
+
+		/**
+		 *
+		 * @param texts
+		 *            The to be parsed texts.
+		 */
+		private ParseQueue(Iterator<String> texts) {
+			this.texts = texts;
+			if (threads > 1 && texts.hasNext()) {
+				// the tasks are executed in the order they are submitted
+				pool = new ForkJoinPool(threads, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+				scheduleBatch();
+				scheduleBatch();
+			}
+		}
+
+		/**
+		 * Reads the next batch of texts and submits their parses to the pool, the longest texts first.
+		 */
+		private void scheduleBatch() {
+			final ArrayList<String> batchTexts = new ArrayList<String>(batchSize);
+			while (batchTexts.size() < batchSize && texts.hasNext()) {
+				batchTexts.add(texts.next());
+			}
+			if (batchTexts.isEmpty()) {
+				return;
+			}
+			ArrayList<Integer> order = new ArrayList<Integer>(batchTexts.size());
+			ArrayList<ForkJoinTask<List<CoreMap>>> batch = new ArrayList<ForkJoinTask<List<CoreMap>>>(batchTexts.size());
+			for (int i = 0; i < batchTexts.size(); i++) {
+				order.add(i);
+				batch.add(null);
+			}
+			Collections.sort(order, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer index1, Integer index2) {
+					return Integer.compare(batchTexts.get(index2).length(), batchTexts.get(index1).length());
+				}
+			});
+			for (int index : order) {
+				final String text = batchTexts.get(index);
+				batch.set(index, pool.submit(() -> parse(text)));
+			}
+			tasks.addAll(batch);
+		}
+
+		@Override
+		public boolean hasNext() {
+			return !tasks.isEmpty() || texts.hasNext();
+		}
+
+		@Override
+		public List<CoreMap> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			if (pool == null) {
+				return parse(texts.next());
+			}
+			// the next batch is scheduled when the first parse of the last scheduled batch is requested
+			if (tasks.size() <= batchSize) {
+				scheduleBatch();
+			}
+			List<CoreMap> sentences = tasks.poll().join();
+			if (!hasNext()) {
+				pool.shutdown();
+			}
+			return sentences;
+		}
+
+		/**
+		 * Cancels the parses that have not been requested and stops the threads. Does nothing if all parses have been requested.
+		 */
+		@Override
+		public void close() {
+			if (pool == null) {
+				return;
+			}
+			for (ForkJoinTask<List<CoreMap>> task : tasks) {
+				task.cancel(true);
+			}
+			tasks.clear();
+			pool.shutdownNow();
+		}
+	}
+}
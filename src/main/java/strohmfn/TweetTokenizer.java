@@ -0,0 +1,38 @@
+package strohmfn;
+
+import java.util.List;
+
+/**
+ * Splits the text of a Tweet into tokens and normalizes them. The normalized string of a token is lower case, users, hashtags and URLs are replaced by
+ * XUSERX, XHASHTAGX and XURLX. The normalized string only depends on the token string, so it can be cached (see NormalizationCache). Implementations
+ * have to be thread safe, because the data files can be tokenized by several threads.
+ *
+ * @author strohmfn
+ *
+ */
+public interface TweetTokenizer {
+
+	/**
+	 * Tokenizes the text of a Tweet.
+	 *
+	 * @param text
+	 *            The text of the Tweet.
+	 * @param tokenStrings
+	 *            The list the original token strings are added to.
+	 */
+	void tokenize(String text, List<String> tokenStrings);
+
+	/**
+	 *
+	 * @param tokenString
+	 *            A token string created by tokenize().
+	 * @return Returns the normalized string of the token.
+	 */
+	String normalize(String tokenString);
+
+	/**
+	 *
+	 * @return Returns a name that identifies the tokenizer and its options. Is part of the fingerprint of cached corpora.
+	 */
+	String getName();
+}
@@ -0,0 +1,304 @@
+package strohmfn;
+
+import java.util.List;
+
+/**
+ * Hand-written tokenizer for Tweets. Users, hashtags, URLs, emoticons and emoji are kept as single tokens, contractions are split like the PTBTokenizer
+ * does it (do n't, it 's). ASCII characters are classified with a lookup table, other characters with the Character class. The tokenizer has no state, so it can be used by several threads at the same time.
+ *
+ * @author strohmfn
+ *
+ */
+public class TweetTokenizer_Fast implements TweetTokenizer {
+
+	// Version of the tokenization rules. Has to be increased whenever the rules change, so outdated cache files are not used.
+	private static final int VERSION = 2;
+
+	// Character classes.
+	private static final byte OTHER = 0;
+	private static final byte SPACE = 1;
+	// Letters, digits and the underscore, i.e. the characters of words, users and hashtags.
+	private static final byte WORD = 2;
+	private static final byte APOSTROPHE = 3;
+	// Characters that are merged into one token if they are repeated (..., !!!, ?!). Dots are only merged with dots.
+	private static final byte SENTENCE_END = 4;
+
+	// Classes of the ASCII characters.
+	private static final byte[] ASCII_CLASSES = new byte[128];
+
+	static {
+		for (char c = 0; c < 128; c++) {
+			if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_') {
+				ASCII_CLASSES[c] = WORD;
+			} else if (c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == 0x0B) {
+				ASCII_CLASSES[c] = SPACE;
+			} else if (c == '\'') {
+				ASCII_CLASSES[c] = APOSTROPHE;
+			} else if (c == '.' || c == '!' || c == '?') {
+				ASCII_CLASSES[c] = SENTENCE_END;
+			} else {
+				ASCII_CLASSES[c] = OTHER;
+			}
+		}
+	}
+
+	// Emoticons that are kept as one token. Longer emoticons come first, so the longest emoticon at a position is found.
+	private static final String[] EMOTICONS = { ">:-(", ">:(", ":-)", ":-(", ":-D", ":-P", ":-p", ":-/", ":-*", ":-o", ":-O", ":-|", ";-)", ":'(", ":')",
+			"^_^", "-_-", "<3", ":)", ":(", ":D", ":P", ":p", ":/", ":*", ":o", ":O", ":|", ":3", ";)", ";D", ";P", "(:", "):", "^^", "XD", "xD", "=)",
+			"=(" };
+
+	// Contractions that are split from the preceding word (after the apostrophe). n't is handled separately, because the n belongs to it.
+	private static final String[] CONTRACTIONS = { "s", "m", "d", "ll", "re", "ve" };
+
+	// Trailing characters that are not considered part of a URL.
+	private static final String URL_TRAILING_PUNCTUATION = ".,!?;:)\"'";
+
+	@Override
+	public void tokenize(String text, List<String> tokenStrings) {
+		int length = text.length();
+		int position = 0;
+		while (position < length) {
+			char c = text.charAt(position);
+			byte type = classOf(c);
+			if (type == SPACE) {
+				position++;
+				continue;
+			}
+			int end;
+			if (isURLStart(text, position)) {
+				end = findURLEnd(text, position);
+			} else if ((c == '@' || c == '#') && position + 1 < length && classOf(text.charAt(position + 1)) == WORD) {
+				end = skipWordCharacters(text, position + 1);
+			} else if ((end = matchEmoticon(text, position)) != -1) {
+				// the emoticon is a token of its own
+			} else if (type == WORD) {
+				// words add their tokens themselves, because contractions are split off
+				position = tokenizeWord(text, position, tokenStrings);
+				continue;
+			} else if (type == SENTENCE_END) {
+				// dots are not merged with exclamation and question marks (... !!!)
+				end = position + 1;
+				while (end < length && classOf(text.charAt(end)) == SENTENCE_END && (text.charAt(end) == '.') == (c == '.')) {
+					end++;
+				}
+			} else {
+				end = skipSymbol(text, position);
+			}
+			tokenStrings.add(text.substring(position, end));
+			position = end;
+		}
+	}
+
+	/**
+	 * Users, hashtags and URLs are only created by tokenize() as tokens of their own, so they are recognized by their start.
+	 */
+	@Override
+	public String normalize(String tokenString) {
+		if (tokenString.length() > 1 && classOf(tokenString.charAt(1)) == WORD) {
+			if (tokenString.charAt(0) == '@') {
+				return "XUSERX";
+			}
+			if (tokenString.charAt(0) == '#') {
+				return "XHASHTAGX";
+			}
+		}
+		if (isURLStart(tokenString, 0)) {
+			return "XURLX";
+		}
+		return toLowerCase(tokenString);
+	}
+
+	@Override
+	public String getName() {
+		return "Fast " + VERSION;
+	}
+
+	/**
+	 * Adds the tokens of a word. Hyphenated words, numbers with decimal separators and times stay one token. The contractions n't, 's, 'm, 'd, 'll, 're
+	 * and 've are split from the word.
+	 *
+	 * @return Returns the index directly after the word.
+	 */
+	private int tokenizeWord(String text, int start, List<String> tokenStrings) {
+		int length = text.length();
+		int position = start;
+		while (position < length) {
+			char c = text.charAt(position);
+			byte type = classOf(c);
+			if (type == WORD) {
+				position++;
+				continue;
+			}
+			// all connecting characters need a word character behind them
+			if (position + 1 >= length || classOf(text.charAt(position + 1)) != WORD) {
+				break;
+			}
+			if (c == '-') {
+				position++;
+			} else if ((c == '.' || c == ',' || c == ':') && isDigit(text.charAt(position - 1)) && isDigit(text.charAt(position + 1))) {
+				position++;
+			} else if (type == APOSTROPHE) {
+				int suffixEnd = skipWordCharacters(text, position + 1);
+				// n't: the n is split from the word as well (do n't, ca n't)
+				if (suffixEnd == position + 2 && (text.charAt(position + 1) == 't' || text.charAt(position + 1) == 'T') && position - start >= 2
+						&& (text.charAt(position - 1) == 'n' || text.charAt(position - 1) == 'N')) {
+					tokenStrings.add(text.substring(start, position - 1));
+					tokenStrings.add(text.substring(position - 1, suffixEnd));
+					return suffixEnd;
+				}
+				if (isContraction(text, position + 1, suffixEnd)) {
+					tokenStrings.add(text.substring(start, position));
+					tokenStrings.add(text.substring(position, suffixEnd));
+					return suffixEnd;
+				}
+				// other apostrophes are part of the word (o'clock)
+				position++;
+			} else {
+				break;
+			}
+		}
+		tokenStrings.add(text.substring(start, position));
+		return position;
+	}
+
+	/**
+	 *
+	 * @return Returns the lower case string. ASCII strings are converted without String.toLowerCase(), strings that are already lower case are returned
+	 *         as they are.
+	 */
+	private static String toLowerCase(String string) {
+		int length = string.length();
+		int i = 0;
+		while (i < length) {
+			char c = string.charAt(i);
+			if (c >= 128) {
+				return string.toLowerCase();
+			}
+			if (c >= 'A' && c <= 'Z') {
+				break;
+			}
+			i++;
+		}
+		if (i == length) {
+			return string;
+		}
+		char[] chars = string.toCharArray();
+		for (; i < length; i++) {
+			char c = chars[i];
+			if (c >= 128) {
+				return string.toLowerCase();
+			}
+			if (c >= 'A' && c <= 'Z') {
+				chars[i] = (char) (c + ('a' - 'A'));
+			}
+		}
+		return new String(chars);
+	}
+
+	/**
+	 *
+	 * @return Returns the class of a character.
+	 */
+	private static byte classOf(char c) {
+		if (c < 128) {
+			return ASCII_CLASSES[c];
+		}
+		if (Character.isLetterOrDigit(c) || Character.getType(c) == Character.NON_SPACING_MARK) {
+			return WORD;
+		}
+		if (Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+			return SPACE;
+		}
+		// right single quotation mark, often used as apostrophe
+		if (c == '\u2019') {
+			return APOSTROPHE;
+		}
+		return OTHER;
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	/**
+	 *
+	 * @return Returns the index of the first character after the word characters that start at the given index.
+	 */
+	private static int skipWordCharacters(String text, int position) {
+		while (position < text.length() && classOf(text.charAt(position)) == WORD) {
+			position++;
+		}
+		return position;
+	}
+
+	/**
+	 *
+	 * @return Returns true if the text between start and end is one of the contractions (case insensitive).
+	 */
+	private static boolean isContraction(String text, int start, int end) {
+		for (int i = 0; i < CONTRACTIONS.length; i++) {
+			if (CONTRACTIONS[i].length() == end - start && text.regionMatches(true, start, CONTRACTIONS[i], 0, end - start)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isURLStart(String text, int position) {
+		return text.regionMatches(true, position, "http://", 0, 7) || text.regionMatches(true, position, "https://", 0, 8)
+				|| text.regionMatches(true, position, "www.", 0, 4);
+	}
+
+	/**
+	 *
+	 * @return Returns the end of the URL that starts at the given index. The URL ends at the next white space, trailing punctuation is not part of it.
+	 */
+	private static int findURLEnd(String text, int start) {
+		int end = start;
+		while (end < text.length() && classOf(text.charAt(end)) != SPACE) {
+			end++;
+		}
+		while (end > start + 1 && URL_TRAILING_PUNCTUATION.indexOf(text.charAt(end - 1)) >= 0) {
+			end--;
+		}
+		return end;
+	}
+
+	/**
+	 *
+	 * @return Returns the end of the emoticon at the given index or -1 if there is no emoticon. An emoticon must not be followed by a word character.
+	 */
+	private static int matchEmoticon(String text, int position) {
+		for (int i = 0; i < EMOTICONS.length; i++) {
+			if (text.startsWith(EMOTICONS[i], position)) {
+				int end = position + EMOTICONS[i].length();
+				if (end == text.length() || classOf(text.charAt(end)) != WORD) {
+					return end;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 *
+	 * @return Returns the end of the symbol at the given index. Emoji (surrogate pairs) stay together with their variation selectors, skin tone modifiers
+	 *         and zero width joiner sequences.
+	 */
+	private static int skipSymbol(String text, int position) {
+		int end = position + Character.charCount(text.codePointAt(position));
+		while (end < text.length()) {
+			int codePoint = text.codePointAt(end);
+			if (codePoint == 0xFE0F || codePoint == 0x20E3 || (codePoint >= 0x1F3FB && codePoint <= 0x1F3FF)) {
+				end += Character.charCount(codePoint);
+			} else if (codePoint == 0x200D && end + 1 < text.length()) {
+				// zero width joiner: the next symbol belongs to the emoji
+				end++;
+				end += Character.charCount(text.codePointAt(end));
+			} else {
+				break;
+			}
+		}
+		return end;
+	}
+}
@@ -0,0 +1,59 @@
+package strohmfn;
+
+import java.io.StringReader;
+import java.util.Iterator;
+import java.util.List;
+
+import edu.stanford.nlp.ling.Word;
+import edu.stanford.nlp.process.PTBTokenizer;
+import edu.stanford.nlp.process.TokenizerFactory;
+
+/**
+ * Tokenizes Tweets with the PTBTokenizer of Stanford CoreNLP. The dependency tree and SVM modifier detection need
+ * this tokenizer, because they map the tokens of the CoreNLP parser to the token list by their index.
+ *
+ * @author strohmfn
+ *
+ */
+public class TweetTokenizer_PTB implements TweetTokenizer {
+
+	// Options of the PTBTokenizer. Tell the tokenizer factory to not delete untokenizable tokens.
+	private static final String TOKENIZER_OPTIONS = "untokenizable=noneDelete";
+
+	// Each thread uses its own tokenizer factory since the PTBTokenizer factory is not thread safe.
+	private ThreadLocal<TokenizerFactory<Word>> tf = ThreadLocal.withInitial(() -> {
+		TokenizerFactory<Word> factory = PTBTokenizer.factory();
+		factory.setOptions(TOKENIZER_OPTIONS);
+		return factory;
+	});
+
+	@Override
+	public void tokenize(String text, List<String> tokenStrings) {
+		// use stanford nlp library to tokenize the Tweet's text
+		List<Word> tokenListTemp = tf.get().getTokenizer(new StringReader(text)).tokenize();
+		// iterate over all tokens
+		Iterator<Word> iter = tokenListTemp.iterator();
+		while (iter.hasNext()) {
+			// convert the token to String
+			tokenStrings.add(iter.next().toString());
+		}
+	}
+
+	@Override
+	public String normalize(String tokenString) {
+		String normalizedString = tokenString.toLowerCase();
+		if (normalizedString.startsWith("@")) {
+			normalizedString = "XUSERX";
+		} else if (normalizedString.startsWith("#")) {
+			normalizedString = "XHASHTAGX";
+		} else if (normalizedString.startsWith("http")) {
+			normalizedString = "XURLX";
+		}
+		return normalizedString;
+	}
+
+	@Override
+	public String getName() {
+		return "PTB " + TOKENIZER_OPTIONS;
+	}
+}
@@ -0,0 +1,84 @@
+package strohmfn;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide vocabulary of the token strings. Every distinct string is stored exactly once and gets a dense integer ID (0, 1, 2, ...), so
+ * lookups can be done by array indexing instead of hashing and comparing strings. The IDs are only valid within the running process. The vocabulary can
+ * be used by several threads at the same time.
+ *
+ * @author strohmfn
+ *
+ */
+public class Vocabulary {
+
+	// Maps each string to its ID.
+	private static final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<String, Integer>();
+	// Maps each ID to its string. Is replaced by a larger copy if it is full, the new array is published after the copy is complete.
+	private static volatile String[] strings = new String[1024];
+	// Number of IDs that have been assigned.
+	private static volatile int size = 0;
+
+	private Vocabulary() {
+	}
+
+	/**
+	 * Returns the ID of a string. If the string is not part of the vocabulary yet, it is added.
+	 *
+	 * @param string
+	 *            The string whose ID is requested.
+	 * @return Returns the ID of the string.
+	 */
+	public static int getID(String string) {
+		Integer id = ids.get(string);
+		if (id != null) {
+			return id;
+		}
+		synchronized (ids) {
+			// check again, another thread could have added the string in the meantime
+			id = ids.get(string);
+			if (id == null) {
+				id = size;
+				if (id == strings.length) {
+					strings = Arrays.copyOf(strings, strings.length * 2);
+				}
+				// store the string before the ID gets visible to other threads
+				strings[id] = string;
+				size = id + 1;
+				ids.put(string, id);
+			}
+			return id;
+		}
+	}
+
+	/**
+	 * Returns the ID of a string without adding it to the vocabulary.
+	 *
+	 * @param string
+	 *            The string whose ID is requested.
+	 * @return Returns the ID of the string or -1 if the string is not part of the vocabulary.
+	 */
+	public static int lookupID(String string) {
+		Integer id = ids.get(string);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 *
+	 * @param id
+	 *            ID of a string.
+	 * @return Returns the (shared) string of the ID.
+	 */
+	public static String getString(int id) {
+		return strings[id];
+	}
+
+	/**
+	 *
+	 * @return Returns the number of strings in the vocabulary. All IDs are smaller than this number.
+	 */
+	public static int size() {
+		return size;
+	}
+}
@@ -0,0 +1,159 @@
+package strohmfn;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests writing, reading and appending corpus files. The Tweets are compared by a description that covers everything a corpus file stores.
+ *
+ * @author strohmfn
+ *
+ */
+public class CorpusFileTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Creates a Tweet whose first token negates the second one and intensifies the last one.
+	 */
+	private static Tweet createTweet(String ID, String goldEmotion, String... tokenStrings) {
+		ArrayList<Token> tokens = new ArrayList<Token>();
+		for (String tokenString : tokenStrings) {
+			tokens.add(new Token(tokenString, tokenString.toLowerCase()));
+		}
+		Tweet tweet = new Tweet(ID, goldEmotion, String.join(" ", tokenStrings), tokens);
+		Token modifier = tokens.get(0);
+		modifier.setNegator(true);
+		modifier.setIntensifier(true);
+		tokens.get(1).setNegated(true);
+		tokens.get(1).setNormalizedTokenString("NEG_" + tokens.get(1).getNormalizedTokenString());
+		tokens.get(tokens.size() - 1).setIntensified(true);
+		modifier.addModifies(tokens.get(1));
+		modifier.addModifies(tokens.get(tokens.size() - 1));
+		return tweet;
+	}
+
+	private static List<Tweet> createTrainingSet() {
+		Tweet collapsed = createTweet("11", "joy", "not", "bad", "at", "all");
+		collapsed.setMultiplicity(3);
+		Tweet predicted = createTweet("user_22", "anger", "so", "ANGRY", "now");
+		predicted.setPredictedEmotion("sadness");
+		return Arrays.asList(collapsed, predicted);
+	}
+
+	private static List<Tweet> createTestSet() {
+		return Arrays.asList(createTweet("123456789012345678", "sadness", "no", "fun", "today"));
+	}
+
+	/**
+	 * Describes a Tweet with its ID, emotions, multiplicity, text and tokens. The modified tokens are described by their index in the Tweet.
+	 */
+	private static String describe(Tweet tweet) {
+		StringBuilder description = new StringBuilder();
+		description.append(tweet.getID()).append(' ').append(tweet.getGoldEmotion()).append(' ').append(tweet.getPredictedEmotion()).append(' ')
+				.append(tweet.getMultiplicity()).append(' ').append(tweet.getOriginalText());
+		List<Token> tokens = tweet.getTokenList();
+		for (Token token : tokens) {
+			description.append(" | ").append(token.getTokenString()).append(' ').append(token.getNormalizedTokenString()).append(' ')
+					.append(token.getFlags());
+			for (Token modified : token.getModifies()) {
+				description.append(" ->").append(tokens.indexOf(modified));
+			}
+		}
+		return description.toString();
+	}
+
+	private static List<String> describe(List<Tweet> tweets) {
+		ArrayList<String> descriptions = new ArrayList<String>();
+		for (Tweet tweet : tweets) {
+			descriptions.add(describe(tweet));
+		}
+		return descriptions;
+	}
+
+	private static List<Tweet> read(CorpusFile corpusFile, int set) throws Exception {
+		ArrayList<Tweet> tweets = new ArrayList<Tweet>();
+		corpusFile.readSet(set, tweets);
+		return tweets;
+	}
+
+	@Test
+	public void writeAndRead() throws Exception {
+		File file = folder.newFile("corpus.bin");
+		List<Tweet> trainingSet = createTrainingSet();
+		List<Tweet> testSet = createTestSet();
+		CorpusFile.write(file, trainingSet, testSet, "tokenizer=1");
+		assertTrue(CorpusFile.isCorpusFile(file));
+
+		CorpusFile corpusFile = new CorpusFile(file);
+		assertEquals(describe(trainingSet), describe(read(corpusFile, CorpusFile.TRAINING_SET)));
+		assertEquals(describe(testSet), describe(read(corpusFile, CorpusFile.TEST_SET)));
+		assertEquals(2, corpusFile.getTweetCount(CorpusFile.TRAINING_SET));
+		assertEquals(1, corpusFile.getTweetCount(CorpusFile.TEST_SET));
+		// the emotion counts include the collapsed duplicates
+		HashMap<String, Integer> emotionCounts = corpusFile.getEmotionCounts(CorpusFile.TRAINING_SET);
+		assertEquals(Integer.valueOf(3), emotionCounts.get("joy"));
+		assertEquals(Integer.valueOf(1), emotionCounts.get("anger"));
+		assertEquals("tokenizer=1", corpusFile.getAnnotation());
+		assertEquals(0, corpusFile.getAppendedFiles().length);
+	}
+
+	@Test
+	public void append() throws Exception {
+		File file = folder.newFile("corpus.bin");
+		CorpusFile.write(file, createTrainingSet(), Collections.<Tweet>emptyList(), "tokenizer=1");
+		CorpusFile.append(file, Collections.<Tweet>emptyList(), createTestSet(), Arrays.asList(42L));
+		List<Tweet> moreTweets = Arrays.asList(createTweet("33", "joy", "not", "sad"));
+		CorpusFile.append(file, moreTweets, Collections.<Tweet>emptyList(), Arrays.asList(-7L));
+
+		CorpusFile corpusFile = new CorpusFile(file);
+		ArrayList<Tweet> trainingSet = new ArrayList<Tweet>(createTrainingSet());
+		trainingSet.addAll(moreTweets);
+		assertEquals(describe(trainingSet), describe(read(corpusFile, CorpusFile.TRAINING_SET)));
+		assertEquals(describe(createTestSet()), describe(read(corpusFile, CorpusFile.TEST_SET)));
+		assertEquals(Integer.valueOf(4), corpusFile.getEmotionCounts(CorpusFile.TRAINING_SET).get("joy"));
+		assertEquals("tokenizer=1", corpusFile.getAnnotation());
+		assertArrayEquals(new long[] { 42L, -7L }, corpusFile.getAppendedFiles());
+	}
+
+	@Test
+	public void abortAppend() throws Exception {
+		File file = folder.newFile("corpus.bin");
+		CorpusFile.write(file, createTrainingSet(), createTestSet(), "tokenizer=1");
+		byte[] content = Files.readAllBytes(file.toPath());
+
+		CorpusFileWriter writer = CorpusFileWriter.append(file);
+		writer.addAppendedFile(42L);
+		// more Tweets than fit into one block, so blocks have been written before the abort
+		for (int i = 0; i < CorpusFile.TWEETS_PER_BLOCK + 1; i++) {
+			writer.addTweet(CorpusFile.TEST_SET, createTweet(String.valueOf(1000 + i), "fear", "not", "scary", "at", "all"));
+		}
+		writer.abort();
+		assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+		assertEquals(describe(createTestSet()), describe(read(new CorpusFile(file), CorpusFile.TEST_SET)));
+	}
+
+	@Test
+	public void abortNewFile() throws Exception {
+		File file = new File(folder.getRoot(), "new.bin");
+		CorpusFileWriter writer = new CorpusFileWriter(file);
+		writer.addTweets(CorpusFile.TRAINING_SET, createTrainingSet());
+		writer.abort();
+		assertFalse(file.exists());
+	}
+}
@@ -0,0 +1,116 @@
+package strohmfn;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import edu.stanford.nlp.ling.CoreAnnotations.TokensAnnotation;
+import edu.stanford.nlp.ling.CoreLabel;
+import edu.stanford.nlp.ling.IndexedWord;
+import edu.stanford.nlp.semgraph.SemanticGraph;
+import edu.stanford.nlp.semgraph.SemanticGraphCoreAnnotations.EnhancedDependenciesAnnotation;
+import edu.stanford.nlp.semgraph.SemanticGraphEdge;
+import edu.stanford.nlp.trees.UniversalEnglishGrammaticalRelations;
+import edu.stanford.nlp.util.ArrayCoreMap;
+import edu.stanford.nlp.util.CoreMap;
+
+/**
+ * Tests that the entries of the ParseCache keep the POS tags and the dependencies of the sentences. The sentences are built by hand, so no models are
+ * loaded.
+ *
+ * @author strohmfn
+ *
+ */
+public class ParseCacheTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Builds the sentence "I do n't like it" with a root, three relations and an extra edge with a weight.
+	 */
+	private static CoreMap createSentence() {
+		String[] words = { "I", "do", "n't", "like", "it" };
+		String[] tags = { "PRP", "VBP", "RB", "VB", "PRP" };
+		ArrayList<CoreLabel> tokens = new ArrayList<CoreLabel>();
+		ArrayList<IndexedWord> vertices = new ArrayList<IndexedWord>();
+		SemanticGraph dependencies = new SemanticGraph();
+		for (int i = 0; i < words.length; i++) {
+			CoreLabel token = new CoreLabel();
+			token.setWord(words[i]);
+			token.setTag(tags[i]);
+			token.setIndex(i + 1);
+			token.setSentIndex(0);
+			tokens.add(token);
+			IndexedWord vertex = new IndexedWord(token);
+			vertices.add(vertex);
+			dependencies.addVertex(vertex);
+		}
+		IndexedWord like = vertices.get(3);
+		dependencies.addRoot(like);
+		dependencies.addEdge(like, vertices.get(0), UniversalEnglishGrammaticalRelations.NOMINAL_SUBJECT, Double.NEGATIVE_INFINITY, false);
+		dependencies.addEdge(like, vertices.get(1), UniversalEnglishGrammaticalRelations.AUX_MODIFIER, Double.NEGATIVE_INFINITY, false);
+		dependencies.addEdge(like, vertices.get(2), UniversalEnglishGrammaticalRelations.NEGATION_MODIFIER, Double.NEGATIVE_INFINITY, false);
+		dependencies.addEdge(like, vertices.get(4), UniversalEnglishGrammaticalRelations.DIRECT_OBJECT, 0.5, true);
+		CoreMap sentence = new ArrayCoreMap(2);
+		sentence.set(TokensAnnotation.class, tokens);
+		sentence.set(EnhancedDependenciesAnnotation.class, dependencies);
+		return sentence;
+	}
+
+	/**
+	 * Describes the tags and the dependencies of a sentence by the token indices, which are kept by the cache (the words are not).
+	 */
+	private static List<String> describe(CoreMap sentence) {
+		ArrayList<String> description = new ArrayList<String>();
+		for (CoreLabel token : sentence.get(TokensAnnotation.class)) {
+			description.add(token.index() + "/" + token.tag());
+		}
+		SemanticGraph dependencies = sentence.get(EnhancedDependenciesAnnotation.class);
+		for (IndexedWord root : dependencies.getRoots()) {
+			description.add("root " + root.index());
+		}
+		for (SemanticGraphEdge edge : dependencies.edgeListSorted()) {
+			description.add(edge.getRelation() + "(" + edge.getGovernor().index() + ", " + edge.getDependent().index() + ") " + edge.getWeight() + " "
+					+ edge.isExtra());
+		}
+		return description;
+	}
+
+	@Test
+	public void putAndGetEntry() throws Exception {
+		File directory = folder.newFolder("cache");
+		ParseCache cache = new ParseCache(directory, 1 << 20);
+		String key = ParseCache.createKey("test", "I don't like it");
+		assertNull(cache.get(key));
+		List<CoreMap> sentences = Arrays.asList(createSentence(), createSentence());
+		cache.put(key, sentences);
+		assertEquals(1, cache.size());
+
+		List<CoreMap> cachedSentences = cache.get(key);
+		assertNotNull(cachedSentences);
+		assertEquals(sentences.size(), cachedSentences.size());
+		for (int i = 0; i < sentences.size(); i++) {
+			assertEquals(describe(sentences.get(i)), describe(cachedSentences.get(i)));
+		}
+		// the tokens of the graph are the tokens of the sentence, so the modifier detection finds them by their index
+		SemanticGraph dependencies = cachedSentences.get(0).get(EnhancedDependenciesAnnotation.class);
+		assertTrue(dependencies.getFirstRoot().backingLabel() == cachedSentences.get(0).get(TokensAnnotation.class).get(3));
+
+		// the entry is found again when the cache is opened by the next run
+		cache.flush();
+		ParseCache reopenedCache = new ParseCache(directory, 1 << 20);
+		assertEquals(1, reopenedCache.size());
+		assertEquals(describe(sentences.get(0)), describe(reopenedCache.get(key).get(0)));
+	}
+}
@@ -0,0 +1,58 @@
+package strohmfn;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests the tokenization and normalization of TweetTokenizer_Fast.
+ *
+ * @author strohmfn
+ *
+ */
+public class TweetTokenizer_FastTest {
+
+	private TweetTokenizer_Fast tokenizer = new TweetTokenizer_Fast();
+
+	private List<String> tokenize(String text) {
+		ArrayList<String> tokenStrings = new ArrayList<String>();
+		tokenizer.tokenize(text, tokenStrings);
+		return tokenStrings;
+	}
+
+	@Test
+	public void splitsContractions() {
+		assertEquals(Arrays.asList("I", "do", "n't", "think", "it", "'s", "fine"), tokenize("I don't think it's fine"));
+		assertEquals(Arrays.asList("we", "'re", "sure", "they", "'ll", "come", ",", "ca", "n't", "wait"), tokenize("we're sure they'll come, can't wait"));
+		// the right single quotation mark is used as apostrophe as well
+		assertEquals(Arrays.asList("I", "’m", "here"), tokenize("I’m here"));
+	}
+
+	@Test
+	public void keepsURLs() {
+		assertEquals(Arrays.asList("see", "http://t.co/AbC123?x=1", "."), tokenize("see http://t.co/AbC123?x=1."));
+		assertEquals(Arrays.asList("(", "www.example.com/a-b", ")"), tokenize("(www.example.com/a-b)"));
+		assertEquals("XURLX", tokenizer.normalize("https://example.com"));
+	}
+
+	@Test
+	public void keepsUsersAndHashtags() {
+		assertEquals(Arrays.asList("@user_1", "loves", "#Mondays", "!!!"), tokenize("@user_1 loves #Mondays!!!"));
+		assertEquals("XUSERX", tokenizer.normalize("@user_1"));
+		assertEquals("XHASHTAGX", tokenizer.normalize("#Mondays"));
+		assertEquals("mondays", tokenizer.normalize("Mondays"));
+	}
+
+	@Test
+	public void keepsEmoticonsAndEmoji() {
+		assertEquals(Arrays.asList("great", ":-)", "<3"), tokenize("great :-)<3"));
+		// an emoji with a skin tone modifier and a sequence joined by zero width joiners are single tokens
+		String thumbsUp = "👍🏽";
+		String family = "👨‍👩‍👧";
+		assertEquals(Arrays.asList("yes", thumbsUp, family, "😂", "😂"), tokenize("yes" + thumbsUp + family + "😂😂"));
+	}
+}